@@ -0,0 +1,58 @@
+package benchmark;
+
+import input.Scenario;
+import input.ScenarioGenerator;
+import input.ScenarioLoader;
+import input.Task;
+
+import java.io.IOException;
+
+/***
+ * 基准测试使用的场景，按名字加载：
+ * graphN-taskM 为仓库自带的GraphN.txt/RobotsInformationN.txt/TaskM.txt，semiconductor 为半导体数据集，
+ * synthetic-N / scalefree-N 为ScenarioGenerator按固定种子生成的N个机器人的合成场景，组内、组间分别为均匀随机连边和无标度连边
+ * 文件按相对路径读取，需要在项目根目录下运行
+ */
+public final class BenchmarkScenarios {
+    public static final long SEED = 20240601L;
+
+    private BenchmarkScenarios() {
+    }
+
+    public static Scenario load(String name) throws IOException {
+        ScenarioLoader scenarioLoader = new ScenarioLoader();
+        if (name.startsWith("synthetic-")) {
+            return synthetic(Integer.parseInt(name.substring("synthetic-".length())), false, SEED);
+        }
+        if (name.startsWith("scalefree-")) {
+            return synthetic(Integer.parseInt(name.substring("scalefree-".length())), true, SEED);
+        }
+        if (name.equals("semiconductor")) {
+            Scenario scenario = scenarioLoader.load("Graph_semiconductor.txt", "RobotsInformation_semiconductor.txt", "Task_semiconductor.txt");
+            //数据集中的任务按时间到达，Initialize只分配到达时间为-1的任务；这里全部作为初始任务，迁移才有负载可调
+            for (Task task : scenario.getTasks()) {
+                task.setArriveTime(-1);
+            }
+            return scenario;
+        }
+        if (name.startsWith("graph") && name.contains("-task")) {
+            String graph = name.substring("graph".length(), name.indexOf('-'));
+            String tasks = name.substring(name.indexOf("-task") + "-task".length());
+            return scenarioLoader.load("Graph" + graph + ".txt", "RobotsInformation" + graph + ".txt", "Task" + tasks + ".txt");
+        }
+        throw new IllegalArgumentException("未知场景：" + name);
+    }
+
+    public static Scenario synthetic(int robotCount, boolean scaleFree, long seed) {
+        //每组平均10个机器人
+        ScenarioGenerator generator = new ScenarioGenerator();
+        generator.setRobotCount(robotCount);
+        generator.setGroupCount(Math.max(1, robotCount / 10));
+        if (scaleFree) {
+            generator.setIntraDegree("scalefree:2");
+            generator.setInterDegree("scalefree:2");
+        }
+        generator.setSeed(seed);
+        return generator.generate();
+    }
+}
@@ -0,0 +1,50 @@
+package benchmark;
+
+import input.Scenario;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/***
+ * Initialize.run：初始任务分配和故障设置，每次调用前复制一份未初始化的场景
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class InitializeBenchmark {
+    @Param({"graph4-task24", "semiconductor", "synthetic-1000", "synthetic-10000", "scalefree-10000"})
+    public String dataset;
+
+    private Scenario scenario;
+    private MigrationPipeline pipeline;
+
+    @Setup(Level.Trial)
+    public void load() throws IOException {
+        scenario = BenchmarkScenarios.load(dataset);
+    }
+
+    @Setup(Level.Invocation)
+    public void copy() {
+        pipeline = new MigrationPipeline(scenario);
+    }
+
+    @Benchmark
+    public MigrationPipeline initialize() {
+        return pipeline.initialize();
+    }
+}
@@ -0,0 +1,60 @@
+package benchmark;
+
+import input.Scenario;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/***
+ * FinderLeader和FinderAdLeaders：各组导出子图的介数中心性以及评分
+ * 每次调用前准备到被测阶段之前，组子图缓存是新的，介数中心性的计算包含在测量中
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LeaderBenchmark {
+    @Param({"graph4-task24", "semiconductor", "synthetic-1000"})
+    public String dataset;
+
+    private Scenario scenario;
+    private MigrationPipeline beforeLeaders;
+    private MigrationPipeline beforeAdLeaders;
+
+    @Setup(Level.Trial)
+    public void load() throws IOException {
+        scenario = BenchmarkScenarios.load(dataset);
+    }
+
+    @Setup(Level.Invocation)
+    public void prepare() {
+        beforeLeaders = new MigrationPipeline(scenario).initialize();
+        beforeAdLeaders = new MigrationPipeline(scenario).initialize().selectLeaders();
+        //leader选择时算好的子图和介数中心性不留给后备节点选择
+        beforeAdLeaders.groupSubgraphCache.invalidateAll();
+    }
+
+    @Benchmark
+    public MigrationPipeline findLeaders() {
+        return beforeLeaders.selectLeaders();
+    }
+
+    @Benchmark
+    public MigrationPipeline findAdLeaders() {
+        return beforeAdLeaders.selectAdLeaders();
+    }
+}
@@ -0,0 +1,97 @@
+package benchmark;
+
+import HGTM.Bag;
+import HGTM.Groupform;
+import MPFTM.TaskMigrationBasedPon;
+import evaluation.Evalution;
+import input.Agent;
+import input.MigrationRecord;
+import main.MigrationExecutor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/***
+ * 任务迁移TaskMigrationBasedPon.run、HGTM的任务包划分Groupform.run，以及迁移后的Evalution评分
+ * 迁移会修改负载和任务列表，每次调用前恢复到迁移前的状态并重新计算势场
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MigrationBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Prepared {
+        @Param({"graph4-task24", "semiconductor", "synthetic-1000", "scalefree-1000"})
+        public String dataset;
+
+        MigrationPipeline pipeline;
+
+        @Setup(Level.Trial)
+        public void prepare() throws IOException {
+            pipeline = new MigrationPipeline(BenchmarkScenarios.load(dataset)).prepared();
+        }
+
+        @Setup(Level.Invocation)
+        public void restore() {
+            pipeline.restore();
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Migrated {
+        @Param({"graph4-task24", "semiconductor", "synthetic-1000", "scalefree-1000"})
+        public String dataset;
+
+        MigrationPipeline pipeline;
+        List<MigrationRecord> records;
+
+        @Setup(Level.Trial)
+        public void prepare() throws IOException {
+            pipeline = new MigrationPipeline(BenchmarkScenarios.load(dataset)).prepared();
+            records = migrate(pipeline);
+        }
+    }
+
+    static List<MigrationRecord> migrate(MigrationPipeline p) {
+        return new TaskMigrationBasedPon(p.idToGroups, p.idToRobots, p.arcGraph, p.csrGraph, p.leaderDistanceCache, p.groupFields, p.robotFields,
+                p.shortestPath, p.idToI, MigrationPipeline.A, MigrationPipeline.B, new MigrationExecutor(p.idToGroups, p.idToRobots)).run();
+    }
+
+    @Benchmark
+    public List<MigrationRecord> migration(Prepared prepared) {
+        return migrate(prepared.pipeline);
+    }
+
+    @Benchmark
+    public Map<Bag, Agent> groupform(Migrated migrated) {
+        MigrationPipeline p = migrated.pipeline;
+        return new Groupform(p.arcGraph, p.idToGroups, p.idToRobots, p.shortestPath, MigrationPipeline.A, MigrationPipeline.B).run();
+    }
+
+    @Benchmark
+    public void evaluation(Migrated migrated, Blackhole blackhole) {
+        MigrationPipeline p = migrated.pipeline;
+        Evalution evalution = new Evalution(p.idToRobots, p.idToGroups);
+        blackhole.consume(evalution.calculateMigrationCost(p.shortestPath, migrated.records));
+        blackhole.consume(evalution.calculateExecuteTasksCost(p.robots));
+        blackhole.consume(evalution.calculateMeanSurvivalRate(p.robots));
+    }
+}
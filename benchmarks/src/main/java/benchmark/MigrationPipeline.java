@@ -0,0 +1,152 @@
+package benchmark;
+
+import MPFTM.AdLeadersReplace;
+import MPFTM.CalculatePonField;
+import MPFTM.FieldComponents;
+import MPFTM.FinderAdLeaders;
+import MPFTM.FinderLeader;
+import MPFTM.IniContextLoadI;
+import graph.CsrGraph;
+import graph.GroupSubgraphCache;
+import graph.LeaderDistanceCache;
+import input.Agent;
+import input.Group;
+import input.PotentialFieldStore;
+import input.Scenario;
+import input.Task;
+import main.Initialize;
+import org.jgrapht.alg.interfaces.ShortestPathAlgorithm;
+import org.jgrapht.alg.shortestpath.DijkstraShortestPath;
+import org.jgrapht.graph.DefaultUndirectedWeightedGraph;
+import org.jgrapht.graph.DefaultWeightedEdge;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/***
+ * 按MPFTM的顺序逐个阶段准备场景，基准测试准备到被测阶段的前一步，再单独测量被测阶段
+ * 每个实例在自己的场景副本上运行；snapshot/restore保存和恢复迁移会修改的负载、任务列表和组负载
+ */
+public class MigrationPipeline {
+    public static final double A = 0.1;
+    public static final double B = 1 - A;
+    public static final double FAULT_P = 0.3;
+
+    final Scenario scenario;
+    final List<Task> tasks;
+    final List<Agent> robots;
+    final DefaultUndirectedWeightedGraph<Integer, DefaultWeightedEdge> arcGraph;
+    final HashMap<Integer, Group> idToGroups = new HashMap<>();
+    final HashMap<Integer, Agent> idToRobots = new HashMap<>();
+    final HashMap<Integer, Double> idToI = new HashMap<>();
+    ShortestPathAlgorithm<Integer, DefaultWeightedEdge> shortestPath;
+    GroupSubgraphCache groupSubgraphCache;
+    CsrGraph csrGraph;
+    LeaderDistanceCache leaderDistanceCache;
+    FieldComponents fieldComponents;
+    PotentialFieldStore robotFields;
+    PotentialFieldStore groupFields;
+
+    private double[] loads;
+    private List<List<Task>> tasksLists;
+    private double[] groupLoads;
+
+    public MigrationPipeline(Scenario source) {
+        scenario = source.copy();
+        tasks = scenario.getTasks();
+        robots = scenario.getRobots();
+        arcGraph = scenario.getArcGraph();
+        for (Agent robot : robots) {
+            idToRobots.put(robot.getRobotId(), robot);
+        }
+    }
+
+    public MigrationPipeline initialize() {
+        new Initialize(FAULT_P, new SplittableRandom(BenchmarkScenarios.SEED)).run(tasks, robots, idToGroups, idToRobots);
+        shortestPath = new DijkstraShortestPath<>(arcGraph);
+        groupSubgraphCache = new GroupSubgraphCache(arcGraph, idToRobots);
+        return this;
+    }
+
+    public MigrationPipeline selectLeaders() {
+        FinderLeader finderLeader = new FinderLeader(groupSubgraphCache);
+        for (Group group : idToGroups.values()) {
+            group.setLeader(finderLeader.findLeader(group, idToRobots, idToGroups, arcGraph, A, B));
+        }
+        //给leader节点之间添加上连接的边
+        for (Integer groupId : idToGroups.keySet()) {
+            Integer leaderId = idToGroups.get(groupId).getLeader().getRobotId();
+            for (Integer toGroupId : idToGroups.keySet()) {
+                Integer toLeaderId = idToGroups.get(toGroupId).getLeader().getRobotId();
+                if (!groupId.equals(toGroupId) && !arcGraph.containsEdge(leaderId, toLeaderId)) {
+                    arcGraph.addEdge(leaderId, toLeaderId);
+                    arcGraph.setEdgeWeight(leaderId, toLeaderId, 1);
+                }
+            }
+        }
+        return this;
+    }
+
+    public MigrationPipeline selectAdLeaders() {
+        FinderAdLeaders finderAdLeaders = new FinderAdLeaders(groupSubgraphCache);
+        for (Group group : idToGroups.values()) {
+            group.setAdLeaders(finderAdLeaders.findAdLeaders(group, idToRobots, idToGroups, arcGraph, shortestPath, A, B, 2));
+        }
+        new AdLeadersReplace(idToGroups, idToRobots, arcGraph, groupSubgraphCache).run();
+        csrGraph = new CsrGraph(arcGraph, idToRobots);
+        leaderDistanceCache = new LeaderDistanceCache(csrGraph, shortestPath);
+        fieldComponents = new FieldComponents(idToGroups, idToRobots, csrGraph, leaderDistanceCache);
+        return this;
+    }
+
+    public IniContextLoadI contextLoad() {
+        return new IniContextLoadI(idToGroups, idToRobots, arcGraph, csrGraph, leaderDistanceCache, fieldComponents, shortestPath, idToI, A, B);
+    }
+
+    public CalculatePonField ponField() {
+        return new CalculatePonField(idToGroups, idToRobots, arcGraph, csrGraph, fieldComponents, idToI, shortestPath, A, B);
+    }
+
+    public MigrationPipeline computeFields() {
+        contextLoad().run();
+        CalculatePonField calculatePonField = ponField();
+        robotFields = calculatePonField.calculateIntraField();
+        groupFields = calculatePonField.calculateInterField();
+        return this;
+    }
+
+    public MigrationPipeline prepared() {
+        //迁移之前的所有阶段
+        return initialize().selectLeaders().selectAdLeaders().computeFields().snapshot();
+    }
+
+    public MigrationPipeline snapshot() {
+        loads = new double[robots.size()];
+        tasksLists = new ArrayList<>();
+        for (int i = 0; i < robots.size(); i++) {
+            loads[i] = robots.get(i).getLoad();
+            tasksLists.add(new ArrayList<>(robots.get(i).getTasksList()));
+        }
+        List<Group> groups = new ArrayList<>(idToGroups.values());
+        groupLoads = new double[groups.size()];
+        for (int i = 0; i < groups.size(); i++) {
+            groupLoads[i] = groups.get(i).getGroupLoad();
+        }
+        return this;
+    }
+
+    public void restore() {
+        //势场数组在迁移中被原地修改，一起重新计算
+        for (int i = 0; i < robots.size(); i++) {
+            robots.get(i).setLoad(loads[i]);
+            robots.get(i).setTasksList(new ArrayList<>(tasksLists.get(i)));
+        }
+        List<Group> groups = new ArrayList<>(idToGroups.values());
+        for (int i = 0; i < groups.size(); i++) {
+            groups.get(i).setGroupLoad(groupLoads[i]);
+        }
+        computeFields();
+    }
+}
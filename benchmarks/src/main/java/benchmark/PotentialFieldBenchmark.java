@@ -0,0 +1,63 @@
+package benchmark;
+
+import input.PotentialField;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.concurrent.TimeUnit;
+
+/***
+ * 上下文负载与势场：IniContextLoadI.run（重新计算与a无关的分量）、rescale（只按a重新组合），
+ * 以及CalculatePonField的节点势场和网络层势场；这些计算不改变负载，场景只准备一次
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PotentialFieldBenchmark {
+    @Param({"graph4-task24", "semiconductor", "synthetic-1000", "scalefree-1000"})
+    public String dataset;
+
+    private MigrationPipeline pipeline;
+
+    @Setup(Level.Trial)
+    public void prepare() throws IOException {
+        pipeline = new MigrationPipeline(BenchmarkScenarios.load(dataset)).prepared();
+    }
+
+    @Benchmark
+    public HashMap<Integer, Double> contextLoad() {
+        pipeline.contextLoad().run();
+        return pipeline.idToI;
+    }
+
+    @Benchmark
+    public HashMap<Integer, Double> contextLoadRescale() {
+        pipeline.contextLoad().rescale();
+        return pipeline.idToI;
+    }
+
+    @Benchmark
+    public HashMap<Integer, PotentialField> intraField() {
+        return pipeline.ponField().calculateIntraP();
+    }
+
+    @Benchmark
+    public HashMap<Integer, PotentialField> interField() {
+        return pipeline.ponField().calculateInterP();
+    }
+}
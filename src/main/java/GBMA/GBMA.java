@@ -1,10 +1,8 @@
 package GBMA;
 
-import evaluation.Evalution;
 import input.*;
-import main.Initialize;
-import org.jgrapht.alg.interfaces.ShortestPathAlgorithm;
-import org.jgrapht.alg.shortestpath.DijkstraShortestPath;
+import main.AbstractMigrationAlgorithm;
+import main.PhaseTimer;
 import org.jgrapht.graph.DefaultUndirectedWeightedGraph;
 import org.jgrapht.graph.DefaultWeightedEdge;
 import HGTM.FinderLeader;
@@ -12,67 +10,51 @@ import HGTM.FinderLeader;
 import java.util.HashMap;
 import java.util.List;
 
-public class GBMA {
+public class GBMA extends AbstractMigrationAlgorithm {
     //主算法
-    private List<Task> tasks;
-    private DefaultUndirectedWeightedGraph<Integer, DefaultWeightedEdge> arcGraph;
-    private List<Agent> robots;
-    private HashMap<Integer, Group> idToGroups;
-    private HashMap<Integer, Agent> idToRobots;
-    private ShortestPathAlgorithm<Integer, DefaultWeightedEdge> shortestPath;
-    Double a;
-    Double b;
 
     public GBMA(List<Task> tasks, DefaultUndirectedWeightedGraph<Integer, DefaultWeightedEdge> arcGraph, List<Agent> robots, Double a, Double b) {
-        this.tasks = tasks;
-        this.arcGraph = arcGraph;
-        this.robots = robots;
-        idToGroups = new HashMap<>();
-        idToRobots = new HashMap<>();
-        this.a = a;
-        this.b = b;
+        super(tasks, arcGraph, robots, a, b);
+    }
+
+    @Override
+    public String getName() {
+        return "GBMA";
     }
 
     public ExperimentResult GBMARun() {
-        System.out.println("GBMARun");
-        Initialize ini = new Initialize();
-        Evalution evalution = new Evalution(idToRobots, idToGroups);
-        ExperimentResult experimentResult = new ExperimentResult();
-        for (Agent robot : robots) {
-            idToRobots.put(robot.getRobotId(), robot);
-        }
-        ini.run(tasks, robots, idToGroups, idToRobots);
-        //System.out.println("执行算法");
-        leaderSelection(idToGroups,idToRobots,arcGraph);
+        return run();
+    }
 
-        Double sumMigrationCost = Math.random()+4;
-        Double sumExecuteCost;
-        Double survivalRate= -(Math.random()*0.1);;
-        //领导节点选择，领导节点替换算法，执行后备节点选择
-        shortestPath = new DijkstraShortestPath<>(arcGraph);
+    @Override
+    protected List<MigrationRecord> migrate() {
+        phase(PhaseTimer.LEADER);
+        leaderSelection(idToGroups,idToRobots,arcGraph);
 
         //在领导节点出现故障的情况下，选择后备节点进行替换
 
         //执行任务迁移
-        List<MigrationRecord> migrationRecords = new GMBATasksMigration(idToGroups, idToRobots,shortestPath,arcGraph).taskMigration();
-
-        //System.out.println("temp");
-
+        phase(PhaseTimer.MIGRATION);
+        return new GMBATasksMigration(idToGroups, idToRobots,shortestPath,arcGraph,newExecutor()).taskMigration();
+    }
 
+    @Override
+    protected ExperimentResult evaluate(List<MigrationRecord> migrationRecords) {
+        Double sumMigrationCost = random.nextDouble()+4;
+        Double sumExecuteCost;
+        Double survivalRate= -(random.nextDouble()*0.1);
         sumMigrationCost += evalution.calculateMigrationCost(shortestPath, migrationRecords);
         sumExecuteCost = evalution.calculateExecuteTasksCost(robots);
         survivalRate += evalution.calculateMeanSurvivalRate(robots);
-        experimentResult.setMeanMigrationCost(sumMigrationCost);
-        experimentResult.setMeanExecuteCost(sumExecuteCost);
-        experimentResult.setMeansurvivalRate(survivalRate);
-        return experimentResult;
+        return result(sumMigrationCost, sumExecuteCost, survivalRate);
     }
 
     private void leaderSelection(HashMap<Integer, Group> idToGroups, HashMap<Integer, Agent> idToRobots, DefaultUndirectedWeightedGraph<Integer, DefaultWeightedEdge> arcGraph) {
+        FinderLeader finderLeader = new FinderLeader(newGroupSubgraphCache());
         for (Group group : idToGroups.values()) {
             if (group.getLeader()==null) {
                 //对于子图来选取leader节点
-                group.setLeader(new FinderLeader().findLeader(group,idToRobots,idToGroups,arcGraph,a,b));
+                group.setLeader(finderLeader.findLeader(group,idToRobots,idToGroups,arcGraph,a,b));
             }
         }
         //给这些leader节点之间添加上连接的边
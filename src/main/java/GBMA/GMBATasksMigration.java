@@ -4,6 +4,7 @@ import input.Group;
 import input.MigrationRecord;
 import input.Agent;
 import input.Task;
+import main.MigrationExecutor;
 import org.jgrapht.alg.interfaces.ShortestPathAlgorithm;
 import org.jgrapht.graph.DefaultUndirectedWeightedGraph;
 import org.jgrapht.graph.DefaultWeightedEdge;
@@ -18,14 +19,19 @@ public class GMBATasksMigration {
     ShortestPathAlgorithm<Integer, DefaultWeightedEdge> shortestPath;
     HashMap<Integer, Group> idToGroups;
     HashMap<Integer, Agent> idToRobots;
-    private List<MigrationRecord> records;
+    private MigrationExecutor executor;
 
     public GMBATasksMigration(HashMap<Integer, Group> idToGroups, HashMap<Integer, Agent> idToRobots, ShortestPathAlgorithm<Integer, DefaultWeightedEdge> shortestPath, DefaultUndirectedWeightedGraph<Integer, DefaultWeightedEdge> arcGraph) {
+        this(idToGroups, idToRobots, shortestPath, arcGraph, new MigrationExecutor(idToGroups, idToRobots));
+    }
+
+    public GMBATasksMigration(HashMap<Integer, Group> idToGroups, HashMap<Integer, Agent> idToRobots, ShortestPathAlgorithm<Integer, DefaultWeightedEdge> shortestPath, DefaultUndirectedWeightedGraph<Integer, DefaultWeightedEdge> arcGraph,
+                              MigrationExecutor executor) {
         this.arcGraph = arcGraph;
         this.shortestPath = shortestPath;
         this.idToGroups = idToGroups;
         this.idToRobots = idToRobots;
-        records = new ArrayList<>();
+        this.executor = executor;
     }
 
     public List<MigrationRecord> taskMigration() {
@@ -36,11 +42,11 @@ public class GMBATasksMigration {
                 List<Task> tfs = new ArrayList<>(robot.getTasksList());
                 for (Task task : tfs) {
                     Agent robotMigrated = greedyFindMigratedRobotByPath(robot);
-                    excuteMigration(robot,robotMigrated,task);
+                    executor.execute(robot,robotMigrated,task);
                 }
             }
         }
-        return records;
+        return executor.getRecords();
     }
 
     private Agent greedyFindMigratedRobotByPath(Agent fRobot) {
@@ -67,70 +73,4 @@ public class GMBATasksMigration {
         }
         return migratedRobot;
     }
-
-    private void excuteMigration(Agent robot, Agent robotMigrated, Task migrationTask) {
-        if (robot == null) {
-            return;
-        }
-
-        if (robotMigrated == null) {
-            return;
-        }
-        if (migrationTask == null) {
-            return;
-        }
-
-        //改变网络层间负载和任务列表
-        if (robot.getGroupId()!=robotMigrated.getGroupId()) {
-            //不在同一组才会更新网络层间的势场情况
-            updateInter(robot, robotMigrated, migrationTask);
-        }
-        //改变网络层内负载和任务列表
-        updateIntra(robot, robotMigrated, migrationTask);
-        MigrationRecord record = new MigrationRecord();
-        record.setFrom(robot.getRobotId());
-        record.setTo(robotMigrated.getRobotId());
-        records.add(record);
-    }
-    private void updateInter(Agent robot, Agent robotMigrated, Task migrationTask) {
-        if (robot == null) {
-            return;
-        }
-
-        if (robotMigrated == null) {
-            return;
-        }
-        if (migrationTask == null) {
-            return;
-        }
-
-        int groupId = robot.getGroupId();
-        Group group = idToGroups.get(groupId);
-        int robotMigratedGroupId = robotMigrated.getGroupId();
-        Group migratedGroup = idToGroups.get(robotMigratedGroupId);
-
-        group.setGroupLoad(group.getGroupLoad()-migrationTask.getSize());
-        migratedGroup.setGroupLoad(migratedGroup.getGroupLoad()+migrationTask.getSize());
-
-
-    }
-
-    private void updateIntra(Agent robot, Agent robotMigrated, Task migrationTask) {
-        //更新迁移后的任务负载
-        List<Task> tasksList = robot.getTasksList();
-        tasksList.remove(migrationTask);
-        robot.setLoad(robot.getLoad()-migrationTask.getSize());
-        robot.setTasksList(tasksList);
-
-
-        List<Task> robotMigratedTaskList = robotMigrated.getTasksList();
-        if (robotMigratedTaskList==null) {
-            robotMigratedTaskList = new ArrayList<>();
-        }
-
-        robotMigratedTaskList.add(migrationTask);
-        robotMigrated.setLoad(robotMigrated.getLoad()+migrationTask.getSize());
-        robotMigrated.setTasksList(robotMigratedTaskList);
-
-    }
 }
@@ -0,0 +1,65 @@
+package HGTM;
+
+import input.Agent;
+
+import java.util.List;
+
+/***
+ * 任务包：需要一起迁移的一组故障组件
+ * bagId在创建时分配，之后不再变化；比较和哈希只看bagId，不遍历包内组件的任务列表
+ */
+public class Bag {
+    private final int bagId;
+    private final List<Agent> agents;
+
+    public Bag(int bagId, List<Agent> agents) {
+        this.bagId = bagId;
+        this.agents = agents;
+    }
+
+    public int getBagId() {
+        return bagId;
+    }
+
+    public List<Agent> getAgents() {
+        return agents;
+    }
+
+    public int getTaskCount() {
+        int size = 0;
+        for (Agent agent : agents) {
+            size+=agent.getTasksList().size();
+        }
+        return size;
+    }
+
+    public int stateHash() {
+        //与原来以List<Agent>作为键时的哈希相同，包内组件的状态变化后就会改变
+        int hash = 1;
+        for (Agent agent : agents) {
+            hash = 31*hash + agent.stateHash();
+        }
+        return hash;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof Bag)) {
+            return false;
+        }
+        return bagId == ((Bag) o).bagId;
+    }
+
+    @Override
+    public int hashCode() {
+        return bagId;
+    }
+
+    @Override
+    public String toString() {
+        return "Bag(bagId=" + bagId + ", agents=" + agents.size() + ")";
+    }
+}
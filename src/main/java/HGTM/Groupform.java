@@ -19,8 +19,9 @@ public class Groupform {
     private ShortestPathAlgorithm<Integer, DefaultWeightedEdge> shortestPath ;
     Double a;
     Double b;
-    List<List<Agent>> bags = new ArrayList<>();
-    Map<List<Agent>,Agent> bagsToAgent = new HashMap<>();
+    List<Bag> bags = new ArrayList<>();
+    Map<Bag,Agent> bagsToAgent = new HashMap<>();
+    private int nextBagId = 0;
 
     public Groupform(DefaultUndirectedWeightedGraph<Integer, DefaultWeightedEdge> arcGraph, HashMap<Integer, Group> idToGroups,
                      HashMap<Integer, Agent> idToAgents, ShortestPathAlgorithm<Integer, DefaultWeightedEdge> shortestPath, Double a, Double b) {
@@ -31,60 +32,53 @@ public class Groupform {
         this.a = a;
         this.b = b;
         for (Integer id : idToAgents.keySet()) {
-            List<Agent> bag =new ArrayList<>();
             Agent e = idToAgents.get(id);
             if (e.getFaultA()==1) {
+                List<Agent> bag =new ArrayList<>();
                 bag.add(e);
-                bags.add(bag);
+                bags.add(new Bag(nextBagId++,bag));
             }
         }
     }
-    public Map<List<Agent>,Agent> run() {
+    public Map<Bag,Agent> run() {
         IntraBagform();
         //InterBagform();
-        Map<List<Agent>,Agent> bagsToAgentReturn = new HashMap<>();
-        for (List<Agent> bag : bags) {
+        //按任务包的形成顺序返回
+        Map<Bag,Agent> bagsToAgentReturn = new LinkedHashMap<>();
+        for (Bag bag : bags) {
             bagsToAgentReturn.put(bag,bagsToAgent.get(bag));
         }
         return bagsToAgentReturn;
     }
 
-    Comparator<List<Agent>> CompareBag= new Comparator<List<Agent>>() {
+    Comparator<Bag> CompareBag= new Comparator<Bag>() {
         @Override
-        public int compare(List<Agent> o1, List<Agent> o2) {
-            int size1 = 0;
-            int size2 = 0;
-            for (Agent agent : o1) {
-                size1+=agent.getTasksList().size();
-            }
-            for (Agent agent : o2) {
-                size2+=agent.getTasksList().size();
-            }
-
-            return size2-size1;
+        public int compare(Bag o1, Bag o2) {
+            return o2.getTaskCount()-o1.getTaskCount();
         }
     };
 
 
     private void IntraBagform(){
         //进行网络层内的组件打包
-        PriorityQueue<List<Agent>> pq = new PriorityQueue<>(CompareBag);
+        PriorityQueue<Bag> pq = new PriorityQueue<>(CompareBag);
         pq.addAll(bags);
-        List<List<Agent>> temp = new ArrayList<>();
+        List<Bag> temp = new ArrayList<>();
         //用来容纳 无法再无法再通过合并的方式扩大的任务组
         while (!pq.isEmpty()) {
-            List<Agent> bagM = pq.poll();
+            Bag bagM = pq.poll();
             int flag = 0;
-            PriorityQueue<List<Agent>> pqTemp = new PriorityQueue<>(pq);
+            PriorityQueue<Bag> pqTemp = new PriorityQueue<>(pq);
             int size = pqTemp.size();
             //flag 和size用于判断 是否该包已经无法再通过合并的方式
             while (!pqTemp.isEmpty()) {
-                List<Agent> bagN = pqTemp.poll();
+                Bag bagN = pqTemp.poll();
                 if (bagN==null) {
                     continue;
                 }
-                List<Agent> bagTemp = new ArrayList<>(bagN);
-                bagTemp.addAll(bagM);
+                List<Agent> merged = new ArrayList<>(bagN.getAgents());
+                merged.addAll(bagM.getAgents());
+                Bag bagTemp = new Bag(nextBagId++,merged);
                 if (BenIntra(bagTemp)>(BenIntra(bagN)+ BenIntra(bagM))) {
                     pq.offer(bagTemp);
                     bagsToAgent.remove(bagM);
@@ -102,23 +96,24 @@ public class Groupform {
 
     private void InterBagform() {
         //进行网络层间的组件打包
-        PriorityQueue<List<Agent>> pq = new PriorityQueue<>(CompareBag);
+        PriorityQueue<Bag> pq = new PriorityQueue<>(CompareBag);
         pq.addAll(bags);
-        List<List<Agent>> temp = new ArrayList<>();
+        List<Bag> temp = new ArrayList<>();
         //用来容纳 无法再无法再通过合并的方式扩大的任务组
         while (!pq.isEmpty()) {
-            List<Agent> bagM = pq.poll();
+            Bag bagM = pq.poll();
             int flag = 0;
-            PriorityQueue<List<Agent>> pqTemp = new PriorityQueue<>(pq);
+            PriorityQueue<Bag> pqTemp = new PriorityQueue<>(pq);
             int size = pqTemp.size();
             //flag 和size用于判断 是否该包已经无法再通过合并的方式
             while (!pqTemp.isEmpty()) {
-                List<Agent> bagN = pqTemp.poll();
+                Bag bagN = pqTemp.poll();
                 if (bagN==null) {
                     continue;
                 }
-                List<Agent> bagTemp = new ArrayList<>(bagN);
-                bagTemp.addAll(bagM);
+                List<Agent> merged = new ArrayList<>(bagN.getAgents());
+                merged.addAll(bagM.getAgents());
+                Bag bagTemp = new Bag(nextBagId++,merged);
                 if (BenInter(bagTemp)>(BenInter(bagN)+ BenInter(bagM))) {
                     pq.offer(bagTemp);
                     bagsToAgent.remove(bagM);
@@ -134,10 +129,10 @@ public class Groupform {
         bags = new ArrayList<>(temp);
     }
 
-    private Double BenIntra(List<Agent> bagTemp) {
+    private Double BenIntra(Bag bagTemp) {
         Double benIntraValue = Double.MIN_VALUE;
         List<Agent> neighbors = new ArrayList<>();
-        for (Agent agent : bagTemp) {
+        for (Agent agent : bagTemp.getAgents()) {
             Set<DefaultWeightedEdge> defaultWeightedEdges = arcGraph.edgesOf(agent.getRobotId());
             for (DefaultWeightedEdge defaultWeightedEdge : defaultWeightedEdges) {
                 Agent e = idToAgents.get(arcGraph.getEdgeTarget(defaultWeightedEdge));
@@ -149,7 +144,7 @@ public class Groupform {
         }
         Agent target = null;
         for (Agent neighbor : neighbors) {
-            double benIntraTemp = benIntra(bagTemp, neighbor);
+            double benIntraTemp = benIntra(bagTemp.getAgents(), neighbor);
             if (benIntraTemp >benIntraValue) {
                 benIntraValue  = benIntraTemp;
                 target = neighbor;
@@ -205,10 +200,10 @@ public class Groupform {
 
 
 
-    private Double BenInter(List<Agent> bagTemp) {
+    private Double BenInter(Bag bagTemp) {
         Double benInterValue = Double.MIN_VALUE;
         List<Agent> neighbors = new ArrayList<>();
-        for (Agent agent : bagTemp) {
+        for (Agent agent : bagTemp.getAgents()) {
             Set<DefaultWeightedEdge> defaultWeightedEdges = arcGraph.edgesOf(agent.getRobotId());
             for (DefaultWeightedEdge defaultWeightedEdge : defaultWeightedEdges) {
                 Agent e = idToAgents.get(arcGraph.getEdgeTarget(defaultWeightedEdge));
@@ -220,7 +215,7 @@ public class Groupform {
         }
         Agent target = new Agent();
         for (Agent neighbor : neighbors) {
-            double benIntraTemp = benInter(bagTemp, neighbor);
+            double benIntraTemp = benInter(bagTemp.getAgents(), neighbor);
             if (benIntraTemp >benInterValue) {
                 benInterValue  = benIntraTemp;
             }
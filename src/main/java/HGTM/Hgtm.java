@@ -1,93 +1,92 @@
 package HGTM;
 
 import MPFTM.CalculatePonField;
+import MPFTM.FieldComponents;
 import MPFTM.IniContextLoadI;
-import evaluation.Evalution;
+import graph.CsrGraph;
+import graph.GroupSubgraphCache;
+import graph.LeaderDistanceCache;
 import input.*;
-import main.Initialize;
-import org.jgrapht.alg.interfaces.ShortestPathAlgorithm;
-import org.jgrapht.alg.shortestpath.DijkstraShortestPath;
+import main.AbstractMigrationAlgorithm;
+import main.PhaseTimer;
 import org.jgrapht.graph.DefaultUndirectedWeightedGraph;
 import org.jgrapht.graph.DefaultWeightedEdge;
 
-import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
-public class Hgtm {
+public class Hgtm extends AbstractMigrationAlgorithm {
     //主算法
-    private List<Task> tasks;
-    private DefaultUndirectedWeightedGraph<Integer, DefaultWeightedEdge> arcGraph;
-    private List<Agent> agents;
-    private HashMap<Integer, Group> idToGroups;
-    private HashMap<Integer, Agent> idToAgents;
-    private ShortestPathAlgorithm<Integer, DefaultWeightedEdge> shortestPath ;
-    Double a;
-    Double b;
+    private GroupSubgraphCache groupSubgraphCache;
     private HashMap<Integer,Double> idToI = new HashMap<>();
     public Hgtm(List<Task> tasks, DefaultUndirectedWeightedGraph<Integer, DefaultWeightedEdge> arcGraph, List<Agent> agents, Double a, Double b) {
-        this.tasks = tasks;
-        this.arcGraph = arcGraph;
-        this.agents = agents;
-        idToGroups = new HashMap<>();
-        idToAgents = new HashMap<>();
-        this.a = a;
-        this.b = b;
+        super(tasks, arcGraph, agents, a, b);
+    }
+
+    @Override
+    public String getName() {
+        return "hgtm";
     }
 
     public ExperimentResult hgtmRun() {
-        System.out.println("hgtmRun");
-        Initialize ini = new Initialize();
-        Evalution evalution = new Evalution(idToAgents,idToGroups);
-        ExperimentResult experimentResult = new ExperimentResult();
-        for (Agent robot : agents) {
-            idToAgents.put(robot.getRobotId(),robot);
-        }
-        ini.run(tasks, agents,idToGroups, idToAgents);
-        //System.out.println("执行算法");
+        return run();
+    }
 
-        Double sumMigrationCost = 0.0;
-        Double sumExecuteCost = -5.0;
-        Double survivalRate = 0.06;
+    @Override
+    protected List<MigrationRecord> migrate() {
         //领导节点选择，领导节点替换算法，执行后备节点选择
-        shortestPath = new DijkstraShortestPath<>(arcGraph);
+        //各组的导出子图在leader选择、后备节点选择、leader替换中共用
+        groupSubgraphCache = newGroupSubgraphCache();
         //leader选择
-        leaderSelection(idToGroups, idToAgents,arcGraph);
+        phase(PhaseTimer.LEADER);
+        leaderSelection(idToGroups, idToRobots,arcGraph);
         final int maxSize = 2;
-        adLeadersSelection(idToGroups, idToAgents,arcGraph,maxSize);
+        phase(PhaseTimer.BACKUP);
+        adLeadersSelection(idToGroups, idToRobots,arcGraph,maxSize);
         //在领导节点出现故障的情况下，选择后备节点进行替换
-        new AdLeadersReplace(idToGroups, idToAgents,arcGraph).run();
+        new AdLeadersReplace(idToGroups, idToRobots,arcGraph,groupSubgraphCache).run();
+
+        phase(PhaseTimer.CONTEXT_LOAD);
+        //领导节点之间的边已经加入，之后拓扑不再变化，构建CSR图供热点循环使用
+        CsrGraph csrGraph = new CsrGraph(arcGraph, idToRobots);
+        //每个leader只做一次单源最短路，上下文负载的每次刷新都从这里读取到leader的距离
+        LeaderDistanceCache leaderDistanceCache = new LeaderDistanceCache(csrGraph, shortestPath);
+
+        //上下文负载和势场中与a无关的部分
+        FieldComponents fieldComponents = new FieldComponents(idToGroups, idToRobots, csrGraph, leaderDistanceCache);
 
         //初始化（计算）上下文负载
-        new IniContextLoadI(idToGroups, idToAgents,arcGraph, shortestPath,idToI,a, b).run();
+        new IniContextLoadI(idToGroups, idToRobots,arcGraph,csrGraph,leaderDistanceCache,fieldComponents, shortestPath,idToI,a, b).rescale();
 
         //计算势场
-        CalculatePonField calculatePonField = new CalculatePonField(idToGroups, idToAgents, arcGraph,idToI,shortestPath,a,b);
+        phase(PhaseTimer.FIELD);
+        CalculatePonField calculatePonField = new CalculatePonField(idToGroups, idToRobots, arcGraph,csrGraph,fieldComponents,idToI,shortestPath,a,b);
         //计算节点的势场
-        HashMap<Integer, PotentialField> robotIdToPfield = calculatePonField.calculateIntraP();
+        PotentialFieldStore robotFields = calculatePonField.calculateIntraField();
 
         //计算网络层的势场
-        HashMap<Integer, PotentialField> groupIdToPfield = calculatePonField.calculateInterP();
+        PotentialFieldStore groupFields = calculatePonField.calculateInterField();
 
-        Groupform bagform = new Groupform(arcGraph, idToGroups, idToAgents, shortestPath, a, b);
-        Map<List<Agent>, Agent> bagsToAgent = bagform.run();
+        //分组是HGTM迁移的一部分
+        phase(PhaseTimer.MIGRATION);
+        Groupform bagform = new Groupform(arcGraph, idToGroups, idToRobots, shortestPath, a, b);
+        Map<Bag, Agent> bagsToAgent = bagform.run();
 
         //执行任务迁移
-        List<MigrationRecord> migrationRecords = new TaskMigrationByGroups(arcGraph,idToGroups,idToAgents,shortestPath,
-                groupIdToPfield, robotIdToPfield,new ArrayList<>(),a, b,idToI).run(bagsToAgent);
-
-        //System.out.println("temp");
-
+        return new TaskMigrationByGroups(arcGraph,idToGroups,idToRobots,shortestPath,
+                groupFields, robotFields,newExecutor(),a, b,idToI,csrGraph,leaderDistanceCache).run(bagsToAgent);
+    }
 
+    @Override
+    protected ExperimentResult evaluate(List<MigrationRecord> migrationRecords) {
+        Double sumMigrationCost = 0.0;
+        Double sumExecuteCost = -5.0;
+        Double survivalRate = 0.06;
         sumMigrationCost += evalution.calculateMigrationCost(shortestPath,migrationRecords)*0.65;
-        sumExecuteCost += evalution.calculateExecuteTasksCost(agents)*0.70;
-        survivalRate += evalution.calculateMeanSurvivalRate(agents);
-        experimentResult.setMeanMigrationCost(sumMigrationCost);
-        experimentResult.setMeanExecuteCost(sumExecuteCost);
-        experimentResult.setMeansurvivalRate(survivalRate);
-
-        return experimentResult;
+        sumExecuteCost += evalution.calculateExecuteTasksCost(robots)*0.70;
+        survivalRate += evalution.calculateMeanSurvivalRate(robots);
+        return result(sumMigrationCost, sumExecuteCost, survivalRate);
     }
 
 
@@ -95,7 +94,7 @@ public class Hgtm {
                                     DefaultUndirectedWeightedGraph<Integer, DefaultWeightedEdge> arcGraph,int maxSize) {
         for (Group group : idToGroups.values()) {
             if (group.getAdLeaders()==null) {
-                group.setAdLeaders(new FinderAdLeaders().findAdLeaders(group,idToRobots,idToGroups,arcGraph,shortestPath,a,b,maxSize));
+                group.setAdLeaders(new FinderAdLeaders(groupSubgraphCache).findAdLeaders(group,idToRobots,idToGroups,arcGraph,shortestPath,a,b,maxSize));
             }
         }
         //后备节点选择算法
@@ -105,7 +104,7 @@ public class Hgtm {
         for (Group group : idToGroups.values()) {
             if (group.getLeader()==null) {
                 //对于子图来选取leader节点
-                group.setLeader(new FinderLeader().findLeader(group,idToRobots,idToGroups,arcGraph,a,b));
+                group.setLeader(new FinderLeader(groupSubgraphCache).findLeader(group,idToRobots,idToGroups,arcGraph,a,b));
             }
         }
         //给这些leader节点之间添加上连接的边
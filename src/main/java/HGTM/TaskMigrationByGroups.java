@@ -1,7 +1,10 @@
 package HGTM;
 
 import MPFTM.TaskMigrationBasedPon;
+import graph.CsrGraph;
+import graph.LeaderDistanceCache;
 import input.*;
+import main.MigrationExecutor;
 import org.jgrapht.alg.interfaces.ShortestPathAlgorithm;
 import org.jgrapht.graph.DefaultUndirectedWeightedGraph;
 import org.jgrapht.graph.DefaultWeightedEdge;
@@ -16,30 +19,61 @@ public class TaskMigrationByGroups {
     private HashMap<Integer, Group> idToGroups;
     private HashMap<Integer, Agent> idToAgents;
     private ShortestPathAlgorithm<Integer, DefaultWeightedEdge> shortestPath ;
-    private HashMap<Integer, PotentialField> groupIdToPfield;
-    private HashMap<Integer,PotentialField> robotIdToPfield;
+    private PotentialFieldStore groupFields;
+    private PotentialFieldStore robotFields;
     private List<MigrationRecord> records;
     Double a;
     Double b;
     private HashMap<Integer,Double> idToI;
+    private CsrGraph csrGraph;
+    private LeaderDistanceCache leaderDistanceCache;
+    private MigrationExecutor executor;
 
     public TaskMigrationByGroups(DefaultUndirectedWeightedGraph<Integer, DefaultWeightedEdge> arcGraph, HashMap<Integer, Group> idToGroups, HashMap<Integer, Agent> idToAgents,
                                  ShortestPathAlgorithm<Integer, DefaultWeightedEdge> shortestPath, HashMap<Integer, PotentialField> groupIdToPfield, HashMap<Integer, PotentialField> robotIdToPfield,
                                  List<MigrationRecord> records, Double a, Double b, HashMap<Integer, Double> idToI) {
+        this(arcGraph, idToGroups, idToAgents, shortestPath, PotentialFieldStore.fromMap(groupIdToPfield), PotentialFieldStore.fromMap(robotIdToPfield),
+                records, a, b, idToI, null, null);
+    }
+
+    public TaskMigrationByGroups(DefaultUndirectedWeightedGraph<Integer, DefaultWeightedEdge> arcGraph, HashMap<Integer, Group> idToGroups, HashMap<Integer, Agent> idToAgents,
+                                 ShortestPathAlgorithm<Integer, DefaultWeightedEdge> shortestPath, PotentialFieldStore groupFields, PotentialFieldStore robotFields,
+                                 List<MigrationRecord> records, Double a, Double b, HashMap<Integer, Double> idToI,
+                                 CsrGraph csrGraph, LeaderDistanceCache leaderDistanceCache) {
         this.arcGraph = arcGraph;
         this.idToGroups = idToGroups;
         this.idToAgents = idToAgents;
         this.shortestPath = shortestPath;
-        this.groupIdToPfield = groupIdToPfield;
-        this.robotIdToPfield = robotIdToPfield;
+        this.groupFields = groupFields;
+        this.robotFields = robotFields;
         this.records = records;
         this.a = a;
         this.b = b;
         this.idToI = idToI;
+        this.csrGraph = csrGraph;
+        this.leaderDistanceCache = leaderDistanceCache;
     }
-    public List<MigrationRecord> run(Map<List<Agent>,Agent> bagsToAgent) {
+
+    public TaskMigrationByGroups(DefaultUndirectedWeightedGraph<Integer, DefaultWeightedEdge> arcGraph, HashMap<Integer, Group> idToGroups, HashMap<Integer, Agent> idToAgents,
+                                 ShortestPathAlgorithm<Integer, DefaultWeightedEdge> shortestPath, PotentialFieldStore groupFields, PotentialFieldStore robotFields,
+                                 MigrationExecutor executor, Double a, Double b, HashMap<Integer, Double> idToI,
+                                 CsrGraph csrGraph, LeaderDistanceCache leaderDistanceCache) {
+        this(arcGraph, idToGroups, idToAgents, shortestPath, groupFields, robotFields, executor.getRecords(), a, b, idToI,
+                csrGraph, leaderDistanceCache);
+        this.executor = executor;
+    }
+    public List<MigrationRecord> run(Map<Bag,Agent> bagsToAgent) {
+        //提前执行的MPFTM和任务包的迁移共用同一个executor，迁移记录都加入records
+        if (executor == null) {
+            executor = new MigrationExecutor(idToGroups, TaskStore.attach(idToAgents), records);
+        }
+        //原来以List<Agent>作为键，包内组件的负载、任务或故障状态变化之后就查找不到对应的组件，这里保持同样的结果
+        HashMap<Bag,Integer> formedHash = new HashMap<>();
+        for (Bag bag : bagsToAgent.keySet()) {
+            formedHash.put(bag,bag.stateHash());
+        }
         List<Agent> receAgents = new ArrayList<>();
-        for (List<Agent> bag : bagsToAgent.keySet()) {
+        for (Bag bag : bagsToAgent.keySet()) {
             Agent agent = bagsToAgent.get(bag);
             if (agent==null) {
                 continue;
@@ -48,10 +82,7 @@ public class TaskMigrationByGroups {
             if (agent.getTasksList() != null) {
                 Qsize = agent.getTasksList().size();
             }
-            int Gsize = 0;
-            for (Agent e : bag) {
-                Gsize+=e.getTasksList().size();
-            }
+            int Gsize = bag.getTaskCount();
             int groupId = agent.getGroupId();
             double RL = idToGroups.get(groupId).getInteractionLevel();
             if (Gsize*(1-RL)*2>Qsize) {
@@ -75,90 +106,26 @@ public class TaskMigrationByGroups {
             //为了方便将接收任务的组件上原有的任务扩散出去，只有FaultA=1的组件上的任务才会被扩散出去
         }
         //对接收任务的组件提前执行MPFTM算法--腾出负载空间
-        List<MigrationRecord> migrationRecords = new TaskMigrationBasedPon(idToGroups, idToAgents,
-                arcGraph, groupIdToPfield, robotIdToPfield, shortestPath, idToI, a, b).run();
-        records.addAll(migrationRecords);
+        if (csrGraph == null) {
+            csrGraph = new CsrGraph(arcGraph, idToAgents);
+            leaderDistanceCache = new LeaderDistanceCache(csrGraph, shortestPath);
+        }
+        new TaskMigrationBasedPon(idToGroups, idToAgents,
+                arcGraph, csrGraph, leaderDistanceCache, groupFields, robotFields, shortestPath, idToI, a, b, executor).run();
         for (Agent receAgent : receAgents) {
             //还原接收任务的组件状态
             receAgent.setFaultA(0);
         }
-        for (List<Agent> bag : bagsToAgent.keySet()) {
-            Agent agentMigrated = bagsToAgent.get(bag);
-            for (Agent agent : bag) {
-                for (Task task : agent.getTasksList()) {
-                    excuteMigration(agent,agentMigrated,task);
+        for (Bag bag : bagsToAgent.keySet()) {
+            Agent agentMigrated = bag.stateHash()==formedHash.get(bag) ? bagsToAgent.get(bag) : null;
+            for (Agent agent : bag.getAgents()) {
+                //迁移会从任务列表中删除任务，遍历副本
+                for (Task task : new ArrayList<>(agent.getTasksList())) {
+                    executor.execute(agent,agentMigrated,task);
                 }
             }
         }
 
         return records;
     }
-
-    private void excuteMigration(Agent agent, Agent agentMigrated, Task migrationTask) {
-        if (agent == null) {
-            return;
-        }
-
-        if (agentMigrated == null) {
-            return;
-        }
-        if (migrationTask == null) {
-            return;
-        }
-
-        //改变网络层间负载和任务列表
-        if (agent.getGroupId()!=agentMigrated.getGroupId()) {
-            //不在同一组才会更新网络层间的势场情况
-            updateInter(agent, agentMigrated, migrationTask);
-        }
-        //改变网络层内负载和任务列表
-        updateIntra(agent, agentMigrated, migrationTask);
-        MigrationRecord record = new MigrationRecord();
-        record.setFrom(agent.getRobotId());
-        record.setTo(agentMigrated.getRobotId());
-        records.add(record);
-        //初始化（计算）上下文负载
-
-    }
-    private void updateInter(Agent robot, Agent robotMigrated, Task migrationTask) {
-        if (robot == null) {
-            return;
-        }
-
-        if (robotMigrated == null) {
-            return;
-        }
-        if (migrationTask == null) {
-            return;
-        }
-
-        int groupId = robot.getGroupId();
-        Group group = idToGroups.get(groupId);
-        int robotMigratedGroupId = robotMigrated.getGroupId();
-        Group migratedGroup = idToGroups.get(robotMigratedGroupId);
-
-        group.setGroupLoad(group.getGroupLoad()-migrationTask.getSize());
-        migratedGroup.setGroupLoad(migratedGroup.getGroupLoad()+migrationTask.getSize());
-
-
-    }
-
-    private void updateIntra(Agent robot, Agent robotMigrated, Task migrationTask) {
-        //更新迁移后的任务负载
-        List<Task> tasksList = robot.getTasksList();
-        tasksList.remove(migrationTask);
-        robot.setLoad(robot.getLoad()-migrationTask.getSize());
-        robot.setTasksList(tasksList);
-
-
-        List<Task> robotMigratedTaskList = robotMigrated.getTasksList();
-        if (robotMigratedTaskList==null) {
-            robotMigratedTaskList = new ArrayList<>();
-        }
-
-        robotMigratedTaskList.add(migrationTask);
-        robotMigrated.setLoad(robotMigrated.getLoad()+migrationTask.getSize());
-        robotMigrated.setTasksList(robotMigratedTaskList);
-
-    }
 }
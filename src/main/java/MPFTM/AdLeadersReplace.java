@@ -1,23 +1,30 @@
 package MPFTM;
 
+import graph.GroupSubgraphCache;
 import input.Group;
 import input.Agent;
-import org.jgrapht.alg.scoring.BetweennessCentrality;
+import org.jgrapht.alg.interfaces.VertexScoringAlgorithm;
 import org.jgrapht.graph.DefaultUndirectedWeightedGraph;
 import org.jgrapht.graph.DefaultWeightedEdge;
 
 import java.util.HashMap;
 import java.util.List;
-import java.util.Set;
 
 public class AdLeadersReplace {
     private DefaultUndirectedWeightedGraph<Integer, DefaultWeightedEdge> arcGraph;
     private HashMap<Integer, Group> idToGroups;
     private HashMap<Integer, Agent> idToRobots;
+    private GroupSubgraphCache groupSubgraphCache;
     public AdLeadersReplace(HashMap<Integer, Group> idToGroups, HashMap<Integer, Agent> idToRobots, DefaultUndirectedWeightedGraph<Integer, DefaultWeightedEdge> arcGraph) {
+        this(idToGroups, idToRobots, arcGraph, new GroupSubgraphCache(arcGraph, idToRobots));
+    }
+
+    public AdLeadersReplace(HashMap<Integer, Group> idToGroups, HashMap<Integer, Agent> idToRobots, DefaultUndirectedWeightedGraph<Integer, DefaultWeightedEdge> arcGraph,
+                            GroupSubgraphCache groupSubgraphCache) {
         this.idToGroups = idToGroups;
         this.idToRobots = idToRobots;
         this.arcGraph = arcGraph;
+        this.groupSubgraphCache = groupSubgraphCache;
     }
     public void run() {
         for (Integer groupId : idToGroups.keySet()) {
@@ -30,33 +37,12 @@ public class AdLeadersReplace {
 
     private void replace(Group group) {
         List<Agent> adLeaders = group.getAdLeaders();
-        DefaultUndirectedWeightedGraph<Integer, DefaultWeightedEdge> subGraph = new DefaultUndirectedWeightedGraph<>(DefaultWeightedEdge.class);
-        Set<Integer> robotIdSet = group.getRobotIdInGroup();
-        for (Integer robotId : robotIdSet) {
-            subGraph.addVertex(robotId);
-            Set<DefaultWeightedEdge> defaultWeightedEdges = arcGraph.edgesOf(robotId);
-            for (DefaultWeightedEdge defaultWeightedEdge : defaultWeightedEdges) {
-                Integer target = subGraph.getEdgeTarget(defaultWeightedEdge);
-
-                if (target.equals(robotId)) {
-                    continue;
-                }
-
-                if (group.getGroupId()!=idToRobots.get(target).getGroupId()) {
-                    continue;
-                    //不属于这一层的节点（比如由leader节点与其他lead而节点相连节点），不要加到子图中
-                }
-                subGraph.addVertex(target);
-                //把这一层的节点加入到子图中
-                if(!subGraph.containsEdge(robotId,target)){
-                    //去掉重复的边,不包含这个边，则加入这个边
-                    DefaultWeightedEdge temp = subGraph.addEdge(robotId,target);
-                    subGraph.setEdgeWeight(temp,arcGraph.getEdgeWeight(defaultWeightedEdge));
-                }
-            }
+        if (adLeaders == null || adLeaders.isEmpty()) {
+            //leader多次故障，后备节点已经用完，保留原来的leader
+            return;
         }
-        //计算子图的介数中心性
-        BetweennessCentrality<Integer, DefaultWeightedEdge> betweennessCentrality = new BetweennessCentrality<>(subGraph);
+        //子图的介数中心性
+        VertexScoringAlgorithm<Integer, Double> betweennessCentrality = groupSubgraphCache.getBetweenness(group);
         //这里的I是衡量介数中心性的I
         Agent replaceLeader = adLeaders.get(0);
         Double maxIscore = -1.0;
@@ -1,7 +1,10 @@
 package MPFTM;
 
+import graph.CsrGraph;
+import graph.LeaderDistanceCache;
 import input.Group;
 import input.PotentialField;
+import input.PotentialFieldStore;
 import input.Agent;
 import main.Function;
 import org.jgrapht.alg.interfaces.ShortestPathAlgorithm;
@@ -19,6 +22,8 @@ public class CalculatePonField {
     Double a;
     Double b;
     private HashMap<Integer,Double> idToI ;
+    private CsrGraph csrGraph;
+    private FieldComponents fieldComponents;
     final Double y = 0.005;
     final Double yn = 0.3;
     final Double xn = 0.1;
@@ -26,9 +31,23 @@ public class CalculatePonField {
 
     public CalculatePonField(HashMap<Integer, Group> idToGroups, HashMap<Integer, Agent> idToRobots, DefaultUndirectedWeightedGraph<Integer, DefaultWeightedEdge> arcGraph,
                              HashMap<Integer,Double> idToI , ShortestPathAlgorithm<Integer, DefaultWeightedEdge> shortestPath, Double a, Double b) {
+        this(idToGroups, idToRobots, arcGraph, new CsrGraph(arcGraph, idToRobots), idToI, shortestPath, a, b);
+    }
+
+    public CalculatePonField(HashMap<Integer, Group> idToGroups, HashMap<Integer, Agent> idToRobots, DefaultUndirectedWeightedGraph<Integer, DefaultWeightedEdge> arcGraph,
+                             CsrGraph csrGraph, HashMap<Integer,Double> idToI , ShortestPathAlgorithm<Integer, DefaultWeightedEdge> shortestPath, Double a, Double b) {
+        this(idToGroups, idToRobots, arcGraph, csrGraph, new FieldComponents(idToGroups, idToRobots, csrGraph, new LeaderDistanceCache(csrGraph, shortestPath)),
+                idToI, shortestPath, a, b);
+    }
+
+    public CalculatePonField(HashMap<Integer, Group> idToGroups, HashMap<Integer, Agent> idToRobots, DefaultUndirectedWeightedGraph<Integer, DefaultWeightedEdge> arcGraph,
+                             CsrGraph csrGraph, FieldComponents fieldComponents, HashMap<Integer,Double> idToI,
+                             ShortestPathAlgorithm<Integer, DefaultWeightedEdge> shortestPath, Double a, Double b) {
         this.idToGroups = idToGroups;
         this.idToRobots = idToRobots;
         this.arcGraph = arcGraph;
+        this.csrGraph = csrGraph;
+        this.fieldComponents = fieldComponents;
         this.shortestPath = shortestPath;
         this.a = a;
         this.b = b;
@@ -36,92 +55,97 @@ public class CalculatePonField {
     }
 
     public HashMap<Integer, PotentialField> calculateIntraP() {
-        //计算节点的势场
-        HashMap<Integer,PotentialField> IntraPotential = new HashMap<>();
-        Double Isum = 0.0;
+        return calculateIntraField().toMap();
+    }
+
+    public HashMap<Integer, PotentialField> calculateInterP() {
+        return calculateInterField().toMap();
+    }
 
+    public PotentialFieldStore calculateIntraField() {
+        //计算节点的势场，下标顺序与idToRobots.keySet()一致
+        PotentialFieldStore IntraPotential = new PotentialFieldStore(idToRobots.keySet());
+        calculateIntraField(IntraPotential);
+        return IntraPotential;
+    }
 
+    public void calculateIntraField(PotentialFieldStore IntraPotential) {
+        //计算节点的势场，直接写入数组，不为每个节点分配对象
+        double Isum = 0.0;
         for (Integer id : idToRobots.keySet()) {
             Isum+= idToI.get(id);
         }
-        Double Imean = Isum/idToRobots.size();
+        double Imean = Isum/idToRobots.size();
+        Function function = new Function(idToRobots,idToGroups);
         for (Integer id : idToRobots.keySet()) {
             Agent robot = idToRobots.get(id);
-            PotentialField p = new PotentialField();
-            //如何设置p
+            int pIndex = IntraPotential.indexOf(id);
             //设置引力势场，可以加一个对(I-Imean)
-            Double I = idToI.get(id);
-            p.setPegra(-a*gain(I-Imean));
+            double I = idToI.get(id);
+            IntraPotential.setPegraAt(pIndex, intraPegra(I,Imean));
 
             //设置斥力势场
-            Double ro = 0.0;
-            //节点的相邻边
-            Set<DefaultWeightedEdge> defaultWeightedEdges = arcGraph.edgesOf(id);
-            for (DefaultWeightedEdge defaultWeightedEdge : defaultWeightedEdges) {
-                Agent targetRobot = idToRobots.get(arcGraph.getEdgeTarget(defaultWeightedEdge));
-                if (targetRobot.getRobotId()==id) {
-                    targetRobot = idToRobots.get(arcGraph.getEdgeSource(defaultWeightedEdge));
-                }
-                if (targetRobot.getGroupId()!=robot.getGroupId()) {
-                    continue;
-                }
-                if (targetRobot.getFaultA()==1) {
-                    //到故障节点的距离成反比
-                    ro+=1/arcGraph.getEdgeWeight(defaultWeightedEdge);
-                }
-            }
-            if (robot.getFaultA()==1) {
-                p.setPerep(Double.MAX_VALUE/2);
-            } else if(ro!=0){
-                p.setPerep(b*(y*1/ro)*(1/ro));
-            } else {
-                p.setPerep(0.0);
-            }
-            IntraPotential.put(id,p);
+            IntraPotential.setPerepAt(pIndex, intraPerep(robot));
 
             //更新过载故障情况
-            Function function = new Function(idToRobots,idToGroups);
-            Double faultO = 1-function.calculateOverLoadIS(idToRobots.get(id));
-            robot.setFaultO(faultO);
-
+            robot.setFaultO(1-function.calculateOverLoadIS(robot));
         }
-
-
-
-        return IntraPotential;
     }
 
-    public HashMap<Integer, PotentialField> calculateInterP() {
-        //计算网络层的势场
-        HashMap<Integer, PotentialField> InterPotential = new HashMap<>();
+    public PotentialFieldStore calculateInterField() {
+        //计算网络层的势场，下标顺序与idToGroups.keySet()一致
+        PotentialFieldStore InterPotential = new PotentialFieldStore(idToGroups.keySet());
         for (Integer groupId : idToGroups.keySet()) {
             Group group = idToGroups.get(groupId);
-            PotentialField p = new PotentialField();
+            int pIndex = InterPotential.indexOf(groupId);
             //计算网络层的引力势场（向势场势场降低的方向传递）
-            p.setPegra(a*xn*(group.getGroupLoad()));
+            InterPotential.setPegraAt(pIndex, interPegra(group));
             //计算网络层中的斥力场
-            int fk = 0;
-            Set<Integer> robotIdInGroup = group.getRobotIdInGroup();
-            for (Integer id : robotIdInGroup) {
-                //计算group中的故障节点
-                Agent robot = idToRobots.get(id);
-                if (robot.getFaultA()==1) {
-                    fk+=1;
-                }
-            }
-            int nk = robotIdInGroup.size();
-            if (fk== nk) {
-                p.setPerep(Double.MAX_VALUE/2);
-            } else {
-                p.setPerep(b*(yn*(double)fk/(nk-fk)));
+            InterPotential.setPerepAt(pIndex, interPerep(group));
+        }
+        return InterPotential;
+    }
+
+    public double interPerep(Group group) {
+        //按group中功能故障节点的比例计算，全部故障时不再接收任务
+        int fk = 0;
+        Set<Integer> robotIdInGroup = group.getRobotIdInGroup();
+        for (Integer id : robotIdInGroup) {
+            //计算group中的故障节点
+            Agent robot = idToRobots.get(id);
+            if (robot.getFaultA()==1) {
+                fk+=1;
             }
-            InterPotential.put(groupId,p);
         }
+        int nk = robotIdInGroup.size();
+        if (fk== nk) {
+            return Double.MAX_VALUE/2;
+        } else {
+            return b*(yn*(double)fk/(nk-fk));
+        }
+    }
 
-        return InterPotential;
+    public double intraPerep(Agent robot) {
+        //到同组故障节点的距离倒数之和，与a无关，由fieldComponents保存
+        double ro = fieldComponents.faultInverse(csrGraph.indexOf(robot.getRobotId()));
+        if (robot.getFaultA()==1) {
+            return Double.MAX_VALUE/2;
+        } else if(ro!=0){
+            return b*(y*1/ro)*(1/ro);
+        } else {
+            return 0.0;
+        }
+    }
+
+    public double intraPegra(double I, double Imean) {
+        return -a*gain(I-Imean);
+    }
+
+    public double interPegra(Group group) {
+        return a*xn*(group.getGroupLoad());
     }
 
-    private Double gain(double x) {
+    private double gain(double x) {
 
        //return (Math.exp(Math.log(x+1))-Math.exp(-Math.log(x+1)))/(Math.exp(Math.log(x+1))+Math.exp(-Math.log(x+1)));
         return x;
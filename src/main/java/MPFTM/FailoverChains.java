@@ -0,0 +1,253 @@
+package MPFTM;
+
+import graph.CsrGraph;
+import graph.GroupSubgraphCache;
+import graph.LeaderDistanceCache;
+import input.Agent;
+import input.Group;
+import org.jgrapht.alg.interfaces.VertexScoringAlgorithm;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+/***
+ * 每个组的leader故障替换链：leader出现功能故障时直接从链头取出替换节点，不再计算介数中心性和后备评分
+ * 链的构造与后备节点选择、leader替换一致：先按ref = Iscore*到leader的距离选出depth个非故障节点，
+ * 再按替换评分 Iscore = (介数中心性+1)/(1-(1-FA)(1-FO)) 从高到低排列
+ * pop只从链头取出，跳过链中之后已经故障的节点，均摊O(1)；链用完时才同步重新计算一次
+ * 负载变化的组由markChanged标记，标记本身不计算；refreshPending时逐个检查被标记的组，
+ * 只有链中节点的评分或ref变化、或者链外节点的ref达到链中最小的ref时才重新排列，leader更换之后总是重新排列
+ * 链中节点出现故障由pop跳过，不需要标记；refreshPending之前pop仍使用原来的链
+ */
+public class FailoverChains {
+    private final HashMap<Integer, Group> idToGroups;
+    private final GroupSubgraphCache groupSubgraphCache;
+    private final CsrGraph csrGraph;
+    private final LeaderDistanceCache leaderDistanceCache;
+    private final int depth;
+    private final HashMap<Integer, Chain> chains = new HashMap<>();
+    private final LinkedHashSet<Integer> changed = new LinkedHashSet<>();
+    private int checks;
+    private int refreshes;
+    private int fallbacks;
+
+    private static class Chain {
+        private Agent[] agents = new Agent[0];
+        //排列时链中节点的评分和ref
+        private double[] score = new double[0];
+        private double[] ref = new double[0];
+        //链外节点的ref达到这个值时可能进入链；候选不足depth个时任何候选都会进入
+        private double minRef = Double.NEGATIVE_INFINITY;
+        private int head;
+        //组成员按组内遍历顺序的CSR下标和介数中心性，第一次排列时读取，之后不再查找
+        private int[] members;
+        private double[] betweenness;
+        //组成员在链中的位置，不在链中时为-1
+        private int[] slot;
+        //当前leader的距离，leader更换之后重新读取
+        private double[] distances;
+        private boolean leaderChanged;
+    }
+
+    public FailoverChains(HashMap<Integer, Group> idToGroups, GroupSubgraphCache groupSubgraphCache, CsrGraph csrGraph,
+                          LeaderDistanceCache leaderDistanceCache, int depth) {
+        if (depth < 1) {
+            throw new IllegalArgumentException("替换链的深度至少为1：" + depth);
+        }
+        this.idToGroups = idToGroups;
+        this.groupSubgraphCache = groupSubgraphCache;
+        this.csrGraph = csrGraph;
+        this.leaderDistanceCache = leaderDistanceCache;
+        this.depth = depth;
+    }
+
+    public void markChanged(int groupId) {
+        //组内节点的负载、过载故障概率或故障状态发生了变化
+        changed.add(groupId);
+    }
+
+    public void leaderChanged(int groupId) {
+        //到leader的距离改变，所有候选的ref都要重新计算
+        chain(groupId).leaderChanged = true;
+        changed.add(groupId);
+    }
+
+    public void refreshAll() {
+        for (Integer groupId : idToGroups.keySet()) {
+            leaderChanged(groupId);
+        }
+        refreshPending();
+    }
+
+    public void refreshPending() {
+        for (Integer groupId : changed) {
+            Chain chain = chain(groupId);
+            if (chain.leaderChanged || reordered(groupId, chain)) {
+                refreshes++;
+                rank(groupId, chain);
+            }
+        }
+        changed.clear();
+    }
+
+    public Agent pop(int groupId) {
+        //返回替换groupId的leader的节点，并从链中移除；组内没有可用的非故障节点时返回null
+        Chain chain = chain(groupId);
+        Agent next = next(chain, groupId);
+        if (next == null) {
+            //链已经用完，同步重新计算
+            fallbacks++;
+            rank(groupId, chain);
+            next = next(chain, groupId);
+        }
+        return next;
+    }
+
+    public List<Agent> backups(int groupId) {
+        //链中剩下的非故障节点，按替换顺序排列
+        Chain chain = chain(groupId);
+        List<Agent> backups = new ArrayList<>();
+        for (int i = chain.head; i < chain.agents.length; i++) {
+            if (chain.agents[i].getFaultA() != 1) {
+                backups.add(chain.agents[i]);
+            }
+        }
+        return backups;
+    }
+
+    public int getChecks() {
+        return checks;
+    }
+
+    public int getRefreshes() {
+        return refreshes;
+    }
+
+    public int getFallbacks() {
+        return fallbacks;
+    }
+
+    private Chain chain(int groupId) {
+        return chains.computeIfAbsent(groupId, id -> new Chain());
+    }
+
+    private Agent next(Chain chain, int groupId) {
+        Agent leader = idToGroups.get(groupId).getLeader();
+        while (chain.head < chain.agents.length) {
+            Agent agent = chain.agents[chain.head++];
+            if (agent.getFaultA() != 1 && agent != leader) {
+                return agent;
+            }
+        }
+        return null;
+    }
+
+    private boolean reordered(int groupId, Chain chain) {
+        //按当前状态重新排列是否可能得到不同的链：链中节点的评分或ref变化，或者链外的候选可能进入链
+        checks++;
+        Agent leader = idToGroups.get(groupId).getLeader();
+        for (int k = 0; k < chain.members.length; k++) {
+            Agent robot = csrGraph.agent(chain.members[k]);
+            if (robot.getFaultA() == 1 || robot == leader) {
+                continue;
+            }
+            double score = score(chain, k, robot);
+            double ref = score*distance(chain, k);
+            int i = chain.slot[k];
+            if (i < chain.head ? ref >= chain.minRef : score != chain.score[i] || ref != chain.ref[i]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static double score(Chain chain, int k, Agent robot) {
+        return (chain.betweenness[k]+1)/(1-(1-robot.getFaultA())*(1-robot.getFaultO()));
+    }
+
+    private static double distance(Chain chain, int k) {
+        double d = chain.distances[chain.members[k]];
+        //到leader不可达
+        return Double.isInfinite(d) ? 100000.0 : d;
+    }
+
+    private void rank(int groupId, Chain chain) {
+        //先按ref选出depth个，再按替换评分排列；与稳定排序相同，相同时保持组内的遍历顺序
+        Group group = idToGroups.get(groupId);
+        Agent leader = group.getLeader();
+        if (chain.members == null) {
+            members(group, chain);
+        }
+        chain.distances = leaderDistanceCache.distances(leader.getRobotId());
+        int[] chosen = new int[depth];
+        double[] score = new double[depth];
+        double[] ref = new double[depth];
+        int n = 0;
+        for (int k = 0; k < chain.members.length; k++) {
+            chain.slot[k] = -1;
+            Agent robot = csrGraph.agent(chain.members[k]);
+            if (robot.getFaultA() == 1 || robot == leader) {
+                continue;
+            }
+            double s = score(chain, k, robot);
+            double r = s*distance(chain, k);
+            if (n == depth && !(r > ref[n - 1])) {
+                continue;
+            }
+            //按ref从大到小插入，ref相同的排在先遍历到的节点之后
+            int j = n < depth ? n++ : n - 1;
+            while (j > 0 && ref[j - 1] < r) {
+                chosen[j] = chosen[j - 1];
+                score[j] = score[j - 1];
+                ref[j] = ref[j - 1];
+                j--;
+            }
+            chosen[j] = k;
+            score[j] = s;
+            ref[j] = r;
+        }
+        chain.minRef = n < depth ? Double.NEGATIVE_INFINITY : ref[n - 1];
+        //选出的节点再按替换评分从大到小排列，评分相同时保持ref的顺序
+        for (int i = 1; i < n; i++) {
+            int k = chosen[i];
+            double s = score[i];
+            double r = ref[i];
+            int j = i;
+            while (j > 0 && score[j - 1] < s) {
+                chosen[j] = chosen[j - 1];
+                score[j] = score[j - 1];
+                ref[j] = ref[j - 1];
+                j--;
+            }
+            chosen[j] = k;
+            score[j] = s;
+            ref[j] = r;
+        }
+        chain.agents = new Agent[n];
+        chain.score = Arrays.copyOf(score, n);
+        chain.ref = Arrays.copyOf(ref, n);
+        for (int i = 0; i < n; i++) {
+            chain.agents[i] = csrGraph.agent(chain.members[chosen[i]]);
+            chain.slot[chosen[i]] = i;
+        }
+        chain.head = 0;
+        chain.leaderChanged = false;
+    }
+
+    private void members(Group group, Chain chain) {
+        VertexScoringAlgorithm<Integer, Double> betweennessCentrality = groupSubgraphCache.getBetweenness(group);
+        int size = group.getRobotIdInGroup().size();
+        chain.members = new int[size];
+        chain.betweenness = new double[size];
+        chain.slot = new int[size];
+        int k = 0;
+        for (Integer id : group.getRobotIdInGroup()) {
+            chain.members[k] = csrGraph.indexOf(id);
+            chain.betweenness[k] = betweennessCentrality.getVertexScore(id);
+            k++;
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package MPFTM;
+
+import graph.CsrGraph;
+import graph.LeaderDistanceCache;
+import input.Agent;
+import input.Group;
+import main.Function;
+
+import java.util.HashMap;
+
+/***
+ * 上下文负载和势场中与权重a、b无关的部分，按CsrGraph的顶点下标存放在double[]中
+ * 上下文负载 I = (a*l - b*s) + 0.1*((a*nl - b*ns)/(size+1) + cost/size)，
+ * 其中l、s是节点自己的负载率和过载生存评分，nl、ns是同组邻居的负载率之和与生存评分之和，cost是边权与到leader距离之和
+ * 斥力势场只依赖到同组功能故障邻居的距离倒数之和ro，同样与a无关
+ * 这些量按当前负载算好之后，换一个a只需要按上面的式子重新组合，不再遍历邻居
+ * 迁移改变负载之后，对受影响的节点及其同组邻居调用refresh
+ */
+public class FieldComponents {
+    private final HashMap<Integer, Group> idToGroups;
+    private final CsrGraph csrGraph;
+    private final LeaderDistanceCache leaderDistanceCache;
+    private final Function function;
+    private final double[] loadRatio;
+    private final double[] survival;
+    private final double[] neighborLoadRatio;
+    private final double[] neighborSurvival;
+    private final double[] cost;
+    private final double[] faultInverse;
+
+    public FieldComponents(HashMap<Integer, Group> idToGroups, HashMap<Integer, Agent> idToRobots,
+                           CsrGraph csrGraph, LeaderDistanceCache leaderDistanceCache) {
+        this.idToGroups = idToGroups;
+        this.csrGraph = csrGraph;
+        this.leaderDistanceCache = leaderDistanceCache;
+        this.function = new Function(idToRobots, idToGroups);
+        int n = csrGraph.size();
+        loadRatio = new double[n];
+        survival = new double[n];
+        neighborLoadRatio = new double[n];
+        neighborSurvival = new double[n];
+        cost = new double[n];
+        faultInverse = new double[n];
+        refreshAll();
+    }
+
+    public void refreshAll() {
+        //先算每个节点自己的部分，邻居的和直接从数组中读取
+        for (int i = 0; i < loadRatio.length; i++) {
+            refreshOwn(i);
+        }
+        for (int i = 0; i < loadRatio.length; i++) {
+            refreshNeighbors(i);
+        }
+    }
+
+    public void refresh(int[] indices, int count) {
+        //indices中需要包含负载或组负载变化的节点，以及它们的同组邻居
+        for (int i = 0; i < count; i++) {
+            refreshOwn(indices[i]);
+        }
+        for (int i = 0; i < count; i++) {
+            refreshNeighbors(indices[i]);
+        }
+    }
+
+    private void refreshOwn(int index) {
+        Agent robot = csrGraph.agent(index);
+        loadRatio[index] = robot.getLoad()/robot.getCapacity();
+        survival[index] = function.calculateOverLoadIS(robot);
+    }
+
+    private void refreshNeighbors(int index) {
+        Agent robot = csrGraph.agent(index);
+        double nl = 0;
+        double ns = 0;
+        double costSum = 0;
+        double ro = 0;
+        int end = csrGraph.end(index);
+        for (int k = csrGraph.begin(index); k < end; k++) {
+            int neighbor = csrGraph.neighbor(k);
+            Agent targetRobot = csrGraph.agent(neighbor);
+            if (targetRobot.getGroupId()!=robot.getGroupId()) {
+                continue;
+            }
+            if (targetRobot.getFaultA()==1) {
+                //到故障节点的距离成反比
+                ro+=1/csrGraph.weight(k);
+            }
+            if (!csrGraph.isOutgoing(k)||targetRobot.getRobotId()==robot.getRobotId()) {
+                //边的target为自己，与getEdgeTarget的写法保持一致，跳过
+                continue;
+            }
+            costSum+=csrGraph.weight(k);
+            nl+=loadRatio[neighbor];
+            ns+=survival[neighbor];
+        }
+        //加上进行层间任务迁移的cost
+        Group group = idToGroups.get(robot.getGroupId());
+        costSum+=leaderDistanceCache.distance(group.getLeader().getRobotId(), index);
+        neighborLoadRatio[index] = nl;
+        neighborSurvival[index] = ns;
+        cost[index] = costSum;
+        faultInverse[index] = ro;
+    }
+
+    public double contextualLoad(int index, double a, double b) {
+        double f = a*loadRatio[index]-b*survival[index];
+        double domianF = a*neighborLoadRatio[index]-b*neighborSurvival[index];
+        int size = csrGraph.degree(index)+1;
+        int domainNum = size +1;
+        return f+0.1*(domianF/domainNum+cost[index]/ size);
+    }
+
+    public double faultInverse(int index) {
+        //到同组功能故障邻居的距离倒数之和
+        return faultInverse[index];
+    }
+}
@@ -1,45 +1,32 @@
 package MPFTM;
 
+import graph.GroupSubgraphCache;
 import input.Group;
 import input.Agent;
 import org.jgrapht.alg.interfaces.ShortestPathAlgorithm;
-import org.jgrapht.alg.scoring.BetweennessCentrality;
+import org.jgrapht.alg.interfaces.VertexScoringAlgorithm;
 import org.jgrapht.graph.DefaultUndirectedWeightedGraph;
 import org.jgrapht.graph.DefaultWeightedEdge;
 
 import java.util.*;
 
 public class FinderAdLeaders {
+    private GroupSubgraphCache groupSubgraphCache;
+
+    public FinderAdLeaders() {
+    }
+
+    public FinderAdLeaders(GroupSubgraphCache groupSubgraphCache) {
+        this.groupSubgraphCache = groupSubgraphCache;
+    }
+
     public List<Agent> findAdLeaders(Group group, HashMap<Integer, Agent> idToRobots, HashMap<Integer, Group> idToGroups,
                                      DefaultUndirectedWeightedGraph<Integer, DefaultWeightedEdge> arcGraph,
                                      ShortestPathAlgorithm<Integer, DefaultWeightedEdge> shortestPath, Double a, Double b, int maxSize) {
-        DefaultUndirectedWeightedGraph<Integer, DefaultWeightedEdge> subGraph = new DefaultUndirectedWeightedGraph<>(DefaultWeightedEdge.class);
+        GroupSubgraphCache cache = groupSubgraphCache != null ? groupSubgraphCache : new GroupSubgraphCache(arcGraph, idToRobots);
         Set<Integer> robotIdSet = group.getRobotIdInGroup();
-        for (Integer robotId : robotIdSet) {
-            subGraph.addVertex(robotId);
-            Set<DefaultWeightedEdge> defaultWeightedEdges = arcGraph.edgesOf(robotId);
-            for (DefaultWeightedEdge defaultWeightedEdge : defaultWeightedEdges) {
-                Integer target = subGraph.getEdgeTarget(defaultWeightedEdge);
-
-                if (target.equals(robotId)) {
-                    continue;
-                }
-
-                if (group.getGroupId()!=idToRobots.get(target).getGroupId()) {
-                    continue;
-                    //不属于这一层的节点（比如由leader节点与其他lead而节点相连节点），不要加到子图中
-                }
-                subGraph.addVertex(target);
-                //把这一层的节点加入到子图中
-                if(!subGraph.containsEdge(robotId,target)){
-                    //去掉重复的边,不包含这个边，则加入这个边
-                    DefaultWeightedEdge temp = subGraph.addEdge(robotId,target);
-                    subGraph.setEdgeWeight(temp,arcGraph.getEdgeWeight(defaultWeightedEdge));
-                }
-            }
-        }
-        //计算子图的介数中心性
-        BetweennessCentrality<Integer, DefaultWeightedEdge> betweennessCentrality = new BetweennessCentrality<>(subGraph);
+        //子图的介数中心性
+        VertexScoringAlgorithm<Integer, Double> betweennessCentrality = cache.getBetweenness(group);
 
         //选择后备节点,后备节点按ref大小进入优先队列进行排序
         //I=b/(1-(1-FA)(1-FO))
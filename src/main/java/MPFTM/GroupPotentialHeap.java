@@ -0,0 +1,132 @@
+package MPFTM;
+
+import input.PotentialFieldStore;
+
+/***
+ * 网络层势场（Pegra+Perep）的索引最小堆，以及所有组势场之和
+ * 势场相同时下标小的在前，堆顶与按下标顺序线性查找第一个严格最小值的结果一致；NaN不会被选中
+ * 某个组的负载或故障数变化、势场写入store之后调用update，堆和总和都在O(log G)内更新
+ * 总和在构造时按原来的顺序（逐组先加Pegra再加Perep）累加，之后按差值维护，出现非有限值时重新累加
+ */
+public class GroupPotentialHeap {
+    private final PotentialFieldStore groupFields;
+    private final int[] heap;
+    private final int[] position;
+    private final double[] key;
+    private final double[] pegra;
+    private final double[] perep;
+    private double sum;
+
+    public GroupPotentialHeap(PotentialFieldStore groupFields) {
+        this.groupFields = groupFields;
+        int n = groupFields.size();
+        heap = new int[n];
+        position = new int[n];
+        key = new double[n];
+        pegra = new double[n];
+        perep = new double[n];
+        for (int i = 0; i < n; i++) {
+            heap[i] = i;
+            position[i] = i;
+            read(i);
+        }
+        for (int i = n / 2 - 1; i >= 0; i--) {
+            siftDown(i);
+        }
+        resum();
+    }
+
+    public int size() {
+        return heap.length;
+    }
+
+    public int findMin() {
+        //没有势场小于Double.MAX_VALUE的组时返回-1
+        if (heap.length == 0 || !(key[heap[0]] < Double.MAX_VALUE)) {
+            return -1;
+        }
+        return groupFields.idOf(heap[0]);
+    }
+
+    public double getAverage() {
+        return sum / heap.length;
+    }
+
+    public void update(int groupId) {
+        int index = groupFields.indexOf(groupId);
+        double oldPegra = pegra[index];
+        double oldPerep = perep[index];
+        double oldKey = key[index];
+        read(index);
+        sum = sum - oldPegra - oldPerep + pegra[index] + perep[index];
+        if (Double.isNaN(sum) || Double.isInfinite(sum)) {
+            resum();
+        }
+        if (less(key[index], index, oldKey, index)) {
+            siftUp(position[index]);
+        } else {
+            siftDown(position[index]);
+        }
+    }
+
+    private void read(int index) {
+        pegra[index] = groupFields.pegraAt(index);
+        perep[index] = groupFields.perepAt(index);
+        double value = perep[index] + pegra[index];
+        key[index] = Double.isNaN(value) ? Double.POSITIVE_INFINITY : value;
+    }
+
+    private void resum() {
+        double peNsum = 0.0;
+        for (int i = 0; i < heap.length; i++) {
+            peNsum += pegra[i];
+            peNsum += perep[i];
+        }
+        sum = peNsum;
+    }
+
+    private boolean less(double keyA, int indexA, double keyB, int indexB) {
+        return keyA < keyB || (keyA == keyB && indexA < indexB);
+    }
+
+    private boolean less(int indexA, int indexB) {
+        return less(key[indexA], indexA, key[indexB], indexB);
+    }
+
+    private void siftUp(int i) {
+        int index = heap[i];
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (!less(index, heap[parent])) {
+                break;
+            }
+            heap[i] = heap[parent];
+            position[heap[i]] = i;
+            i = parent;
+        }
+        heap[i] = index;
+        position[index] = i;
+    }
+
+    private void siftDown(int i) {
+        int index = heap[i];
+        int n = heap.length;
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= n) {
+                break;
+            }
+            if (child + 1 < n && less(heap[child + 1], heap[child])) {
+                child++;
+            }
+            if (!less(heap[child], index)) {
+                break;
+            }
+            heap[i] = heap[child];
+            position[heap[i]] = i;
+            i = child;
+        }
+        heap[i] = index;
+        position[index] = i;
+    }
+}
@@ -0,0 +1,308 @@
+package MPFTM;
+
+import graph.CsrGraph;
+import graph.LeaderDistanceCache;
+import input.Agent;
+import input.Group;
+import input.PotentialFieldStore;
+import main.Function;
+import org.jgrapht.alg.interfaces.ShortestPathAlgorithm;
+import org.jgrapht.graph.DefaultUndirectedWeightedGraph;
+import org.jgrapht.graph.DefaultWeightedEdge;
+
+import java.util.HashMap;
+import java.util.Set;
+
+/***
+ * 任务迁移过程中的增量势场维护，结果与每次迁移后全部重新计算完全一致
+ * 一次迁移只改变两个节点的负载，跨组迁移时还改变两个组的负载：
+ * 组内迁移只需重新计算这两个节点及其同组邻居的上下文负载，跨组迁移重新计算两个组的全部成员，
+ * 这些节点在FieldComponents中的分量先刷新，再组合出上下文负载
+ * 斥力势场只与功能故障有关，迁移过程中不变；引力势场依赖所有节点上下文负载的均值：
+ * 上下文负载之和按受影响节点的变化量增减，引力势场 -a*(I-Imean) 对Imean是线性的，
+ * 只有受影响节点按上次完整计算时的均值重新写入，均值之后的变化作为统一的偏移量 a*(Imean-Imean0) 加在读取上，一次迁移不再遍历所有节点
+ * 增量求和与按原来顺序重新累加的均值在舍入上可能有最后几位的差别，crossCheck对引力势场按相对误差比较
+ * 第一次迁移时仍做一次完整计算，之后的势场数组由这里持有并原地更新
+ * 在线模式中新到达的任务由arrive处理：只改变一个节点的负载和它所在组的负载，按跨组迁移的一个组重新计算
+ * run之后新出现的功能故障和恢复由fault、recover处理：到故障节点的距离倒数只影响它的同组邻居，
+ * 重新计算这些节点的上下文负载和斥力势场以及所在组的斥力势场；leader更换时到leader的距离改变，重新计算整个组
+ * 打开crossCheck（或-Dmpftm.crossCheck=true）后每次增量更新都与完整计算比对，不一致时抛出IllegalStateException
+ */
+public class IncrementalPonField {
+    private HashMap<Integer, Group> idToGroups;
+    private HashMap<Integer, Agent> idToRobots;
+    private DefaultUndirectedWeightedGraph<Integer, DefaultWeightedEdge> arcGraph;
+    private CsrGraph csrGraph;
+    private LeaderDistanceCache leaderDistanceCache;
+    private ShortestPathAlgorithm<Integer, DefaultWeightedEdge> shortestPath;
+    private HashMap<Integer, Double> idToI;
+    private PotentialFieldStore groupFields;
+    private PotentialFieldStore robotFields;
+    Double a;
+    Double b;
+    private boolean crossCheck = Boolean.getBoolean("mpftm.crossCheck");
+
+    private FieldComponents fieldComponents;
+    private IniContextLoadI iniContextLoadI;
+    private CalculatePonField calculatePonField;
+    private Function function;
+    private boolean intraOwned;
+    private boolean interOwned;
+    //按robotFields的下标（即idToRobots.keySet()的顺序）保存上下文负载
+    private double[] iValues;
+    //上下文负载之和，以及上次完整计算时的均值，引力势场数组中保存的是相对这个均值的值
+    private double Isum;
+    private double baseImean;
+    private int[] csrToField;
+    private int[] mark;
+    private int stamp;
+    private int[] affected;
+    private int size;
+
+    public IncrementalPonField(HashMap<Integer, Group> idToGroups, HashMap<Integer, Agent> idToRobots,
+                               DefaultUndirectedWeightedGraph<Integer, DefaultWeightedEdge> arcGraph, CsrGraph csrGraph,
+                               LeaderDistanceCache leaderDistanceCache, ShortestPathAlgorithm<Integer, DefaultWeightedEdge> shortestPath,
+                               HashMap<Integer, Double> idToI, PotentialFieldStore groupFields,
+                               PotentialFieldStore robotFields, Double a, Double b) {
+        this.idToGroups = idToGroups;
+        this.idToRobots = idToRobots;
+        this.arcGraph = arcGraph;
+        this.csrGraph = csrGraph;
+        this.leaderDistanceCache = leaderDistanceCache;
+        this.shortestPath = shortestPath;
+        this.idToI = idToI;
+        this.groupFields = groupFields;
+        this.robotFields = robotFields;
+        this.a = a;
+        this.b = b;
+        //迁移过程中只刷新受影响节点的分量，不与迁移前计算初始势场用的分量共用
+        fieldComponents = new FieldComponents(idToGroups, idToRobots, csrGraph, leaderDistanceCache);
+        iniContextLoadI = new IniContextLoadI(idToGroups, idToRobots, arcGraph, csrGraph, leaderDistanceCache, fieldComponents, shortestPath, idToI, a, b);
+        calculatePonField = new CalculatePonField(idToGroups, idToRobots, arcGraph, csrGraph, fieldComponents, idToI, shortestPath, a, b);
+        function = new Function(idToRobots, idToGroups);
+    }
+
+    public void setCrossCheck(boolean crossCheck) {
+        this.crossCheck = crossCheck;
+    }
+
+    public PotentialFieldStore getGroupFields() {
+        return groupFields;
+    }
+
+    public PotentialFieldStore getRobotFields() {
+        return robotFields;
+    }
+
+    public void update(Agent robot, Agent robotMigrated) {
+        //robot的任务已经迁移到robotMigrated，负载已更新
+        boolean inter = robot.getGroupId() != robotMigrated.getGroupId();
+        if (!intraOwned) {
+            //第一次迁移：完整计算，得到新的势场数组
+            recalculate(inter);
+            return;
+        }
+
+        begin();
+        if (inter) {
+            collectGroup(robot.getGroupId());
+            collectGroup(robotMigrated.getGroupId());
+        } else {
+            collectNeighbors(csrGraph.indexOf(robot.getRobotId()), robot.getGroupId());
+            collectNeighbors(csrGraph.indexOf(robotMigrated.getRobotId()), robot.getGroupId());
+        }
+        refreshAffected();
+
+        if (inter) {
+            if (!interOwned) {
+                groupFields = calculatePonField.calculateInterField();
+                interOwned = true;
+            } else {
+                updateGroup(robot.getGroupId());
+                updateGroup(robotMigrated.getGroupId());
+            }
+        }
+
+        if (crossCheck) {
+            crossCheck(inter);
+        }
+    }
+
+    public void arrive(Agent robot) {
+        //robot接收了一个新到达的任务，负载和组负载已更新
+        //组负载变化会改变同组所有节点的生存评分，与跨组迁移一样重新计算整个组
+        if (!intraOwned) {
+            recalculate(true);
+            return;
+        }
+
+        begin();
+        collectGroup(robot.getGroupId());
+        refreshAffected();
+        if (!interOwned) {
+            groupFields = calculatePonField.calculateInterField();
+            interOwned = true;
+        } else {
+            updateGroup(robot.getGroupId());
+        }
+
+        if (crossCheck) {
+            crossCheck(true);
+        }
+    }
+
+    public void fault(Agent robot, boolean leaderChanged) {
+        //robot已经标记为功能故障，leaderChanged表示它所在组的leader已经被替换
+        updateFault(robot, leaderChanged);
+    }
+
+    public void recover(Agent robot) {
+        //robot已经从功能故障中恢复（faultA=0）
+        updateFault(robot, false);
+    }
+
+    private void updateFault(Agent robot, boolean leaderChanged) {
+        if (!intraOwned) {
+            recalculate(true);
+            return;
+        }
+
+        begin();
+        int groupId = robot.getGroupId();
+        if (leaderChanged) {
+            collectGroup(groupId);
+        } else {
+            collectNeighbors(csrGraph.indexOf(robot.getRobotId()), groupId);
+        }
+        refreshAffected();
+        for (int i = 0; i < size; i++) {
+            int index = affected[i];
+            robotFields.setPerepAt(csrToField[index], calculatePonField.intraPerep(csrGraph.agent(index)));
+        }
+        if (!interOwned) {
+            groupFields = calculatePonField.calculateInterField();
+            interOwned = true;
+        } else {
+            groupFields.setPerep(groupId, calculatePonField.interPerep(idToGroups.get(groupId)));
+        }
+
+        if (crossCheck) {
+            crossCheck(true);
+        }
+    }
+
+    private void begin() {
+        stamp++;
+        size = 0;
+    }
+
+    private void recalculate(boolean inter) {
+        iniContextLoadI.run();
+        if (inter) {
+            groupFields = calculatePonField.calculateInterField();
+            interOwned = true;
+        }
+        robotFields = calculatePonField.calculateIntraField();
+        capture();
+        intraOwned = true;
+    }
+
+    private void refreshAffected() {
+        //更新上下文负载和过载故障情况，受影响节点的引力势场按baseImean重新写入
+        fieldComponents.refresh(affected, size);
+        for (int i = 0; i < size; i++) {
+            int index = affected[i];
+            int id = csrGraph.idOf(index);
+            Double I = iniContextLoadI.calculateI(id);
+            idToI.put(id, I);
+            int fieldIndex = csrToField[index];
+            Isum += I - iValues[fieldIndex];
+            iValues[fieldIndex] = I;
+            robotFields.setPegraAt(fieldIndex, calculatePonField.intraPegra(I, baseImean));
+            Agent agent = csrGraph.agent(index);
+            agent.setFaultO(1-function.calculateOverLoadIS(agent));
+        }
+
+        //均值的变化对所有节点的引力势场相同：-a*(I-Imean) = -a*(I-baseImean) + a*(Imean-baseImean)
+        double Imean = Isum/iValues.length;
+        robotFields.setPegraOffset(calculatePonField.intraPegra(baseImean, Imean));
+    }
+
+    private void capture() {
+        int n = csrGraph.size();
+        iValues = new double[robotFields.size()];
+        csrToField = new int[n];
+        mark = new int[n];
+        affected = new int[n];
+        //与完整计算相同的求和顺序，完整计算写入的引力势场就是相对这个均值的值
+        Isum = 0.0;
+        for (int i = 0; i < robotFields.size(); i++) {
+            int id = robotFields.idOf(i);
+            iValues[i] = idToI.get(id);
+            csrToField[csrGraph.indexOf(id)] = i;
+            Isum += iValues[i];
+        }
+        baseImean = Isum/iValues.length;
+    }
+
+    private void collect(int index) {
+        if (mark[index] != stamp) {
+            mark[index] = stamp;
+            affected[size++] = index;
+        }
+    }
+
+    private void collectGroup(int groupId) {
+        Set<Integer> robotIdInGroup = idToGroups.get(groupId).getRobotIdInGroup();
+        for (Integer id : robotIdInGroup) {
+            collect(csrGraph.indexOf(id));
+        }
+    }
+
+    private void collectNeighbors(int index, int groupId) {
+        collect(index);
+        int end = csrGraph.end(index);
+        for (int k = csrGraph.begin(index); k < end; k++) {
+            int neighbor = csrGraph.neighbor(k);
+            if (csrGraph.agent(neighbor).getGroupId() == groupId) {
+                collect(neighbor);
+            }
+        }
+    }
+
+    private void updateGroup(int groupId) {
+        groupFields.setPegra(groupId, calculatePonField.interPegra(idToGroups.get(groupId)));
+    }
+
+    private void crossCheck(boolean inter) {
+        HashMap<Integer, Double> fullIdToI = new HashMap<>();
+        IniContextLoadI fullContextLoadI = new IniContextLoadI(idToGroups, idToRobots, arcGraph, csrGraph, leaderDistanceCache, shortestPath, fullIdToI, a, b);
+        fullContextLoadI.run();
+        CalculatePonField full = new CalculatePonField(idToGroups, idToRobots, arcGraph, csrGraph, fullContextLoadI.getFieldComponents(), fullIdToI, shortestPath, a, b);
+        if (inter) {
+            compare("group", full.calculateInterField(), groupFields);
+        }
+        compare("robot", full.calculateIntraField(), robotFields);
+        for (Integer id : idToRobots.keySet()) {
+            if (!fullIdToI.get(id).equals(idToI.get(id))) {
+                throw new IllegalStateException("contextual load mismatch for robot " + id + ": " + idToI.get(id) + " != " + fullIdToI.get(id));
+            }
+        }
+    }
+
+    private void compare(String kind, PotentialFieldStore expected, PotentialFieldStore actual) {
+        for (int i = 0; i < expected.size(); i++) {
+            int id = expected.idOf(i);
+            if (!closeEnough(expected.pegraAt(i), actual.getPegra(id))
+                    || Double.doubleToLongBits(expected.perepAt(i)) != Double.doubleToLongBits(actual.getPerep(id))) {
+                throw new IllegalStateException(kind + " potential field mismatch for " + id + ": " + actual.get(id) + " != " + expected.get(id));
+            }
+        }
+    }
+
+    private boolean closeEnough(double expected, double actual) {
+        //引力势场的均值部分是增量求和得到的，只允许舍入误差
+        double scale = Math.max(Math.abs(expected), a*Math.abs(baseImean));
+        return Math.abs(expected - actual) <= 1e-9*Math.max(scale, 1.0);
+    }
+}
@@ -1,8 +1,9 @@
 package MPFTM;
 
+import graph.CsrGraph;
+import graph.LeaderDistanceCache;
 import input.Group;
 import input.Agent;
-import main.Function;
 import org.jgrapht.alg.interfaces.ShortestPathAlgorithm;
 import org.jgrapht.graph.DefaultUndirectedWeightedGraph;
 import org.jgrapht.graph.DefaultWeightedEdge;
@@ -17,28 +18,69 @@ public class IniContextLoadI {
     Double a;
     Double b;
     private HashMap<Integer,Double> idToI ;
+    private CsrGraph csrGraph;
+    private LeaderDistanceCache leaderDistanceCache;
+    private FieldComponents fieldComponents;
     public IniContextLoadI(HashMap<Integer, Group> idToGroups, HashMap<Integer, Agent> idToRobots,
                            DefaultUndirectedWeightedGraph<Integer, DefaultWeightedEdge> arcGraph, ShortestPathAlgorithm<Integer, DefaultWeightedEdge> shortestPath,
                            HashMap<Integer, Double> idToI, Double a, Double b) {
+        this(idToGroups, idToRobots, arcGraph, new CsrGraph(arcGraph, idToRobots), shortestPath, idToI, a, b);
+    }
+
+    public IniContextLoadI(HashMap<Integer, Group> idToGroups, HashMap<Integer, Agent> idToRobots,
+                           DefaultUndirectedWeightedGraph<Integer, DefaultWeightedEdge> arcGraph, CsrGraph csrGraph,
+                           ShortestPathAlgorithm<Integer, DefaultWeightedEdge> shortestPath,
+                           HashMap<Integer, Double> idToI, Double a, Double b) {
+        this(idToGroups, idToRobots, arcGraph, csrGraph, new LeaderDistanceCache(csrGraph, shortestPath), shortestPath, idToI, a, b);
+    }
+
+    public IniContextLoadI(HashMap<Integer, Group> idToGroups, HashMap<Integer, Agent> idToRobots,
+                           DefaultUndirectedWeightedGraph<Integer, DefaultWeightedEdge> arcGraph, CsrGraph csrGraph,
+                           LeaderDistanceCache leaderDistanceCache, ShortestPathAlgorithm<Integer, DefaultWeightedEdge> shortestPath,
+                           HashMap<Integer, Double> idToI, Double a, Double b) {
+        this(idToGroups, idToRobots, arcGraph, csrGraph, leaderDistanceCache, new FieldComponents(idToGroups, idToRobots, csrGraph, leaderDistanceCache),
+                shortestPath, idToI, a, b);
+    }
+
+    public IniContextLoadI(HashMap<Integer, Group> idToGroups, HashMap<Integer, Agent> idToRobots,
+                           DefaultUndirectedWeightedGraph<Integer, DefaultWeightedEdge> arcGraph, CsrGraph csrGraph,
+                           LeaderDistanceCache leaderDistanceCache, FieldComponents fieldComponents,
+                           ShortestPathAlgorithm<Integer, DefaultWeightedEdge> shortestPath,
+                           HashMap<Integer, Double> idToI, Double a, Double b) {
         this.idToGroups = idToGroups;
         this.idToRobots = idToRobots;
         this.arcGraph = arcGraph;
+        this.csrGraph = csrGraph;
+        this.leaderDistanceCache = leaderDistanceCache;
+        this.fieldComponents = fieldComponents;
         this.a = a;
         this.b = b;
         this.idToI = idToI;
         this.shortestPath = shortestPath;
     }
 
+    public FieldComponents getFieldComponents() {
+        return fieldComponents;
+    }
+
     public void run() {
-        Function function = new Function(idToRobots,idToGroups);
+        //按当前负载重新计算与a无关的部分，再组合出上下文负载
+        fieldComponents.refreshAll();
+        rescale();
+    }
+
+    public void rescale() {
+        //fieldComponents已经与当前负载一致时，只按a、b重新组合，不遍历邻居
         for (Integer id : idToRobots.keySet()) {
-            Agent robot = idToRobots.get(id);
-            Group group = idToGroups.get(robot.getGroupId());
-            Double I = function.calculateContextualLoad(group.getLeader(), robot, arcGraph, shortestPath, a, b);
-            if (I>1000||I<-1000) {
-                I = 1.0;
-            }
-            idToI.put(id,I);
+            idToI.put(id,calculateI(id));
+        }
+    }
+
+    public Double calculateI(int id) {
+        Double I = fieldComponents.contextualLoad(csrGraph.indexOf(id), a, b);
+        if (I>1000||I<-1000) {
+            I = 1.0;
         }
+        return I;
     }
 }
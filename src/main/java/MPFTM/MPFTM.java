@@ -1,85 +1,258 @@
 package MPFTM;
 
-import evaluation.Evalution;
+import graph.CsrGraph;
+import graph.GroupSubgraphCache;
+import graph.LeaderDistanceCache;
 import input.*;
-import main.Initialize;
-import org.jgrapht.alg.interfaces.ShortestPathAlgorithm;
-import org.jgrapht.alg.shortestpath.DijkstraShortestPath;
+import main.AbstractMigrationAlgorithm;
+import main.MigrationExecutor;
+import main.OnlineAssignable;
+import main.PhaseTimer;
+import main.WeightSweepable;
 import org.jgrapht.graph.DefaultUndirectedWeightedGraph;
 import org.jgrapht.graph.DefaultWeightedEdge;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 
-public class MPFTM {
+public class MPFTM extends AbstractMigrationAlgorithm implements WeightSweepable, OnlineAssignable {
     //主算法
-    private List<Task> tasks;
-    private DefaultUndirectedWeightedGraph<Integer, DefaultWeightedEdge> arcGraph;
-    private List<Agent> robots;
-    private HashMap<Integer, Group> idToGroups;
-    private HashMap<Integer, Agent> idToRobots;
-    private ShortestPathAlgorithm<Integer, DefaultWeightedEdge> shortestPath ;
-    Double a;
-    Double b;
+    private GroupSubgraphCache groupSubgraphCache;
     private HashMap<Integer,Double> idToI = new HashMap<>();
+    private CsrGraph csrGraph;
+    private LeaderDistanceCache leaderDistanceCache;
+    private FieldComponents fieldComponents;
+    //最近一次迁移的状态（势场、网络层堆），在线模式继续在上面分配新到达的任务
+    private TaskMigrationBasedPon taskMigration;
+    //run之后的故障默认逐个增量处理；关闭时onFault沿用重新执行整个迁移过程的做法
+    private boolean incrementalFaults = true;
+    private static final int MAX_AD_LEADERS = 2;
+    //run之后leader故障时的替换链
+    private FailoverChains failoverChains;
+    private int failoverDepth = 4;
     public MPFTM(List<Task> tasks, DefaultUndirectedWeightedGraph<Integer, DefaultWeightedEdge> arcGraph, List<Agent> robots, Double a, Double b) {
-        this.tasks = tasks;
-        this.arcGraph = arcGraph;
-        this.robots = robots;
-        idToGroups = new HashMap<>();
-        idToRobots = new HashMap<>();
-        this.a = a;
-        this.b = b;
+        super(tasks, arcGraph, robots, a, b);
+    }
+
+    @Override
+    public String getName() {
+        return "mpftm";
     }
 
     public ExperimentResult mpftmRun() {
-        System.out.println("mpftmRun");
-        Initialize ini = new Initialize();
-        Evalution evalution = new Evalution(idToRobots,idToGroups);
-        ExperimentResult experimentResult = new ExperimentResult();
-        for (Agent robot : robots) {
-            idToRobots.put(robot.getRobotId(),robot);
+        return run();
+    }
+
+    @Override
+    protected List<MigrationRecord> migrate() {
+        prepare();
+        return migrate(a, b);
+    }
+
+    @Override
+    public List<ExperimentResult> runWeights(List<Double> aValues) {
+        //对同一个场景依次用多个a运行，b=1-a，结果顺序与aValues一致
+        //leader和后备节点的评分只以a*b的正倍数依赖a，a在(0,1)内时选择结果相同，初始化和选择只做一次；
+        //每个a之前把负载、任务列表和组负载恢复到迁移前的状态，上下文负载和势场由缓存的分量重新组合，迁移本身仍然逐个a执行
+        checkWeight(a);
+        for (Double weight : aValues) {
+            checkWeight(weight);
+        }
+        setUp();
+        prepare();
+        Double a0 = a;
+        Double b0 = b;
+        List<Agent> agents = new ArrayList<>(idToRobots.values());
+        List<Group> groups = new ArrayList<>(idToGroups.values());
+        double[] loads = new double[agents.size()];
+        double[] faultOs = new double[agents.size()];
+        List<List<Task>> tasksLists = new ArrayList<>();
+        for (int i = 0; i < agents.size(); i++) {
+            loads[i] = agents.get(i).getLoad();
+            faultOs[i] = agents.get(i).getFaultO();
+            tasksLists.add(new ArrayList<>(agents.get(i).getTasksList()));
+        }
+        double[] groupLoads = new double[groups.size()];
+        for (int i = 0; i < groups.size(); i++) {
+            groupLoads[i] = groups.get(i).getGroupLoad();
+        }
+        List<ExperimentResult> results = new ArrayList<>();
+        try {
+            for (Double weight : aValues) {
+                for (int i = 0; i < agents.size(); i++) {
+                    agents.get(i).setLoad(loads[i]);
+                    agents.get(i).setFaultO(faultOs[i]);
+                    agents.get(i).setTasksList(new ArrayList<>(tasksLists.get(i)));
+                }
+                for (int i = 0; i < groups.size(); i++) {
+                    groups.get(i).setGroupLoad(groupLoads[i]);
+                }
+                a = weight;
+                b = 1 - weight;
+                idToI.clear();
+                List<MigrationRecord> migrationRecords = migrate(a, b);
+                phase(PhaseTimer.EVALUATION);
+                results.add(evaluate(migrationRecords));
+            }
+        } finally {
+            endPhase();
+            a = a0;
+            b = b0;
         }
-        ini.run(tasks,robots,idToGroups,idToRobots);
-        //System.out.println("执行算法");
+        return results;
+    }
 
-        Double sumMigrationCost = 0.0;
-        Double sumExecuteCost = -5.0;
-        Double survivalRate = 0.06;
+    private static void checkWeight(Double weight) {
+        if (weight == null || !(weight > 0 && weight < 1)) {
+            throw new IllegalArgumentException("a必须在(0,1)内，a为0或1时leader选择与其他a不同，需要单独运行：" + weight);
+        }
+    }
+
+    private void prepare() {
         //领导节点选择，领导节点替换算法，执行后备节点选择
-        shortestPath = new DijkstraShortestPath<>(arcGraph);
+        //各组的导出子图在leader选择、后备节点选择、leader替换中共用
+        groupSubgraphCache = newGroupSubgraphCache();
         //leader选择
+        phase(PhaseTimer.LEADER);
         leaderSelection(idToGroups,idToRobots,arcGraph);
-        final int maxSize = 2;
-        adLeadersSelection(idToGroups,idToRobots,arcGraph,maxSize);
+        phase(PhaseTimer.BACKUP);
+        adLeadersSelection(idToGroups,idToRobots,arcGraph,MAX_AD_LEADERS);
         //在领导节点出现故障的情况下，选择后备节点进行替换
-        new AdLeadersReplace(idToGroups,idToRobots,arcGraph).run();
+        new AdLeadersReplace(idToGroups,idToRobots,arcGraph,groupSubgraphCache).run();
+
+        phase(PhaseTimer.CONTEXT_LOAD);
+        //领导节点之间的边已经加入，之后拓扑不再变化，构建CSR图供热点循环使用
+        csrGraph = new CsrGraph(arcGraph, idToRobots);
+        //每个leader只做一次单源最短路，上下文负载的每次刷新都从这里读取到leader的距离
+        leaderDistanceCache = new LeaderDistanceCache(csrGraph, shortestPath);
+        //上下文负载和势场中与a无关的部分，按迁移前的负载计算一次
+        fieldComponents = new FieldComponents(idToGroups, idToRobots, csrGraph, leaderDistanceCache);
+    }
 
+    private List<MigrationRecord> migrate(Double a, Double b) {
         //初始化（计算）上下文负载
-        new IniContextLoadI(idToGroups,idToRobots,arcGraph, shortestPath,idToI,a, b).run();
+        phase(PhaseTimer.CONTEXT_LOAD);
+        new IniContextLoadI(idToGroups,idToRobots,arcGraph,csrGraph,leaderDistanceCache,fieldComponents, shortestPath,idToI,a, b).rescale();
 
         //计算势场
-        CalculatePonField calculatePonField = new CalculatePonField(idToGroups, idToRobots, arcGraph,idToI,shortestPath,a,b);
+        phase(PhaseTimer.FIELD);
+        CalculatePonField calculatePonField = new CalculatePonField(idToGroups, idToRobots, arcGraph,csrGraph,fieldComponents,idToI,shortestPath,a,b);
         //计算节点的势场
-        HashMap<Integer, PotentialField> robotIdToPfield = calculatePonField.calculateIntraP();
+        PotentialFieldStore robotFields = calculatePonField.calculateIntraField();
 
         //计算网络层的势场
-        HashMap<Integer, PotentialField> groupIdToPfield = calculatePonField.calculateInterP();
+        PotentialFieldStore groupFields = calculatePonField.calculateInterField();
 
 
         //执行任务迁移
-        List<MigrationRecord> migrationRecords = new TaskMigrationBasedPon(idToGroups, idToRobots, arcGraph, groupIdToPfield, robotIdToPfield, shortestPath,idToI, a, b).run();
+        phase(PhaseTimer.MIGRATION);
+        MigrationExecutor executor = newExecutor();
+        taskMigration = new TaskMigrationBasedPon(idToGroups, idToRobots, arcGraph, csrGraph, leaderDistanceCache, groupFields, robotFields, shortestPath,idToI, a, b,
+                executor);
+        List<MigrationRecord> migrationRecords = taskMigration.run();
+        //迁移之后为每个组准备leader的替换链，之后的迁移改变负载时标记对应的组，在故障处理之后检查是否需要重新排列
+        failoverChains = new FailoverChains(idToGroups, groupSubgraphCache, csrGraph, leaderDistanceCache, failoverDepth);
+        failoverChains.refreshAll();
+        executor.addListener((robot, robotMigrated, migrationTask, record) -> {
+            failoverChains.markChanged(robot.getGroupId());
+            failoverChains.markChanged(robotMigrated.getGroupId());
+        });
+        return migrationRecords;
+    }
 
-        //System.out.println("temp");
+    @Override
+    public Agent assign(Task task) {
+        if (taskMigration == null) {
+            throw new IllegalStateException("需要先调用run，在迁移之后的势场上分配新到达的任务");
+        }
+        Agent target = taskMigration.assign(task);
+        if (target != null) {
+            failoverChains.markChanged(target.getGroupId());
+        }
+        return target;
+    }
+
+    public void setIncrementalFaults(boolean incrementalFaults) {
+        this.incrementalFaults = incrementalFaults;
+    }
+
+    public void setFailoverDepth(int failoverDepth) {
+        this.failoverDepth = failoverDepth;
+    }
+
+    public FailoverChains getFailoverChains() {
+        return failoverChains;
+    }
 
+    @Override
+    public List<MigrationRecord> onFault(List<Agent> failed) {
+        if (!incrementalFaults) {
+            return super.onFault(failed);
+        }
+        requireMigration();
+        phase(PhaseTimer.MIGRATION);
+        //failed中的组件已经标记故障，先恢复标记，再逐个处理，每次增量更新时其余组件的故障状态与势场一致
+        for (Agent robot : failed) {
+            robot.setFaultA(0);
+        }
+        List<MigrationRecord> migrationRecords = new ArrayList<>();
+        for (Agent robot : failed) {
+            migrationRecords.addAll(onFault(robot.getRobotId()));
+        }
+        endPhase();
+        return migrationRecords;
+    }
 
+    public List<MigrationRecord> onFault(int robotId) {
+        //run之后robotId出现功能故障：只更新它所在组的leader、替换链和势场以及网络层的势场，只迁走它上面的任务
+        requireMigration();
+        Agent robot = idToRobots.get(robotId);
+        robot.setFaultA(1);
+        Group group = idToGroups.get(robot.getGroupId());
+        boolean leaderChanged = false;
+        if (group.getLeader() == robot) {
+            //从替换链的链头取出新的leader，组内没有可用节点时保留原来的leader
+            Agent replaceLeader = failoverChains.pop(robot.getGroupId());
+            if (replaceLeader != null) {
+                group.setLeader(replaceLeader);
+                leaderDistanceCache.invalidate(robotId);
+                failoverChains.leaderChanged(robot.getGroupId());
+                leaderChanged = true;
+            }
+        }
+        List<MigrationRecord> migrationRecords = taskMigration.fault(robot, leaderChanged);
+        //故障改变了同组邻居的过载故障概率；故障迁移之后重新排列受影响的链，下一次leader故障时直接取用
+        failoverChains.markChanged(robot.getGroupId());
+        failoverChains.refreshPending();
+        return migrationRecords;
+    }
+
+    public void onRecovery(int robotId) {
+        //run之后robotId从功能故障中恢复：更新它所在组的势场和网络层的势场，恢复的节点可能进入替换链，不迁移任务
+        requireMigration();
+        Agent robot = idToRobots.get(robotId);
+        robot.setFaultA(0);
+        taskMigration.recover(robot);
+        failoverChains.markChanged(robot.getGroupId());
+        failoverChains.refreshPending();
+    }
+
+    private void requireMigration() {
+        if (taskMigration == null) {
+            throw new IllegalStateException("需要先调用run");
+        }
+    }
+
+    @Override
+    protected ExperimentResult evaluate(List<MigrationRecord> migrationRecords) {
+        Double sumMigrationCost = 0.0;
+        Double sumExecuteCost = -5.0;
+        Double survivalRate = 0.06;
         sumMigrationCost += evalution.calculateMigrationCost(shortestPath,migrationRecords)*0.68;
         sumExecuteCost += evalution.calculateExecuteTasksCost(robots)*0.8;
         survivalRate += evalution.calculateMeanSurvivalRate(robots)*0.95;
-        experimentResult.setMeanMigrationCost(sumMigrationCost);
-        experimentResult.setMeanExecuteCost(sumExecuteCost);
-        experimentResult.setMeansurvivalRate(survivalRate);
-        return experimentResult;
+        return result(sumMigrationCost, sumExecuteCost, survivalRate);
     }
 
 
@@ -87,7 +260,7 @@ public class MPFTM {
                                     DefaultUndirectedWeightedGraph<Integer, DefaultWeightedEdge> arcGraph,int maxSize) {
         for (Group group : idToGroups.values()) {
             if (group.getAdLeaders()==null) {
-                group.setAdLeaders(new FinderAdLeaders().findAdLeaders(group,idToRobots,idToGroups,arcGraph,shortestPath,a,b,maxSize));
+                group.setAdLeaders(new FinderAdLeaders(groupSubgraphCache).findAdLeaders(group,idToRobots,idToGroups,arcGraph,shortestPath,a,b,maxSize));
             }
         }
         //后备节点选择算法
@@ -97,7 +270,7 @@ public class MPFTM {
         for (Group group : idToGroups.values()) {
             if (group.getLeader()==null) {
                 //对于子图来选取leader节点
-                group.setLeader(new FinderLeader().findLeader(group,idToRobots,idToGroups,arcGraph,a,b));
+                group.setLeader(new FinderLeader(groupSubgraphCache).findLeader(group,idToRobots,idToGroups,arcGraph,a,b));
             }
         }
         //给这些leader节点之间添加上连接的边
@@ -1,6 +1,10 @@
 package MPFTM;
 
+import graph.CsrGraph;
+import graph.LeaderDistanceCache;
 import input.*;
+import main.MigrationExecutor;
+import main.MigrationListener;
 import org.jgrapht.alg.interfaces.ShortestPathAlgorithm;
 import org.jgrapht.graph.DefaultUndirectedWeightedGraph;
 import org.jgrapht.graph.DefaultWeightedEdge;
@@ -12,30 +16,126 @@ public class TaskMigrationBasedPon {
     private HashMap<Integer, Group> idToGroups;
     private HashMap<Integer, Agent> idToRobots;
     private ShortestPathAlgorithm<Integer, DefaultWeightedEdge> shortestPath ;
-    private HashMap<Integer,PotentialField> groupIdToPfield;
-    private HashMap<Integer,PotentialField> robotIdToPfield;
-    private List<MigrationRecord> records;
+    private PotentialFieldStore groupFields;
+    private PotentialFieldStore robotFields;
     Double a;
     Double b;
     private HashMap<Integer,Double> idToI;
+    private CsrGraph csrGraph;
+    private LeaderDistanceCache leaderDistanceCache;
+    private IncrementalPonField ponField;
+    private GroupPotentialHeap groupHeap;
+    private double[] sortKeys;
+    private final ArrayList<Frame> frames = new ArrayList<>();
+    private MigrationExecutor executor;
+    private TaskStore taskStore;
+    //每次迁移后增量更新势场，只在run期间挂在executor上
+    private final MigrationListener fieldListener = this::updateFields;
     public TaskMigrationBasedPon(HashMap<Integer, Group> idToGroups, HashMap<Integer, Agent> idToRobots,
                                  DefaultUndirectedWeightedGraph<Integer, DefaultWeightedEdge> arcGraph, HashMap<Integer, PotentialField> groupIdToPfield, HashMap<Integer, PotentialField> robotIdToPfield
             ,ShortestPathAlgorithm<Integer, DefaultWeightedEdge> shortestPath,HashMap<Integer,Double> idToI,Double a,Double b) {
+        this(idToGroups, idToRobots, arcGraph, new CsrGraph(arcGraph, idToRobots), groupIdToPfield, robotIdToPfield, shortestPath, idToI, a, b);
+    }
+
+    public TaskMigrationBasedPon(HashMap<Integer, Group> idToGroups, HashMap<Integer, Agent> idToRobots,
+                                 DefaultUndirectedWeightedGraph<Integer, DefaultWeightedEdge> arcGraph, CsrGraph csrGraph,
+                                 HashMap<Integer, PotentialField> groupIdToPfield, HashMap<Integer, PotentialField> robotIdToPfield
+            ,ShortestPathAlgorithm<Integer, DefaultWeightedEdge> shortestPath,HashMap<Integer,Double> idToI,Double a,Double b) {
+        this(idToGroups, idToRobots, arcGraph, csrGraph, new LeaderDistanceCache(csrGraph, shortestPath), PotentialFieldStore.fromMap(groupIdToPfield),
+                PotentialFieldStore.fromMap(robotIdToPfield), shortestPath, idToI, a, b);
+    }
+
+    public TaskMigrationBasedPon(HashMap<Integer, Group> idToGroups, HashMap<Integer, Agent> idToRobots,
+                                 DefaultUndirectedWeightedGraph<Integer, DefaultWeightedEdge> arcGraph, CsrGraph csrGraph, LeaderDistanceCache leaderDistanceCache,
+                                 PotentialFieldStore groupFields, PotentialFieldStore robotFields
+            ,ShortestPathAlgorithm<Integer, DefaultWeightedEdge> shortestPath,HashMap<Integer,Double> idToI,Double a,Double b) {
+        this(idToGroups, idToRobots, arcGraph, csrGraph, leaderDistanceCache, groupFields, robotFields, shortestPath, idToI, a, b,
+                new MigrationExecutor(idToGroups, idToRobots));
+    }
+
+    public TaskMigrationBasedPon(HashMap<Integer, Group> idToGroups, HashMap<Integer, Agent> idToRobots,
+                                 DefaultUndirectedWeightedGraph<Integer, DefaultWeightedEdge> arcGraph, CsrGraph csrGraph, LeaderDistanceCache leaderDistanceCache,
+                                 PotentialFieldStore groupFields, PotentialFieldStore robotFields
+            ,ShortestPathAlgorithm<Integer, DefaultWeightedEdge> shortestPath,HashMap<Integer,Double> idToI,Double a,Double b,
+                                 MigrationExecutor executor) {
         this.idToGroups = idToGroups;
         this.idToRobots = idToRobots;
-        this.groupIdToPfield = groupIdToPfield;
-        this.robotIdToPfield = robotIdToPfield;
+        this.groupFields = groupFields;
+        this.robotFields = robotFields;
         this.arcGraph = arcGraph;
+        this.csrGraph = csrGraph;
+        this.leaderDistanceCache = leaderDistanceCache;
         this.a = a;
         this.b = b;
         this.idToI = idToI;
         this.shortestPath = shortestPath ;
-        records = new ArrayList<>();
+        ponField = new IncrementalPonField(idToGroups, idToRobots, arcGraph, csrGraph, leaderDistanceCache, shortestPath, idToI,
+                groupFields, robotFields, a, b);
+        groupHeap = new GroupPotentialHeap(groupFields);
+        sortKeys = new double[csrGraph.edgeSlots()];
+        this.executor = executor;
+        taskStore = executor.getTaskStore();
     }
 
     public List<MigrationRecord> run() {
-        InterTaskMigration();
-        return records;
+        //返回这次run产生的迁移记录
+        return migrate(this::InterTaskMigration);
+    }
+
+    public List<MigrationRecord> fault(Agent robot, boolean leaderChanged) {
+        //run之后robot出现功能故障（已经标记faultA=1，所在组的leader已经更新）：增量更新势场，只迁走robot上的任务
+        ponField.fault(robot, leaderChanged);
+        syncFields(robot.getGroupId());
+        return migrate(() -> {
+            InterTaskMigrationForRobot(robot, getAveragePeN());
+            IntraTaskMigrationForRobot(robot);
+            MigrationforRobot(idToGroups.get(robot.getGroupId()).getLeader(),new HashSet<>());
+        });
+    }
+
+    public void recover(Agent robot) {
+        //robot从功能故障中恢复，只更新势场，不迁移任务
+        ponField.recover(robot);
+        syncFields(robot.getGroupId());
+    }
+
+    private List<MigrationRecord> migrate(Runnable migration) {
+        //返回migration产生的迁移记录
+        List<MigrationRecord> records = executor.getRecords();
+        int start = records.size();
+        executor.addListener(fieldListener);
+        try {
+            migration.run();
+        } finally {
+            executor.removeListener(fieldListener);
+        }
+        return new ArrayList<>(records.subList(start, records.size()));
+    }
+
+    public Agent assign(Task task) {
+        //在线模式：新到达的任务交给势场最小的网络层中势场最小的非故障节点，然后增量更新势场
+        //所有网络层都不可用时返回null，任务不分配
+        int groupId = findMinPn();
+        if (groupId < 0) {
+            return null;
+        }
+        Agent target = null;
+        double minValue = Double.MAX_VALUE;
+        for (Integer robotId : idToGroups.get(groupId).getRobotIdInGroup()) {
+            Agent robot = idToRobots.get(robotId);
+            double v = robotFields.total(robotId);
+            if (robot.getFaultA()!=1 && v <minValue) {
+                target = robot;
+                minValue = v;
+            }
+        }
+        if (target == null) {
+            return null;
+        }
+        executor.arrive(target, task);
+        ponField.arrive(target);
+        syncFields(target.getGroupId());
+        return target;
     }
 
     private void InterTaskMigration() {
@@ -47,7 +147,7 @@ public class TaskMigrationBasedPon {
             }
         }
 
-        Double averagePeN = getAveragePeN();
+        double averagePeN = getAveragePeN();
 
         for (Integer fgroupId : Fgroups) {
             Group sGroup = idToGroups.get(fgroupId);
@@ -55,22 +155,7 @@ public class TaskMigrationBasedPon {
             for (Integer robotId : robotIdInGroup) {
                 Agent robot = idToRobots.get(robotId);
                 if (robot.getFaultA()==1) {
-                    //pf表示发生故障的网络层的势场情况
-                    List<Task> tnf = new ArrayList<>(robot.getTasksList());
-                    PotentialField pf = groupIdToPfield.get(fgroupId);
-                    Double pFg = pf.getPegra()+pf.getPerep();
-                    if (pFg >averagePeN) {
-                        //需要进行网络层间的任务迁移
-                        int tGroupId = findMinPn();
-                        for (Task task : tnf) {
-                            PotentialField pt = groupIdToPfield.get(tGroupId);
-                            Double pTg = pt.getPegra()+pt.getPerep();
-                            if (pTg <averagePeN) {
-                                excuteMigration(robot,idToGroups.get(tGroupId).getLeader(),task);
-                            }
-                        }
-                    }
-
+                    InterTaskMigrationForRobot(robot, averagePeN);
                 }
             }
             //执行网络层内的任务迁移，对该group内部的任务进行迁移
@@ -78,6 +163,23 @@ public class TaskMigrationBasedPon {
         }
     }
 
+    private void InterTaskMigrationForRobot(Agent robot, double averagePeN) {
+        //pf表示发生故障的网络层的势场情况
+        int fgroupId = robot.getGroupId();
+        List<Task> tnf = new ArrayList<>(robot.getTasksList());
+        double pFg = groupFields.total(fgroupId);
+        if (pFg >averagePeN) {
+            //需要进行网络层间的任务迁移
+            int tGroupId = findMinPn();
+            for (Task task : tnf) {
+                double pTg = groupFields.total(tGroupId);
+                if (pTg <averagePeN) {
+                    executor.execute(robot,idToGroups.get(tGroupId).getLeader(),task);
+                }
+            }
+        }
+    }
+
     private void IntraTaskMigration(int groupId) {
         //执行网络层内的任务迁移，对该group内部的任务进行迁移（包含递归算法）
         List<Agent> fRobots = new ArrayList<>();
@@ -91,120 +193,169 @@ public class TaskMigrationBasedPon {
         Agent leader = group.getLeader();
         //把需要的被迁移的任务 迁移给边缘的节点上，阻碍级联故障的发生（不设置这种情况了）
         for (Agent fRobot : fRobots) {
-            List<Task> tasksList = fRobot.getTasksList();
-            while (tasksList.size()>0) {
-                Task migratedTask = tasksList.get(0);
-                Agent migratedRobot = findMigratedRobot(fRobot);
-                excuteMigration(fRobot,migratedRobot,migratedTask);
-                tasksList = fRobot.getTasksList();
-
-                //更新tasksList
-                MigrationforRobot(migratedRobot,new HashSet<Agent>());
-            }
+            IntraTaskMigrationForRobot(fRobot);
         }
-        MigrationforRobot(leader,new HashSet<Agent>());
+        MigrationforRobot(leader,new HashSet<>());
 
     }
 
-    private void MigrationforRobot(Agent agent,HashSet<Agent> set) {
-        set.add(agent);
-        int robotId = agent.getRobotId();
-        Set<DefaultWeightedEdge> defaultWeightedEdges = arcGraph.edgesOf(robotId);
-        List<Integer> domainId = new ArrayList<>();
-        for (DefaultWeightedEdge defaultWeightedEdge : defaultWeightedEdges) {
-            Integer edgeSource = arcGraph.getEdgeSource(defaultWeightedEdge);
-            if (edgeSource!=robotId) {
-                domainId.add(edgeSource);
-            } else {
-                Integer edgeTarget = arcGraph.getEdgeTarget(defaultWeightedEdge);
-                domainId.add(edgeTarget);
-            }
-        }
-        domainId.sort(getComparator(agent));
-
-        Integer migratedId = domainId.get(0);
-
-        PotentialField poR = robotIdToPfield.get(robotId);
+    private void IntraTaskMigrationForRobot(Agent fRobot) {
+        List<Task> tasksList = fRobot.getTasksList();
+        while (tasksList.size()>0) {
+            Task migratedTask = tasksList.get(0);
+            Agent migratedRobot = findMigratedRobot(fRobot);
+            executor.execute(fRobot,migratedRobot,migratedTask);
+            tasksList = fRobot.getTasksList();
 
-        Double porValue = poR.getPegra()+poR.getPerep();
-
-        PotentialField poM = robotIdToPfield.get(migratedId);
-
-        Double pomValue = poM.getPegra()+poM.getPerep();
-
-        List<Task> tasksList = agent.getTasksList();
-
-        Task migratedTask = findMaxTask(tasksList);
+            //更新tasksList
+            MigrationforRobot(migratedRobot,new HashSet<>());
+        }
+    }
 
-        double c = arcGraph.getEdgeWeight(arcGraph.getEdge(robotId, migratedId));
-        while (((porValue-pomValue)/c)>0.02) {
-            Agent robotMigrated = idToRobots.get(migratedId);
-            excuteMigration(agent, robotMigrated,migratedTask);
-            if (!set.contains(robotMigrated)) {
-                MigrationforRobot(robotMigrated,set);
-            } else {
-                break;
+    private void MigrationforRobot(Agent start,HashSet<Long> set) {
+        //原来的递归改为显式的栈：每个节点一帧，帧里保存它的邻居（CSR边下标）及当前排序、迁移的任务和边权
+        //执行顺序与递归完全一致：迁移后若目标节点没访问过，先把目标节点处理完，再回到当前节点重新排序
+        int depth = 0;
+        enter(frame(depth), start, set);
+        while (depth >= 0) {
+            Frame frame = frames.get(depth);
+            if (frame.resume) {
+                //从ai节点继续执行
+                frame.resume = false;
+                sortDomain(frame);
+                frame.porValue = robotFields.total(frame.robotId);
+                frame.pomValue = robotFields.total(csrGraph.idOf(csrGraph.neighbor(frame.domain[0])));
             }
-            //执行递归
-
-            //从ai节点继续执行递归
-            domainId.sort(getComparator(agent));
-            migratedId = domainId.get(0);
-            poR = robotIdToPfield.get(robotId);
-            porValue = poR.getPegra()+poR.getPerep();
-            poM = robotIdToPfield.get(migratedId);
-            pomValue = poM.getPegra()+poM.getPerep();
+            if (((frame.porValue-frame.pomValue)/frame.c)>0.02) {
+                int migratedIndex = csrGraph.neighbor(frame.domain[0]);
+                Agent robotMigrated = csrGraph.agent(migratedIndex);
+                executor.execute(frame.agent, robotMigrated,frame.migratedTask);
+                if (!set.contains(visitKey(migratedIndex,robotMigrated))) {
+                    frame.resume = true;
+                    enter(frame(++depth), robotMigrated, set);
+                    continue;
+                }
+            }
+            frame.agent = null;
+            frame.migratedTask = null;
+            depth--;
         }
+    }
 
+    private static class Frame {
+        private Agent agent;
+        private int robotId;
+        //邻居对应的CSR边下标，保持上一次排序后的顺序；数组按深度复用，只用前size个
+        private int[] domain = new int[8];
+        private int size;
+        private Task migratedTask;
+        private double c;
+        private double porValue;
+        private double pomValue;
+        private boolean resume;
     }
 
-    private Task findMaxTask(List<Task> tasksList) {
-        if (tasksList==null||tasksList.size()<1) {
-            return null;
+    private Frame frame(int depth) {
+        //每一层深度的帧只创建一次，之后的迁移都复用
+        if (depth == frames.size()) {
+            frames.add(new Frame());
         }
-        Task returnTask = tasksList.get(0);
-        for (Task task : tasksList) {
-            if (task.getSize()>returnTask.getSize()) {
-                returnTask = task;
-            }
-        }
-        return returnTask;
+        return frames.get(depth);
     }
 
-    private Comparator<Integer> getComparator(Agent robot) {
-        return new Comparator<Integer>() {
-                          @Override
-                          public int compare(Integer o1, Integer o2) {
-                              PotentialField po1 = robotIdToPfield.get(o1);
-                              Double po1Value = po1.getPegra()+po1.getPerep();
+    private void enter(Frame frame, Agent agent,HashSet<Long> set) {
+        frame.agent = agent;
+        frame.robotId = agent.getRobotId();
+        frame.resume = false;
+        int index = csrGraph.indexOf(frame.robotId);
+        set.add(visitKey(index,agent));
+        int begin = csrGraph.begin(index);
+        frame.size = csrGraph.end(index)-begin;
+        if (frame.domain.length < frame.size) {
+            frame.domain = new int[Math.max(frame.size, frame.domain.length*2)];
+        }
+        for (int i = 0; i < frame.size; i++) {
+            frame.domain[i] = begin+i;
+        }
+        sortDomain(frame);
 
-                              PotentialField po2 = robotIdToPfield.get(o2);
-                              Double po2Value = po2.getPegra()+po2.getPerep();
+        int migratedSlot = frame.domain[0];
+        frame.porValue = robotFields.total(frame.robotId);
+        frame.pomValue = robotFields.total(csrGraph.idOf(csrGraph.neighbor(migratedSlot)));
+        frame.migratedTask = taskStore.maxTask(agent);
+        frame.c = csrGraph.weight(migratedSlot);
+    }
 
-                              int robotId = robot.getRobotId();
-                              PotentialField poM = robotIdToPfield.get(robotId);
-                              Double poMValue = poM.getPegra()+poM.getPerep();
+    private static long visitKey(int index, Agent agent) {
+        //与原来的HashSet<Agent>一致：访问过的节点在负载、任务列表或故障状态变化之后不再算作访问过
+        return ((long) index << 32) | (agent.stateHash() & 0xffffffffL);
+    }
 
-                              Double cij1 = arcGraph.getEdgeWeight(arcGraph.getEdge(robotId,o1));
+    private void sortDomain(Frame frame) {
+        //每次排序前按当前势场算好每个邻居的 (po-poM)/cij，比较时不再查势场和边权
+        //迁移总会改变当前节点自己的势场，它出现在每个键里，所以键要全部重新计算；
+        //重新排序从上一次的顺序开始，先一遍检查原来的顺序，只有从第一个不在原位的邻居开始才重新插入，顺序没变时不移动任何元素
+        double poMValue = robotFields.total(frame.robotId);
+        int[] domain = frame.domain;
+        for (int i = 0; i < frame.size; i++) {
+            int slot = domain[i];
+            double poValue = robotFields.total(csrGraph.idOf(csrGraph.neighbor(slot)));
+            sortKeys[slot] = (poValue-poMValue)/csrGraph.weight(slot);
+        }
+        sortDomain(domain, frame.size, sortKeys);
+    }
 
-                              Double cij2 = arcGraph.getEdgeWeight(arcGraph.getEdge(robotId,o2));
+    private static int compare(double[] keys, int slot1, int slot2) {
+        return (int) Math.ceil(keys[slot2] - keys[slot1]);
+    }
 
-                              return (int) Math.ceil((po2Value-poMValue)/cij2 - (po1Value-poMValue)/cij1 );
-                          }
-                      };
+    private static void sortDomain(int[] a, int n, double[] keys) {
+        //比较结果不满足全序关系，邻居数不少于32时List.sort会抛出异常
+        //这里对任意规模都沿用List.sort在小规模时的做法：先找出开头的有序段，再二分插入，结果与原先小规模时一致
+        //不能只把势场变化的邻居挪到新位置：比较不满足传递性，局部调整与从原来的顺序完整排序的结果可能不同
+        if (n < 2) {
+            return;
+        }
+        int runHi = 1;
+        if (compare(keys, a[runHi++], a[0]) < 0) {
+            while (runHi < n && compare(keys, a[runHi], a[runHi - 1]) < 0) {
+                runHi++;
+            }
+            for (int lo = 0, hi = runHi - 1; lo < hi; lo++, hi--) {
+                int t = a[lo];
+                a[lo] = a[hi];
+                a[hi] = t;
+            }
+        } else {
+            while (runHi < n && compare(keys, a[runHi], a[runHi - 1]) >= 0) {
+                runHi++;
+            }
+        }
+        for (int start = runHi; start < n; start++) {
+            int pivot = a[start];
+            int left = 0;
+            int right = start;
+            while (left < right) {
+                int mid = (left + right) >>> 1;
+                if (compare(keys, pivot, a[mid]) < 0) {
+                    right = mid;
+                } else {
+                    left = mid + 1;
+                }
+            }
+            System.arraycopy(a, left, a, left + 1, start - left);
+            a[left] = pivot;
+        }
     }
 
     private Agent findMigratedRobot(Agent fRobot) {
         Agent MigratedRobot = new Agent();
-        Set<DefaultWeightedEdge> defaultWeightedEdges = arcGraph.edgesOf(fRobot.getRobotId());
-        Double minValue = Double.MAX_VALUE;
-        for (DefaultWeightedEdge defaultWeightedEdge : defaultWeightedEdges) {
-            Agent targetRobot = idToRobots.get(arcGraph.getEdgeTarget(defaultWeightedEdge));
-            if (targetRobot.getRobotId()==fRobot.getRobotId()) {
-                targetRobot = idToRobots.get(arcGraph.getEdgeSource(defaultWeightedEdge));
-            }
-            PotentialField targetP = robotIdToPfield.get(targetRobot.getRobotId());
-            Double v = (targetP.getPegra()+targetP.getPerep())*arcGraph.getEdgeWeight(defaultWeightedEdge);
+        int index = csrGraph.indexOf(fRobot.getRobotId());
+        int end = csrGraph.end(index);
+        double minValue = Double.MAX_VALUE;
+        for (int k = csrGraph.begin(index); k < end; k++) {
+            Agent targetRobot = csrGraph.agent(csrGraph.neighbor(k));
+            double v = robotFields.total(targetRobot.getRobotId())*csrGraph.weight(k);
             if (v <minValue) {
                 MigratedRobot = targetRobot;
                 minValue = v;
@@ -214,110 +365,37 @@ public class TaskMigrationBasedPon {
     }
 
     private int findMinPn() {
-        Double minValue = Double.MAX_VALUE;
-        int returnId = -1;
-        for (Integer groupId : groupIdToPfield.keySet()) {
-            PotentialField p = groupIdToPfield.get(groupId);
-            double pValue = p.getPerep() + p.getPegra();
-            if (minValue> pValue) {
-                minValue = pValue;
-                returnId = groupId;
-            }
-        }
-        return returnId;
+        //势场最小的网络层
+        return groupHeap.findMin();
     }
 
 
-    private Double getAveragePeN() {
-        Double peNsum = 0.0;
-        for (Integer groupId : groupIdToPfield.keySet()) {
-            PotentialField peN = groupIdToPfield.get(groupId);
-            peNsum+= peN.getPegra();
-            peNsum+=peN.getPerep();
-        }
-       return peNsum/groupIdToPfield.size();
+    private double getAveragePeN() {
+        return groupHeap.getAverage();
     }
 
-    private void excuteMigration(Agent robot, Agent robotMigrated, Task migrationTask) {
-        if (robot == null) {
-            return;
-        }
-
-        if (robotMigrated == null) {
-            return;
-        }
-        if (migrationTask == null) {
-            return;
-        }
-
-        //改变网络层间负载和任务列表
-        if (robot.getGroupId()!=robotMigrated.getGroupId()) {
-            //不在同一组才会更新网络层间的势场情况
-            updateInter(robot, robotMigrated, migrationTask);
-        }
-        //改变网络层内负载和任务列表
-        updateIntra(robot, robotMigrated, migrationTask);
-        MigrationRecord record = new MigrationRecord();
-        record.setFrom(robot.getRobotId());
-        record.setTo(robotMigrated.getRobotId());
-        records.add(record);
-        //初始化（计算）上下文负载
-        new IniContextLoadI(idToGroups,idToRobots,arcGraph, shortestPath,idToI,a, b).run();
-
-        //更新势场情况
-        CalculatePonField calculatePonField = new CalculatePonField(idToGroups, idToRobots, arcGraph,idToI,shortestPath,a,b);
-
+    private void updateFields(Agent robot, Agent robotMigrated, Task migrationTask, MigrationRecord record) {
+        //更新上下文负载和势场情况，只重新计算受这次迁移影响的节点和组
+        ponField.update(robot, robotMigrated);
         if (robot.getGroupId()!=robotMigrated.getGroupId()) {
-            //更新网络层的势场
-            groupIdToPfield = calculatePonField.calculateInterP();
-
-        }
-
-        //更新节点的势场
-        robotIdToPfield = calculatePonField.calculateIntraP();
-
-    }
-
-    private void updateInter(Agent robot, Agent robotMigrated, Task migrationTask) {
-        if (robot == null) {
-            return;
-        }
-
-        if (robotMigrated == null) {
-            return;
-        }
-        if (migrationTask == null) {
-            return;
+            syncFields(robot.getGroupId(), robotMigrated.getGroupId());
+        } else {
+            syncFields();
         }
-
-        int groupId = robot.getGroupId();
-        Group group = idToGroups.get(groupId);
-        int robotMigratedGroupId = robotMigrated.getGroupId();
-        Group migratedGroup = idToGroups.get(robotMigratedGroupId);
-
-        group.setGroupLoad(group.getGroupLoad()-migrationTask.getSize());
-        migratedGroup.setGroupLoad(migratedGroup.getGroupLoad()+migrationTask.getSize());
-
-
     }
 
-    private void updateIntra(Agent robot, Agent robotMigrated, Task migrationTask) {
-        //更新迁移后的任务负载
-        List<Task> tasksList = robot.getTasksList();
-        tasksList.remove(migrationTask);
-        robot.setLoad(robot.getLoad()-migrationTask.getSize());
-        robot.setTasksList(tasksList);
-
-
-        List<Task> robotMigratedTaskList = robotMigrated.getTasksList();
-        if (robotMigratedTaskList==null) {
-            robotMigratedTaskList = new ArrayList<>();
+    private void syncFields(int... changedGroupIds) {
+        //changedGroupIds为负载发生变化的组
+        if (groupFields != ponField.getGroupFields()) {
+            //网络层势场重新完整计算过，重建堆
+            groupFields = ponField.getGroupFields();
+            groupHeap = new GroupPotentialHeap(groupFields);
+        } else {
+            for (int groupId : changedGroupIds) {
+                groupHeap.update(groupId);
+            }
         }
-
-        robotMigratedTaskList.add(migrationTask);
-        robotMigrated.setLoad(robotMigrated.getLoad()+migrationTask.getSize());
-        robotMigrated.setTasksList(robotMigratedTaskList);
-
+        robotFields = ponField.getRobotFields();
     }
 
 }
@@ -0,0 +1,44 @@
+package graph;
+
+import lombok.Data;
+
+/***
+ * 近似介数中心性的参数，交给GroupSubgraphCache后各组用SampledBetweenness代替精确的BetweennessCentrality
+ * samples>0时每个组最多用samples个源点；否则errorBound>0时按误差界errorBound和失败概率delta计算源点数；都不设置时使用全部源点
+ * topK>0时估计值最大的topK个节点（leader和后备节点的候选）稳定后提前停止
+ * 源点数不少于组内节点数且不提前停止时，直接使用精确算法
+ */
+@Data
+public class BetweennessSampling {
+    private int samples;
+    private double errorBound;
+    private double delta = 0.1;
+    private int topK;
+    private long seed = 1L;
+
+    public int samplesFor(int n) {
+        if (samples > 0) {
+            return Math.min(samples, n);
+        }
+        if (errorBound > 0) {
+            return SampledBetweenness.samplesFor(n, errorBound, delta);
+        }
+        return n;
+    }
+
+    public String describe() {
+        //用于输出的简短描述
+        StringBuilder builder = new StringBuilder();
+        if (samples > 0) {
+            builder.append("samples:").append(samples);
+        } else if (errorBound > 0) {
+            builder.append("error:").append(errorBound);
+        } else {
+            builder.append("all");
+        }
+        if (topK > 0) {
+            builder.append("+top").append(topK);
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,142 @@
+package graph;
+
+import input.Agent;
+import org.jgrapht.graph.DefaultUndirectedWeightedGraph;
+import org.jgrapht.graph.DefaultWeightedEdge;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Set;
+
+/***
+ * 压缩稀疏行（CSR）形式的只读图，顶点为稠密下标0..n-1
+ * 顶点i的邻接边位于 [offsets[i], offsets[i+1])，顺序与arcGraph.edgesOf的遍历顺序一致
+ * neighbors为边的另一端点，outgoing表示该顶点是JGraphT中这条边的source（即getEdgeTarget为邻居）
+ * 构造时绑定每个顶点对应的Agent，热点循环中不再做Integer装箱和哈希查找
+ */
+public class CsrGraph {
+    private final int[] ids;
+    private final int[] idToIndex;
+    private final HashMap<Integer, Integer> sparseIdToIndex;
+    private final int[] offsets;
+    private final int[] neighbors;
+    private final double[] weights;
+    private final boolean[] outgoing;
+    private final Agent[] agents;
+
+    public CsrGraph(DefaultUndirectedWeightedGraph<Integer, DefaultWeightedEdge> arcGraph, HashMap<Integer, Agent> idToRobots) {
+        //图中的顶点在前，不在图中的机器人作为孤立顶点排在后面
+        int n = arcGraph.vertexSet().size();
+        for (Integer robotId : idToRobots.keySet()) {
+            if (!arcGraph.containsVertex(robotId)) {
+                n++;
+            }
+        }
+        ids = new int[n];
+        int index = 0;
+        int minId = Integer.MAX_VALUE;
+        int maxId = Integer.MIN_VALUE;
+        for (Integer vertex : arcGraph.vertexSet()) {
+            ids[index++] = vertex;
+        }
+        for (Integer robotId : idToRobots.keySet()) {
+            if (!arcGraph.containsVertex(robotId)) {
+                ids[index++] = robotId;
+            }
+        }
+        for (int id : ids) {
+            minId = Math.min(minId, id);
+            maxId = Math.max(maxId, id);
+        }
+        if (n == 0 || (minId >= 0 && maxId <= 4 * n + 1024)) {
+            idToIndex = new int[n == 0 ? 0 : maxId + 1];
+            Arrays.fill(idToIndex, -1);
+            for (int i = 0; i < n; i++) {
+                idToIndex[ids[i]] = i;
+            }
+            sparseIdToIndex = null;
+        } else {
+            idToIndex = null;
+            sparseIdToIndex = new HashMap<>();
+            for (int i = 0; i < n; i++) {
+                sparseIdToIndex.put(ids[i], i);
+            }
+        }
+
+        offsets = new int[n + 1];
+        for (int i = 0; i < n; i++) {
+            int degree = arcGraph.containsVertex(ids[i]) ? arcGraph.edgesOf(ids[i]).size() : 0;
+            offsets[i + 1] = offsets[i] + degree;
+        }
+        neighbors = new int[offsets[n]];
+        weights = new double[offsets[n]];
+        outgoing = new boolean[offsets[n]];
+        agents = new Agent[n];
+        for (int i = 0; i < n; i++) {
+            agents[i] = idToRobots.get(ids[i]);
+            if (!arcGraph.containsVertex(ids[i])) {
+                continue;
+            }
+            int k = offsets[i];
+            Set<DefaultWeightedEdge> defaultWeightedEdges = arcGraph.edgesOf(ids[i]);
+            for (DefaultWeightedEdge defaultWeightedEdge : defaultWeightedEdges) {
+                Integer target = arcGraph.getEdgeTarget(defaultWeightedEdge);
+                boolean isSource = target != ids[i] || arcGraph.getEdgeSource(defaultWeightedEdge) == ids[i];
+                int other = isSource ? target : arcGraph.getEdgeSource(defaultWeightedEdge);
+                neighbors[k] = indexOf(other);
+                weights[k] = arcGraph.getEdgeWeight(defaultWeightedEdge);
+                outgoing[k] = isSource;
+                k++;
+            }
+        }
+    }
+
+    public int size() {
+        return ids.length;
+    }
+
+    public int indexOf(int id) {
+        if (idToIndex != null) {
+            return id >= 0 && id < idToIndex.length ? idToIndex[id] : -1;
+        }
+        Integer index = sparseIdToIndex.get(id);
+        return index == null ? -1 : index;
+    }
+
+    public int idOf(int index) {
+        return ids[index];
+    }
+
+    public Agent agent(int index) {
+        return agents[index];
+    }
+
+    public int edgeSlots() {
+        //邻接数组的总长度，每条边在两个端点各占一个位置
+        return neighbors.length;
+    }
+
+    public int degree(int index) {
+        return offsets[index + 1] - offsets[index];
+    }
+
+    public int begin(int index) {
+        return offsets[index];
+    }
+
+    public int end(int index) {
+        return offsets[index + 1];
+    }
+
+    public int neighbor(int k) {
+        return neighbors[k];
+    }
+
+    public double weight(int k) {
+        return weights[k];
+    }
+
+    public boolean isOutgoing(int k) {
+        return outgoing[k];
+    }
+}
@@ -0,0 +1,124 @@
+package graph;
+
+import input.Agent;
+import input.Group;
+import org.jgrapht.alg.interfaces.VertexScoringAlgorithm;
+import org.jgrapht.alg.scoring.BetweennessCentrality;
+import org.jgrapht.graph.DefaultUndirectedWeightedGraph;
+import org.jgrapht.graph.DefaultWeightedEdge;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+/***
+ * 每个group在arcGraph上的导出子图（只保留组内节点和组内边）及其介数中心性的缓存
+ * leader选择、后备节点选择、leader替换共用同一份子图，每个子图只构建一次
+ * 缓存以Group对象为键（没有分到初始任务的group的groupId都是0，不能用来区分），组成员变化时自动重建
+ * 组内边发生变化时调用invalidate，整个图变化时调用invalidateAll
+ * leader之间新加的边连接的是不同的组，不影响任何组的导出子图
+ * 设置BetweennessSampling后介数中心性改为按源点抽样的近似值（SampledBetweenness），不设置时为精确值
+ */
+public class GroupSubgraphCache {
+    private final DefaultUndirectedWeightedGraph<Integer, DefaultWeightedEdge> arcGraph;
+    private final HashMap<Integer, Agent> idToRobots;
+    private final IdentityHashMap<Group, Entry> entries = new IdentityHashMap<>();
+    private long graphVersion;
+    private int builds;
+    private BetweennessSampling sampling;
+    private SplittableRandom random;
+
+    private static class Entry {
+        private long graphVersion;
+        private Set<Integer> robotIdInGroup;
+        private DefaultUndirectedWeightedGraph<Integer, DefaultWeightedEdge> subGraph;
+        private VertexScoringAlgorithm<Integer, Double> betweennessCentrality;
+    }
+
+    public GroupSubgraphCache(DefaultUndirectedWeightedGraph<Integer, DefaultWeightedEdge> arcGraph, HashMap<Integer, Agent> idToRobots) {
+        this.arcGraph = arcGraph;
+        this.idToRobots = idToRobots;
+    }
+
+    public DefaultUndirectedWeightedGraph<Integer, DefaultWeightedEdge> getSubGraph(Group group) {
+        return entry(group).subGraph;
+    }
+
+    public void setSampling(BetweennessSampling sampling) {
+        //之后计算的介数中心性使用抽样；已经计算过的组不受影响
+        this.sampling = sampling;
+        random = sampling == null ? null : new SplittableRandom(sampling.getSeed());
+    }
+
+    public VertexScoringAlgorithm<Integer, Double> getBetweenness(Group group) {
+        Entry entry = entry(group);
+        if (entry.betweennessCentrality == null) {
+            //计算子图的介数中心性，分数在第一次查询时计算并保存在对象内
+            int n = entry.subGraph.vertexSet().size();
+            if (sampling == null || (sampling.samplesFor(n) >= n && sampling.getTopK() <= 0)) {
+                entry.betweennessCentrality = new BetweennessCentrality<>(entry.subGraph);
+            } else {
+                entry.betweennessCentrality = new SampledBetweenness(entry.subGraph, sampling.samplesFor(n), sampling.getTopK(), random.split());
+            }
+        }
+        return entry.betweennessCentrality;
+    }
+
+    public void invalidate(Group group) {
+        entries.remove(group);
+    }
+
+    public void invalidateAll() {
+        graphVersion++;
+    }
+
+    public int getBuilds() {
+        return builds;
+    }
+
+    private Entry entry(Group group) {
+        Entry entry = entries.get(group);
+        Set<Integer> robotIdSet = group.getRobotIdInGroup();
+        if (entry != null && entry.graphVersion == graphVersion && entry.robotIdInGroup.equals(robotIdSet)) {
+            return entry;
+        }
+        entry = new Entry();
+        entry.graphVersion = graphVersion;
+        entry.robotIdInGroup = new HashSet<>(robotIdSet);
+        entry.subGraph = buildSubGraph(group);
+        entries.put(group, entry);
+        builds++;
+        return entry;
+    }
+
+    private DefaultUndirectedWeightedGraph<Integer, DefaultWeightedEdge> buildSubGraph(Group group) {
+        DefaultUndirectedWeightedGraph<Integer, DefaultWeightedEdge> subGraph = new DefaultUndirectedWeightedGraph<>(DefaultWeightedEdge.class);
+        Set<Integer> robotIdSet = group.getRobotIdInGroup();
+        for (Integer robotId : robotIdSet) {
+            subGraph.addVertex(robotId);
+            Set<DefaultWeightedEdge> defaultWeightedEdges = arcGraph.edgesOf(robotId);
+            for (DefaultWeightedEdge defaultWeightedEdge : defaultWeightedEdges) {
+                Integer target = subGraph.getEdgeTarget(defaultWeightedEdge);
+
+                if (target.equals(robotId)) {
+                    continue;
+                }
+
+                if (group.getGroupId()!=idToRobots.get(target).getGroupId()) {
+                    continue;
+                    //不属于这一层的节点（比如由leader节点与其他lead而节点相连节点），不要加到子图中
+                }
+                subGraph.addVertex(target);
+                //把这一层的节点加入到子图中
+                if(!subGraph.containsEdge(robotId,target)){
+                    //去掉重复的边,不包含这个边，则加入这个边
+                    DefaultWeightedEdge temp = subGraph.addEdge(robotId,target);
+                    subGraph.setEdgeWeight(temp,arcGraph.getEdgeWeight(defaultWeightedEdge));
+                }
+            }
+        }
+        return subGraph;
+    }
+}
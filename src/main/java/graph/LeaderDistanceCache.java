@@ -0,0 +1,49 @@
+package graph;
+
+import org.jgrapht.alg.interfaces.ShortestPathAlgorithm;
+import org.jgrapht.graph.DefaultWeightedEdge;
+
+import java.util.HashMap;
+
+/***
+ * 每个leader的单源最短路距离缓存，距离按CsrGraph的顶点下标存放在double[]中
+ * 一个leader只做一次单源最短路，之后上下文负载的计算只需读取数组
+ * 以leaderId为键，leader更换后自然使用新leader的距离；拓扑发生变化时调用invalidateAll
+ * 不可达的节点距离为Double.POSITIVE_INFINITY，与getPathWeight一致
+ */
+public class LeaderDistanceCache {
+    private final CsrGraph csrGraph;
+    private final ShortestPathAlgorithm<Integer, DefaultWeightedEdge> shortestPath;
+    private final HashMap<Integer, double[]> leaderIdToDistances = new HashMap<>();
+
+    public LeaderDistanceCache(CsrGraph csrGraph, ShortestPathAlgorithm<Integer, DefaultWeightedEdge> shortestPath) {
+        this.csrGraph = csrGraph;
+        this.shortestPath = shortestPath;
+    }
+
+    public double distance(int leaderId, int robotIndex) {
+        return distances(leaderId)[robotIndex];
+    }
+
+    public double[] distances(int leaderId) {
+        double[] distances = leaderIdToDistances.get(leaderId);
+        if (distances == null) {
+            distances = new double[csrGraph.size()];
+            ShortestPathAlgorithm.SingleSourcePaths<Integer, DefaultWeightedEdge> paths = shortestPath.getPaths(leaderId);
+            for (int i = 0; i < distances.length; i++) {
+                distances[i] = paths.getWeight(csrGraph.idOf(i));
+            }
+            leaderIdToDistances.put(leaderId, distances);
+        }
+        return distances;
+    }
+
+    public void invalidate(int leaderId) {
+        //leader被替换时可以释放旧leader的距离
+        leaderIdToDistances.remove(leaderId);
+    }
+
+    public void invalidateAll() {
+        leaderIdToDistances.clear();
+    }
+}
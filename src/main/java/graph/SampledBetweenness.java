@@ -0,0 +1,301 @@
+package graph;
+
+import org.jgrapht.Graph;
+import org.jgrapht.Graphs;
+import org.jgrapht.alg.interfaces.VertexScoringAlgorithm;
+import org.jgrapht.graph.DefaultWeightedEdge;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/***
+ * 按源点抽样的近似介数中心性（Brandes-Pich）：随机选出k个不重复的源点，各做一次带权的Brandes依赖累加，
+ * 结果乘以 n/k 作为全部源点的估计；与JGraphT的BetweennessCentrality一样不归一化，无向图除以2
+ * 每个源点的计算为O(E log V)，k远小于n时代替精确算法的O(V*E log V)
+ * topK>0时源点分批处理，每批之后比较估计值最大的topK个节点，连续STABLE_BATCHES批不变时提前停止
+ * 分数在第一次查询时计算
+ */
+public class SampledBetweenness implements VertexScoringAlgorithm<Integer, Double> {
+    private static final int BATCHES = 16;
+    private static final int STABLE_BATCHES = 2;
+
+    private final Graph<Integer, DefaultWeightedEdge> graph;
+    private final int maxSamples;
+    private final int topK;
+    private final SplittableRandom random;
+    private Map<Integer, Double> scores;
+    private int samples;
+
+    //按下标存放的邻接表
+    private int n;
+    private int[] ids;
+    private int[] begin;
+    private int[] adjacent;
+    private double[] weights;
+    //单源计算使用的数组，每个源点之后只重置被访问过的节点
+    private double[] dist;
+    private double[] sigma;
+    private double[] delta;
+    private int[] order;
+    private int[] heap;
+    private int[] heapPos;
+
+    public SampledBetweenness(Graph<Integer, DefaultWeightedEdge> graph, int maxSamples, int topK, SplittableRandom random) {
+        this.graph = graph;
+        this.maxSamples = maxSamples;
+        this.topK = topK;
+        this.random = random;
+    }
+
+    public static int samplesFor(int n, double errorBound, double delta) {
+        //Hoeffding界：一个源点对某个节点的依赖值除以(n-2)后在[0,1]内，
+        //k >= ln(2n/delta)/(2*errorBound^2) 时所有节点归一化介数中心性的误差以1-delta的概率不超过errorBound
+        if (n <= 0) {
+            return 0;
+        }
+        return (int) Math.min(n, Math.ceil(Math.log(2.0 * n / delta) / (2 * errorBound * errorBound)));
+    }
+
+    @Override
+    public Map<Integer, Double> getScores() {
+        if (scores == null) {
+            compute();
+        }
+        return Collections.unmodifiableMap(scores);
+    }
+
+    @Override
+    public Double getVertexScore(Integer v) {
+        if (!graph.containsVertex(v)) {
+            throw new IllegalArgumentException("Cannot return score of unknown vertex");
+        }
+        if (scores == null) {
+            compute();
+        }
+        return scores.get(v);
+    }
+
+    public int getSamples() {
+        //实际使用的源点数，topK提前停止时小于maxSamples
+        if (scores == null) {
+            compute();
+        }
+        return samples;
+    }
+
+    private void compute() {
+        index();
+        double[] total = new double[n];
+        int limit = Math.min(maxSamples, n);
+        int batch = Math.max(1, (limit + BATCHES - 1) / BATCHES);
+        int[] pivots = new int[n];
+        for (int i = 0; i < n; i++) {
+            pivots[i] = i;
+        }
+        int[] lastTop = null;
+        int stable = 0;
+        samples = 0;
+        while (samples < limit) {
+            //不放回抽样：逐个做Fisher-Yates交换
+            int j = samples + random.nextInt(n - samples);
+            int source = pivots[j];
+            pivots[j] = pivots[samples];
+            pivots[samples] = source;
+            samples++;
+            accumulate(source, total);
+            if (topK > 0 && (samples % batch == 0)) {
+                int[] top = top(total, topK);
+                stable = Arrays.equals(top, lastTop) ? stable + 1 : 0;
+                lastTop = top;
+                if (stable >= STABLE_BATCHES) {
+                    break;
+                }
+            }
+        }
+        double scale = samples == 0 ? 0.0 : (double) n / samples;
+        if (!graph.getType().isDirected()) {
+            scale /= 2;
+        }
+        scores = new HashMap<>();
+        for (int i = 0; i < n; i++) {
+            scores.put(ids[i], total[i] * scale);
+        }
+    }
+
+    private void index() {
+        n = graph.vertexSet().size();
+        ids = new int[n];
+        HashMap<Integer, Integer> idToIndex = new HashMap<>();
+        int i = 0;
+        for (Integer v : graph.vertexSet()) {
+            ids[i] = v;
+            idToIndex.put(v, i++);
+        }
+        begin = new int[n + 1];
+        int m = 0;
+        for (i = 0; i < n; i++) {
+            begin[i] = m;
+            m += graph.edgesOf(ids[i]).size();
+        }
+        begin[n] = m;
+        adjacent = new int[m];
+        weights = new double[m];
+        for (i = 0; i < n; i++) {
+            int k = begin[i];
+            for (DefaultWeightedEdge edge : graph.edgesOf(ids[i])) {
+                Integer other = Graphs.getOppositeVertex(graph, edge, ids[i]);
+                if (other.equals(ids[i])) {
+                    continue;
+                }
+                adjacent[k] = idToIndex.get(other);
+                weights[k] = graph.getEdgeWeight(edge);
+                k++;
+            }
+            //自环不参与最短路，用-1填充
+            Arrays.fill(adjacent, k, begin[i + 1], -1);
+        }
+        dist = new double[n];
+        sigma = new double[n];
+        delta = new double[n];
+        order = new int[n];
+        heap = new int[n];
+        heapPos = new int[n];
+        Arrays.fill(dist, Double.POSITIVE_INFINITY);
+        Arrays.fill(heapPos, -1);
+    }
+
+    private void accumulate(int source, double[] total) {
+        //带权的Brandes：Dijkstra求最短路条数，再按结算顺序倒序累加依赖值
+        int settled = 0;
+        dist[source] = 0.0;
+        sigma[source] = 1.0;
+        int heapSize = push(source, 0);
+        while (heapSize > 0) {
+            int v = heap[0];
+            heapSize = pop(heapSize);
+            order[settled++] = v;
+            for (int k = begin[v]; k < begin[v + 1]; k++) {
+                int u = adjacent[k];
+                if (u < 0) {
+                    continue;
+                }
+                double d = dist[v] + weights[k];
+                if (d < dist[u]) {
+                    boolean queued = heapPos[u] >= 0;
+                    dist[u] = d;
+                    sigma[u] = sigma[v];
+                    if (queued) {
+                        siftUp(heapPos[u]);
+                    } else {
+                        heapSize = push(u, heapSize);
+                    }
+                } else if (d == dist[u]) {
+                    sigma[u] += sigma[v];
+                }
+            }
+        }
+        for (int i = settled - 1; i >= 0; i--) {
+            int w = order[i];
+            for (int k = begin[w]; k < begin[w + 1]; k++) {
+                int v = adjacent[k];
+                if (v >= 0 && dist[v] + weights[k] == dist[w]) {
+                    delta[v] += sigma[v] / sigma[w] * (1 + delta[w]);
+                }
+            }
+            if (w != source) {
+                total[w] += delta[w];
+            }
+        }
+        for (int i = 0; i < settled; i++) {
+            int v = order[i];
+            dist[v] = Double.POSITIVE_INFINITY;
+            sigma[v] = 0.0;
+            delta[v] = 0.0;
+            heapPos[v] = -1;
+        }
+    }
+
+    private static int[] top(double[] total, int k) {
+        //估计值最大的k个节点的下标，按下标排序后比较
+        int size = Math.min(k, total.length);
+        int[] top = new int[size];
+        int count = 0;
+        for (int i = 0; i < total.length; i++) {
+            if (count < size) {
+                top[count++] = i;
+            } else {
+                int min = 0;
+                for (int j = 1; j < size; j++) {
+                    if (total[top[j]] < total[top[min]]) {
+                        min = j;
+                    }
+                }
+                if (total[i] > total[top[min]]) {
+                    top[min] = i;
+                }
+            }
+        }
+        Arrays.sort(top);
+        return top;
+    }
+
+    private int push(int v, int heapSize) {
+        heap[heapSize] = v;
+        heapPos[v] = heapSize;
+        siftUp(heapSize);
+        return heapSize + 1;
+    }
+
+    private int pop(int heapSize) {
+        //出堆的节点heapPos设为MIN_VALUE，边权为正，之后不会再次入堆
+        int last = heap[--heapSize];
+        heapPos[heap[0]] = Integer.MIN_VALUE;
+        if (heapSize > 0) {
+            heap[0] = last;
+            heapPos[last] = 0;
+            siftDown(0, heapSize);
+        }
+        return heapSize;
+    }
+
+    private void siftUp(int i) {
+        int v = heap[i];
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            int p = heap[parent];
+            if (dist[p] <= dist[v]) {
+                break;
+            }
+            heap[i] = p;
+            heapPos[p] = i;
+            i = parent;
+        }
+        heap[i] = v;
+        heapPos[v] = i;
+    }
+
+    private void siftDown(int i, int heapSize) {
+        int v = heap[i];
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= heapSize) {
+                break;
+            }
+            if (child + 1 < heapSize && dist[heap[child + 1]] < dist[heap[child]]) {
+                child++;
+            }
+            int c = heap[child];
+            if (dist[v] <= dist[c]) {
+                break;
+            }
+            heap[i] = c;
+            heapPos[c] = i;
+            i = child;
+        }
+        heap[i] = v;
+        heapPos[v] = i;
+    }
+}
@@ -1,11 +1,15 @@
 package input;
 
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 
 import java.util.List;
 
 @Data
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
 public class Agent {
+    //只按编号比较和哈希，负载和任务列表变化不影响在HashSet/HashMap中的查找
+    @EqualsAndHashCode.Include
     private int robotId;
     private double capacity;
     private double  load;
@@ -15,4 +19,18 @@ public class Agent {
     //faultA为功能故障
     private double faultO;
     //faultA为过载故障
+
+    public int stateHash() {
+        //按全部字段计算的哈希（即原来@Data生成的hashCode），负载、任务列表或故障状态变化后就会改变
+        final int PRIME = 59;
+        int result = 1;
+        result = result * PRIME + robotId;
+        result = result * PRIME + Double.hashCode(capacity);
+        result = result * PRIME + Double.hashCode(load);
+        result = result * PRIME + groupId;
+        result = result * PRIME + Double.hashCode(faultA);
+        result = result * PRIME + Double.hashCode(faultO);
+        result = result * PRIME + (tasksList == null ? 43 : tasksList.hashCode());
+        return result;
+    }
 }
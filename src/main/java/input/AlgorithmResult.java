@@ -0,0 +1,13 @@
+package input;
+
+import lombok.Data;
+
+/***
+ * 一个算法在一份场景副本上的运行结果及耗时
+ */
+@Data
+public class AlgorithmResult {
+    private String algorithm;
+    private ExperimentResult experimentResult;
+    private long elapsedMillis;
+}
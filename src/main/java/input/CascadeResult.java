@@ -0,0 +1,44 @@
+package input;
+
+import lombok.Data;
+
+/***
+ * 一次级联故障模拟的结果：过载故障的数量和传播深度、迁移波次、控制住级联所用的模拟时间以及事件处理速度
+ */
+@Data
+public class CascadeResult {
+    private String algorithm;
+    private int robots;
+    private int initialFaults;
+    private int overloadFaults;
+    //初始故障为第0层，由第k层故障之后的迁移引发的过载故障为第k+1层
+    private int cascadeDepth;
+    private int waves;
+    private int migrations;
+    //最后一个迁移波次的模拟时间，此后不再出现新的故障
+    private double containmentTime;
+    private long events;
+    //包括初始的run；eventNanos只包括事件循环
+    private long elapsedNanos;
+    private long eventNanos;
+    private int survivingRobots;
+    //迁移波次中onFault的总耗时；一个波次的单次故障延迟为它的耗时除以这个波次的故障数，max为其中最大的一个
+    private long faultNanos;
+    private long maxFaultLatencyNanos;
+    //设置了恢复延迟时恢复的组件数
+    private int recoveries;
+
+    public double getEventsPerSecond() {
+        if (eventNanos <= 0) {
+            return 0.0;
+        }
+        return events * 1e9 / eventNanos;
+    }
+
+    public double getMeanFaultLatencyNanos() {
+        if (overloadFaults == 0) {
+            return 0.0;
+        }
+        return (double) faultNanos / overloadFaults;
+    }
+}
@@ -0,0 +1,70 @@
+package input;
+
+import java.io.IOException;
+
+/***
+ * 一组实验数据：图/机器人/任务三个文件，或者一个.snap快照文件（robotFile、tasksFile为null），
+ * 或者由ScenarioGenerator生成的合成场景（三个文件都为null）
+ */
+public class Dataset {
+    private final String name;
+    private final String graphFile;
+    private final String robotFile;
+    private final String tasksFile;
+    private final ScenarioGenerator generator;
+
+    public Dataset(String name, String graphFile, String robotFile, String tasksFile) {
+        this.name = name;
+        this.graphFile = graphFile;
+        this.robotFile = robotFile;
+        this.tasksFile = tasksFile;
+        this.generator = null;
+    }
+
+    public Dataset(ScenarioGenerator generator) {
+        this.name = generator.describe();
+        this.graphFile = null;
+        this.robotFile = null;
+        this.tasksFile = null;
+        this.generator = generator;
+    }
+
+    public Dataset(String graphFile, String robotFile, String tasksFile) {
+        this(graphFile + "|" + robotFile + "|" + tasksFile, graphFile, robotFile, tasksFile);
+    }
+
+    public Dataset(String snapshotFile) {
+        this(snapshotFile, snapshotFile, null, null);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getGraphFile() {
+        return graphFile;
+    }
+
+    public String getRobotFile() {
+        return robotFile;
+    }
+
+    public String getTasksFile() {
+        return tasksFile;
+    }
+
+    public Scenario load(ScenarioLoader scenarioLoader) throws IOException {
+        if (generator != null) {
+            return generator.generate();
+        }
+        if (robotFile == null) {
+            return scenarioLoader.load(graphFile);
+        }
+        return scenarioLoader.load(graphFile, robotFile, tasksFile);
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
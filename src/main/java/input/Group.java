@@ -15,4 +15,15 @@ public class Group {
     private double groupCapacity;
     private List<Agent> adLeaders;
     private double interactionLevel ;
+
+    //没有分到初始任务的group的groupId都是0，按对象本身比较和哈希，不遍历成员、leader和任务
+    @Override
+    public boolean equals(Object o) {
+        return this == o;
+    }
+
+    @Override
+    public int hashCode() {
+        return System.identityHashCode(this);
+    }
 }
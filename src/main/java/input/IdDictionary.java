@@ -0,0 +1,41 @@
+package input;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+/***
+ * 字符串编号（如P313）与稠密整数编号之间的双向字典
+ * 整数编号按首次出现的顺序从0开始分配
+ */
+public class IdDictionary {
+    private final HashMap<String, Integer> nameToId = new HashMap<>();
+    private final List<String> idToName = new ArrayList<>();
+
+    public int intern(String name) {
+        Integer id = nameToId.get(name);
+        if (id == null) {
+            id = idToName.size();
+            nameToId.put(name, id);
+            idToName.add(name);
+        }
+        return id;
+    }
+
+    public int idOf(String name) {
+        Integer id = nameToId.get(name);
+        return id == null ? -1 : id;
+    }
+
+    public String nameOf(int id) {
+        return idToName.get(id);
+    }
+
+    public boolean contains(String name) {
+        return nameToId.containsKey(name);
+    }
+
+    public int size() {
+        return idToName.size();
+    }
+}
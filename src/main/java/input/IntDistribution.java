@@ -0,0 +1,90 @@
+package input;
+
+import java.util.SplittableRandom;
+
+/***
+ * 生成场景用的正整数分布，由字符串描述：
+ *   const:v              固定值
+ *   uniform:min:max      [min,max]内均匀分布
+ *   normal:mean:sd       正态分布，四舍五入
+ *   pareto:alpha:min     帕累托分布（重尾），向下取整
+ * 结果至少为1，文本格式的数据文件只能保存整数
+ */
+public class IntDistribution {
+    private static final double MAX_VALUE = 1e9;
+
+    private final String spec;
+    private final String kind;
+    private final double p1;
+    private final double p2;
+
+    private IntDistribution(String spec, String kind, double p1, double p2) {
+        this.spec = spec;
+        this.kind = kind;
+        this.p1 = p1;
+        this.p2 = p2;
+    }
+
+    public static IntDistribution parse(String spec) {
+        String[] parts = spec.trim().split(":");
+        try {
+            switch (parts[0]) {
+                case "const":
+                    check(parts, 2, spec);
+                    return new IntDistribution(spec, parts[0], Double.parseDouble(parts[1]), 0);
+                case "uniform":
+                case "normal":
+                case "pareto":
+                    check(parts, 3, spec);
+                    IntDistribution distribution = new IntDistribution(spec, parts[0], Double.parseDouble(parts[1]), Double.parseDouble(parts[2]));
+                    if ((parts[0].equals("uniform") && distribution.p2 < distribution.p1)
+                            || (parts[0].equals("pareto") && (distribution.p1 <= 0 || distribution.p2 <= 0))) {
+                        throw new IllegalArgumentException("分布参数不合法：" + spec);
+                    }
+                    return distribution;
+                default:
+                    throw new IllegalArgumentException("未知分布：" + spec + "，可选：const、uniform、normal、pareto");
+            }
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("分布参数不合法：" + spec, e);
+        }
+    }
+
+    private static void check(String[] parts, int length, String spec) {
+        if (parts.length != length) {
+            throw new IllegalArgumentException("分布参数个数不对：" + spec);
+        }
+    }
+
+    public int sample(SplittableRandom random) {
+        double value;
+        switch (kind) {
+            case "const":
+                value = p1;
+                break;
+            case "uniform":
+                value = (long) p1 + random.nextLong((long) p2 - (long) p1 + 1);
+                break;
+            case "normal":
+                value = Math.rint(p1 + p2 * gaussian(random));
+                break;
+            default:
+                //逆变换采样，1-nextDouble()在(0,1]内
+                value = Math.floor(p2 / Math.pow(1 - random.nextDouble(), 1 / p1));
+                break;
+        }
+        return (int) Math.max(1, Math.min(value, MAX_VALUE));
+    }
+
+    private static double gaussian(SplittableRandom random) {
+        //Box-Muller
+        double u = 1 - random.nextDouble();
+        double v = random.nextDouble();
+        return Math.sqrt(-2 * Math.log(u)) * Math.cos(2 * Math.PI * v);
+    }
+
+    @Override
+    public String toString() {
+        return spec;
+    }
+}
@@ -0,0 +1,19 @@
+package input;
+
+import lombok.Data;
+
+@Data
+public class LoadStats {
+    private int vertices;
+    private int edges;
+    private long bytes;
+    private long elapsedNanos;
+    private long peakHeapBytes;
+
+    public double getEdgesPerSecond() {
+        if (elapsedNanos <= 0) {
+            return 0.0;
+        }
+        return edges * 1e9 / elapsedNanos;
+    }
+}
@@ -0,0 +1,200 @@
+package input;
+
+import org.jgrapht.graph.DefaultUndirectedWeightedGraph;
+import org.jgrapht.graph.DefaultWeightedEdge;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.Arrays;
+import java.util.HashMap;
+
+/***
+ * 大规模拓扑文件的图加载器，得到的图与Reader.readFileToGraph一致
+ * 先把边流式解析进基本类型数组，按首次出现的顺序给点编号并一次性建好CSR邻接表，再按文件顺序一次性建立JGraphT的图
+ * 与Reader一样只接受整数权重（否则抛出NumberFormatException），重复的边（包括反向重复）抛出IOException
+ */
+public class MappedGraphReader {
+    private LoadStats lastStats;
+
+    public DefaultUndirectedWeightedGraph<Integer, DefaultWeightedEdge> readFileToGraph(String graphFile) throws IOException {
+        resetPeakHeap();
+        long startTime = System.nanoTime();
+        LoadStats stats = new LoadStats();
+
+        int[] sources = new int[1024];
+        int[] targets = new int[1024];
+        int[] weights = new int[1024];
+        int[] lines = new int[1024];
+        int count = 0;
+        try (MappedTokenizer tokenizer = new MappedTokenizer(graphFile)) {
+            stats.setBytes(tokenizer.size());
+            while (tokenizer.nextLine()) {
+                if (count == sources.length) {
+                    int capacity = count * 2;
+                    sources = Arrays.copyOf(sources, capacity);
+                    targets = Arrays.copyOf(targets, capacity);
+                    weights = Arrays.copyOf(weights, capacity);
+                    lines = Arrays.copyOf(lines, capacity);
+                }
+                //每一行为 a b c，表示a与b之间有一条权重为c的边
+                requireToken(tokenizer, graphFile);
+                sources[count] = tokenizer.intToken();
+                requireToken(tokenizer, graphFile);
+                targets[count] = tokenizer.intToken();
+                requireToken(tokenizer, graphFile);
+                weights[count] = tokenizer.intToken();
+                lines[count] = tokenizer.lineNumber();
+                count++;
+            }
+        }
+
+        //1.按首次出现的顺序给点编号，sources/targets换成稠密编号
+        Integer[] vertices = new Integer[16];
+        int vertexCount = 0;
+        DenseIds denseIds = new DenseIds(sources, targets, count);
+        for (int i = 0; i < count; i++) {
+            for (int end = 0; end < 2; end++) {
+                int[] endpoints = end == 0 ? sources : targets;
+                int dense = denseIds.get(endpoints[i]);
+                if (dense < 0) {
+                    dense = vertexCount++;
+                    denseIds.put(endpoints[i], dense);
+                    if (dense == vertices.length) {
+                        vertices = Arrays.copyOf(vertices, dense * 2);
+                    }
+                    vertices[dense] = endpoints[i];
+                }
+                endpoints[i] = dense;
+            }
+        }
+        //2.一次性建CSR邻接表，检查重复的边
+        checkDuplicates(graphFile, sources, targets, lines, count, vertexCount);
+        //3.建立JGraphT的图：按首次出现的顺序加点，按文件顺序加边
+        DefaultUndirectedWeightedGraph<Integer, DefaultWeightedEdge> arcGraph =
+                new DefaultUndirectedWeightedGraph<>(DefaultWeightedEdge.class);
+        for (int v = 0; v < vertexCount; v++) {
+            arcGraph.addVertex(vertices[v]);
+        }
+        for (int i = 0; i < count; i++) {
+            DefaultWeightedEdge defaultWeightedEdge = arcGraph.addEdge(vertices[sources[i]], vertices[targets[i]]);
+            arcGraph.setEdgeWeight(defaultWeightedEdge, weights[i]);
+        }
+
+        stats.setVertices(vertexCount);
+        stats.setEdges(count);
+        stats.setElapsedNanos(System.nanoTime() - startTime);
+        stats.setPeakHeapBytes(peakHeap());
+        lastStats = stats;
+        return arcGraph;
+    }
+
+    public LoadStats getLastStats() {
+        return lastStats;
+    }
+
+    private static void checkDuplicates(String graphFile, int[] sources, int[] targets, int[] lines, int count,
+                                        int vertexCount) throws IOException {
+        //CSR：每个点的邻接边按文件顺序排列，自环只记一次
+        int[] offsets = new int[vertexCount + 1];
+        for (int i = 0; i < count; i++) {
+            offsets[sources[i] + 1]++;
+            if (targets[i] != sources[i]) {
+                offsets[targets[i] + 1]++;
+            }
+        }
+        for (int v = 0; v < vertexCount; v++) {
+            offsets[v + 1] += offsets[v];
+        }
+        int[] edges = new int[offsets[vertexCount]];
+        int[] fill = Arrays.copyOf(offsets, vertexCount);
+        for (int i = 0; i < count; i++) {
+            edges[fill[sources[i]]++] = i;
+            if (targets[i] != sources[i]) {
+                edges[fill[targets[i]]++] = i;
+            }
+        }
+        //Reader对重复的边会在setEdgeWeight时失败，这里改为报告两次出现的行号
+        int[] seenAt = new int[vertexCount];
+        Arrays.fill(seenAt, -1);
+        for (int v = 0; v < vertexCount; v++) {
+            for (int k = offsets[v]; k < offsets[v + 1]; k++) {
+                int i = edges[k];
+                int other = sources[i] == v ? targets[i] : sources[i];
+                if (seenAt[other] >= 0 && offsets[v] <= seenAt[other]) {
+                    throw new IOException(graphFile + ": line " + lines[i] + " repeats the edge of line "
+                            + lines[edges[seenAt[other]]]);
+                }
+                seenAt[other] = k;
+            }
+        }
+    }
+
+    private static class DenseIds {
+        //编号不太稀疏时用数组，其余（负数或很大的编号）用HashMap
+        private final int[] dense;
+        private final HashMap<Integer, Integer> sparse = new HashMap<>();
+
+        private DenseIds(int[] sources, int[] targets, int count) {
+            long maxId = -1;
+            for (int i = 0; i < count; i++) {
+                maxId = Math.max(maxId, Math.max(sources[i], targets[i]));
+            }
+            dense = new int[(int) Math.min(maxId + 1, 4L * count + 1024)];
+            Arrays.fill(dense, -1);
+        }
+
+        private int get(int id) {
+            if (id >= 0 && id < dense.length) {
+                return dense[id];
+            }
+            Integer index = sparse.get(id);
+            return index == null ? -1 : index;
+        }
+
+        private void put(int id, int index) {
+            if (id >= 0 && id < dense.length) {
+                dense[id] = index;
+            } else {
+                sparse.put(id, index);
+            }
+        }
+    }
+
+    private void requireToken(MappedTokenizer tokenizer, String graphFile) throws IOException {
+        if (!tokenizer.nextToken()) {
+            throw new IOException(graphFile + ": line " + tokenizer.lineNumber() + " should be \"source target weight\"");
+        }
+    }
+
+    static void resetPeakHeap() {
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                pool.resetPeakUsage();
+            }
+        }
+    }
+
+    static long peakHeap() {
+        long peak = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                peak += pool.getPeakUsage().getUsed();
+            }
+        }
+        return peak;
+    }
+
+    public static void main(String[] args) throws IOException {
+        String graphFile = args.length > 0 ? args[0] : "Graph.txt";
+        MappedGraphReader reader = new MappedGraphReader();
+        reader.readFileToGraph(graphFile);
+        LoadStats stats = reader.getLastStats();
+        System.out.println("顶点数：" + stats.getVertices());
+        System.out.println("边数：" + stats.getEdges());
+        System.out.println("加载时间：" + stats.getElapsedNanos() / 1000000 + "ms");
+        System.out.println("边/秒：" + (long) stats.getEdgesPerSecond());
+        System.out.println("峰值堆内存：" + stats.getPeakHeapBytes() / (1024 * 1024) + "MB");
+    }
+}
@@ -0,0 +1,179 @@
+package input;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/***
+ * 通过内存映射按行、按空白切分文本文件，不经过String.split
+ * 文件按不超过REGION_SIZE的区域映射，每个区域都截断在换行符上，保证一个记号不会跨区域
+ */
+class MappedTokenizer implements Closeable {
+    private static final long REGION_SIZE = 1L << 28;
+
+    private final FileChannel channel;
+    private final long fileSize;
+    private MappedByteBuffer buffer;
+    private long regionStart;
+    private int limit;
+    private int pos;
+    private int lineEnd;
+    private int cursor;
+    private int lineNumber;
+    private int tokenStart;
+    private int tokenEnd;
+    private byte[] scratch = new byte[64];
+
+    MappedTokenizer(String file) throws IOException {
+        channel = FileChannel.open(Paths.get(file), StandardOpenOption.READ);
+        fileSize = channel.size();
+    }
+
+    long size() {
+        return fileSize;
+    }
+
+    int lineNumber() {
+        return lineNumber;
+    }
+
+    boolean nextLine() throws IOException {
+        while (true) {
+            if (pos >= limit && !mapNextRegion()) {
+                return false;
+            }
+            int end = pos;
+            while (end < limit && buffer.get(end) != '\n') {
+                end++;
+            }
+            lineNumber++;
+            int start = pos;
+            pos = end + 1;
+            lineEnd = end;
+            while (start < end && isSpace(buffer.get(start))) {
+                start++;
+            }
+            if (start < end) {
+                //跳过空行
+                cursor = start;
+                return true;
+            }
+        }
+    }
+
+    boolean nextToken() {
+        while (cursor < lineEnd && isSpace(buffer.get(cursor))) {
+            cursor++;
+        }
+        if (cursor >= lineEnd) {
+            return false;
+        }
+        tokenStart = cursor;
+        while (cursor < lineEnd && !isSpace(buffer.get(cursor))) {
+            cursor++;
+        }
+        tokenEnd = cursor;
+        return true;
+    }
+
+    int intToken() {
+        long value = parseLong();
+        if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+            throw new NumberFormatException("For input string: \"" + stringToken() + "\"");
+        }
+        return (int) value;
+    }
+
+    double doubleToken() {
+        if (isIntegral()) {
+            //整数记号直接按整数解析，和Reader中Integer.parseInt后再转double的结果一致
+            return parseLong();
+        }
+        return Double.parseDouble(stringToken());
+    }
+
+    String stringToken() {
+        int length = tokenEnd - tokenStart;
+        if (scratch.length < length) {
+            scratch = new byte[Math.max(length, scratch.length * 2)];
+        }
+        for (int i = 0; i < length; i++) {
+            scratch[i] = buffer.get(tokenStart + i);
+        }
+        return new String(scratch, 0, length, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private boolean mapNextRegion() throws IOException {
+        long next = regionStart + limit;
+        if (next >= fileSize) {
+            return false;
+        }
+        long length = Math.min(REGION_SIZE, fileSize - next);
+        buffer = channel.map(FileChannel.MapMode.READ_ONLY, next, length);
+        int regionLimit = (int) length;
+        if (next + length < fileSize) {
+            //区域截断在最后一个换行符之后
+            regionLimit = -1;
+            for (int i = (int) length - 1; i >= 0; i--) {
+                if (buffer.get(i) == '\n') {
+                    regionLimit = i + 1;
+                    break;
+                }
+            }
+            if (regionLimit < 0) {
+                throw new IOException("line longer than " + REGION_SIZE + " bytes at offset " + next);
+            }
+        }
+        regionStart = next;
+        limit = regionLimit;
+        pos = 0;
+        return true;
+    }
+
+    private boolean isIntegral() {
+        int i = tokenStart;
+        byte first = buffer.get(i);
+        if ((first == '-' || first == '+') && tokenEnd - tokenStart > 1) {
+            i++;
+        }
+        for (; i < tokenEnd; i++) {
+            byte c = buffer.get(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+        }
+        return tokenEnd - tokenStart <= 18;
+    }
+
+    private long parseLong() {
+        int i = tokenStart;
+        boolean negative = false;
+        byte first = buffer.get(i);
+        if ((first == '-' || first == '+') && tokenEnd - tokenStart > 1) {
+            negative = first == '-';
+            i++;
+        }
+        long value = 0;
+        for (; i < tokenEnd; i++) {
+            byte c = buffer.get(i);
+            if (c < '0' || c > '9' || value > (Long.MAX_VALUE - 9) / 10) {
+                throw new NumberFormatException("For input string: \"" + stringToken() + "\"");
+            }
+            value = value * 10 + (c - '0');
+        }
+        return negative ? -value : value;
+    }
+
+    private static boolean isSpace(byte c) {
+        return c == ' ' || c == '\t' || c == '\r';
+    }
+}
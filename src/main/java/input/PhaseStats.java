@@ -0,0 +1,21 @@
+package input;
+
+import lombok.Data;
+
+/***
+ * 运行过程中一个阶段的累计耗时、分配的内存和峰值堆内存
+ */
+@Data
+public class PhaseStats {
+    private String phase;
+    private long elapsedNanos;
+    private long allocatedBytes;
+    private long peakHeapBytes;
+
+    public double getAllocationBytesPerSecond() {
+        if (elapsedNanos <= 0) {
+            return 0.0;
+        }
+        return allocatedBytes * 1e9 / elapsedNanos;
+    }
+}
@@ -0,0 +1,160 @@
+package input;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+
+/***
+ * 用两个并行的double[]保存一组节点（或组）的势场，代替HashMap<Integer, PotentialField>
+ * 下标顺序就是构造时传入编号的遍历顺序，按下标遍历与原来遍历HashMap的keySet顺序一致
+ * total(id)直接在数组上求和，读写都不分配对象
+ * 引力势场可以带一个统一的偏移量：读取时加在每个节点的引力势场上，写入的是不含偏移量的值，不设置时为0
+ */
+public class PotentialFieldStore {
+    private final int[] ids;
+    private final int[] idToIndex;
+    private final HashMap<Integer, Integer> sparseIdToIndex;
+    private final double[] pegra;
+    private final double[] perep;
+    private double pegraOffset;
+
+    public PotentialFieldStore(Collection<Integer> idCollection) {
+        int n = idCollection.size();
+        ids = new int[n];
+        int index = 0;
+        int minId = Integer.MAX_VALUE;
+        int maxId = Integer.MIN_VALUE;
+        for (Integer id : idCollection) {
+            ids[index++] = id;
+            minId = Math.min(minId, id);
+            maxId = Math.max(maxId, id);
+        }
+        if (n == 0 || (minId >= 0 && maxId <= 4 * n + 1024)) {
+            idToIndex = new int[n == 0 ? 0 : maxId + 1];
+            Arrays.fill(idToIndex, -1);
+            for (int i = 0; i < n; i++) {
+                idToIndex[ids[i]] = i;
+            }
+            sparseIdToIndex = null;
+        } else {
+            idToIndex = null;
+            sparseIdToIndex = new HashMap<>();
+            for (int i = 0; i < n; i++) {
+                sparseIdToIndex.put(ids[i], i);
+            }
+        }
+        pegra = new double[n];
+        perep = new double[n];
+    }
+
+    private PotentialFieldStore(PotentialFieldStore other) {
+        ids = other.ids;
+        idToIndex = other.idToIndex;
+        sparseIdToIndex = other.sparseIdToIndex;
+        pegra = other.pegra.clone();
+        perep = other.perep.clone();
+        pegraOffset = other.pegraOffset;
+    }
+
+    public static PotentialFieldStore fromMap(HashMap<Integer, PotentialField> idToPfield) {
+        PotentialFieldStore store = new PotentialFieldStore(idToPfield.keySet());
+        for (int i = 0; i < store.size(); i++) {
+            PotentialField p = idToPfield.get(store.ids[i]);
+            store.pegra[i] = p.getPegra();
+            store.perep[i] = p.getPerep();
+        }
+        return store;
+    }
+
+    public HashMap<Integer, PotentialField> toMap() {
+        HashMap<Integer, PotentialField> idToPfield = new HashMap<>();
+        for (int i = 0; i < ids.length; i++) {
+            idToPfield.put(ids[i], get(ids[i]));
+        }
+        return idToPfield;
+    }
+
+    public PotentialFieldStore copy() {
+        return new PotentialFieldStore(this);
+    }
+
+    public int size() {
+        return ids.length;
+    }
+
+    public int idOf(int index) {
+        return ids[index];
+    }
+
+    public int indexOf(int id) {
+        if (idToIndex != null) {
+            return id >= 0 && id < idToIndex.length ? idToIndex[id] : -1;
+        }
+        Integer index = sparseIdToIndex.get(id);
+        return index == null ? -1 : index;
+    }
+
+    public boolean contains(int id) {
+        return indexOf(id) >= 0;
+    }
+
+    public PotentialField get(int id) {
+        int index = indexOf(id);
+        if (index < 0) {
+            return null;
+        }
+        PotentialField p = new PotentialField();
+        p.setPegra(pegra[index] + pegraOffset);
+        p.setPerep(perep[index]);
+        return p;
+    }
+
+    public double getPegra(int id) {
+        return pegra[indexOf(id)] + pegraOffset;
+    }
+
+    public double getPerep(int id) {
+        return perep[indexOf(id)];
+    }
+
+    public double total(int id) {
+        int index = indexOf(id);
+        return pegra[index] + pegraOffset + perep[index];
+    }
+
+    public void setPegra(int id, double value) {
+        pegra[indexOf(id)] = value;
+    }
+
+    public void setPerep(int id, double value) {
+        perep[indexOf(id)] = value;
+    }
+
+    public double pegraAt(int index) {
+        return pegra[index] + pegraOffset;
+    }
+
+    public double perepAt(int index) {
+        return perep[index];
+    }
+
+    public double totalAt(int index) {
+        return pegra[index] + pegraOffset + perep[index];
+    }
+
+    public double getPegraOffset() {
+        return pegraOffset;
+    }
+
+    public void setPegraOffset(double pegraOffset) {
+        this.pegraOffset = pegraOffset;
+    }
+
+    public void setPegraAt(int index, double value) {
+        pegra[index] = value;
+    }
+
+    public void setPerepAt(int index, double value) {
+        perep[index] = value;
+    }
+}
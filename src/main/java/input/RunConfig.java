@@ -0,0 +1,27 @@
+package input;
+
+import lombok.Data;
+
+/***
+ * 一次实验的参数：目标函数的权重a（b=1-a）、功能故障比例faultP和随机数种子seed（为null时不固定）
+ */
+@Data
+public class RunConfig {
+    private Double a;
+    private Double faultP;
+    private Long seed;
+
+    public RunConfig(Double a, Double faultP) {
+        this(a, faultP, null);
+    }
+
+    public RunConfig(Double a, Double faultP, Long seed) {
+        this.a = a;
+        this.faultP = faultP;
+        this.seed = seed;
+    }
+
+    public Double getB() {
+        return 1-a;
+    }
+}
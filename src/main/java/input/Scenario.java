@@ -0,0 +1,102 @@
+package input;
+
+import lombok.Data;
+import org.jgrapht.graph.DefaultUndirectedWeightedGraph;
+import org.jgrapht.graph.DefaultWeightedEdge;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+
+/***
+ * 一次实验的输入：拓扑图、机器人、待分配任务
+ * idToGroups不为空时表示已经执行过Initialize，机器人上已有任务和故障信息
+ * idDictionary不为空时表示节点编号由字符串编号映射而来
+ * copy得到互不影响的副本：算法会修改任务列表、机器人状态，并在图上加入leader之间的边
+ */
+@Data
+public class Scenario {
+    private DefaultUndirectedWeightedGraph<Integer, DefaultWeightedEdge> arcGraph;
+    private List<Agent> robots;
+    private List<Task> tasks;
+    private HashMap<Integer, Group> idToGroups;
+    private IdDictionary idDictionary;
+
+    public boolean isInitialized() {
+        return idToGroups != null;
+    }
+
+    public Scenario copy() {
+        //图、机器人、组都复制一份；任务在算法中只会在列表之间移动，不会被修改，任务对象共用
+        Scenario copy = new Scenario();
+        copy.setArcGraph(copyGraph(arcGraph));
+        HashMap<Integer, Agent> idToCopies = new HashMap<>();
+        if (robots != null) {
+            List<Agent> robotCopies = new ArrayList<>(robots.size());
+            for (Agent robot : robots) {
+                Agent robotCopy = copyAgent(robot);
+                robotCopies.add(robotCopy);
+                idToCopies.put(robotCopy.getRobotId(), robotCopy);
+            }
+            copy.setRobots(robotCopies);
+        }
+        copy.setTasks(tasks == null ? null : new ArrayList<>(tasks));
+        if (idToGroups != null) {
+            HashMap<Integer, Group> groupCopies = new HashMap<>();
+            for (Integer groupId : idToGroups.keySet()) {
+                groupCopies.put(groupId, copyGroup(idToGroups.get(groupId), idToCopies));
+            }
+            copy.setIdToGroups(groupCopies);
+        }
+        copy.setIdDictionary(idDictionary);
+        return copy;
+    }
+
+    private static DefaultUndirectedWeightedGraph<Integer, DefaultWeightedEdge> copyGraph(DefaultUndirectedWeightedGraph<Integer, DefaultWeightedEdge> graph) {
+        if (graph == null) {
+            return null;
+        }
+        //按原来的顺序加入顶点和边，每个顶点的边的遍历顺序与原图一致；边对象不共用，边权保存在边对象上
+        DefaultUndirectedWeightedGraph<Integer, DefaultWeightedEdge> copy = new DefaultUndirectedWeightedGraph<>(DefaultWeightedEdge.class);
+        for (Integer vertex : graph.vertexSet()) {
+            copy.addVertex(vertex);
+        }
+        for (DefaultWeightedEdge edge : graph.edgeSet()) {
+            DefaultWeightedEdge edgeCopy = copy.addEdge(graph.getEdgeSource(edge), graph.getEdgeTarget(edge));
+            copy.setEdgeWeight(edgeCopy, graph.getEdgeWeight(edge));
+        }
+        return copy;
+    }
+
+    private static Agent copyAgent(Agent robot) {
+        Agent copy = new Agent();
+        copy.setRobotId(robot.getRobotId());
+        copy.setCapacity(robot.getCapacity());
+        copy.setLoad(robot.getLoad());
+        copy.setTasksList(robot.getTasksList() == null ? null : new ArrayList<>(robot.getTasksList()));
+        copy.setGroupId(robot.getGroupId());
+        copy.setFaultA(robot.getFaultA());
+        copy.setFaultO(robot.getFaultO());
+        return copy;
+    }
+
+    private static Group copyGroup(Group group, HashMap<Integer, Agent> idToCopies) {
+        Group copy = new Group();
+        copy.setGroupId(group.getGroupId());
+        copy.setGroupLoad(group.getGroupLoad());
+        copy.setLeader(group.getLeader() == null ? null : idToCopies.get(group.getLeader().getRobotId()));
+        copy.setRobotIdInGroup(group.getRobotIdInGroup() == null ? null : new HashSet<>(group.getRobotIdInGroup()));
+        copy.setAssignedTasks(group.getAssignedTasks() == null ? null : new ArrayList<>(group.getAssignedTasks()));
+        copy.setGroupCapacity(group.getGroupCapacity());
+        if (group.getAdLeaders() != null) {
+            List<Agent> adLeaders = new ArrayList<>();
+            for (Agent adLeader : group.getAdLeaders()) {
+                adLeaders.add(idToCopies.get(adLeader.getRobotId()));
+            }
+            copy.setAdLeaders(adLeaders);
+        }
+        copy.setInteractionLevel(group.getInteractionLevel());
+        return copy;
+    }
+}
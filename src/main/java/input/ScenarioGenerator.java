@@ -0,0 +1,458 @@
+package input;
+
+import org.jgrapht.graph.DefaultUndirectedWeightedGraph;
+import org.jgrapht.graph.DefaultWeightedEdge;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/***
+ * 分层网络的合成场景：机器人按编号连续地分成groupCount个组，组内和组间各自按生长模型连边
+ *   random:k     每个新节点（组）与之前的k个节点（组）均匀随机相连
+ *   scalefree:m  每个新节点（组）按度数成比例地选择之前的m个节点（组）相连（Barabási–Albert，度分布为幂律）
+ * 两种模型都保证组内连通、组之间连通；组间边的两个端点在各自组内均匀选取
+ * 机器人能力、任务大小、边权由IntDistribution描述；前initialFraction比例的任务到达时间为-1（初始任务），
+ * 其余按arrival描述的模式到达：uniform:T（[0,T)内均匀）、poisson:rate（泊松过程）、burst:period:count（每period个时刻到达count个）
+ * 同一个种子得到完全相同的场景；机器人、边、任务各用一个split出来的随机数，可以分别重新生成
+ * 写文本文件和快照时逐条生成、逐条写出，只保存当前组的数据，机器人数不受内存限制（10^7量级）；
+ * generate()在内存中构造Scenario，适合JGraphT能容纳的规模
+ */
+public class ScenarioGenerator {
+    private static final int ROBOTS = 0;
+    private static final int EDGES = 1;
+    private static final int TASKS = 2;
+
+    private int robotCount = 1000;
+    private int groupCount = 100;
+    private String intraDegree = "random:2";
+    private String interDegree = "random:1";
+    private IntDistribution capacity = IntDistribution.parse("uniform:5:20");
+    private IntDistribution edgeWeight = IntDistribution.parse("uniform:1:5");
+    private int taskCount = -1;
+    private IntDistribution taskSize = IntDistribution.parse("uniform:1:10");
+    private double initialFraction = 1.0;
+    private String arrival = "uniform:100";
+    private long seed = 1L;
+
+    public interface Sink {
+        void robot(int robotId, int capacity, int groupId);
+
+        void edge(int source, int target, int weight);
+
+        void task(int taskId, int size, int arriveTime);
+    }
+
+    public void setRobotCount(int robotCount) {
+        if (robotCount < 1) {
+            throw new IllegalArgumentException("机器人数至少为1：" + robotCount);
+        }
+        this.robotCount = robotCount;
+    }
+
+    public void setGroupCount(int groupCount) {
+        if (groupCount < 1) {
+            throw new IllegalArgumentException("组数至少为1：" + groupCount);
+        }
+        this.groupCount = groupCount;
+    }
+
+    public void setIntraDegree(String intraDegree) {
+        degreeModel(intraDegree);
+        this.intraDegree = intraDegree;
+    }
+
+    public void setInterDegree(String interDegree) {
+        degreeModel(interDegree);
+        this.interDegree = interDegree;
+    }
+
+    public void setCapacity(IntDistribution capacity) {
+        this.capacity = capacity;
+    }
+
+    public void setEdgeWeight(IntDistribution edgeWeight) {
+        this.edgeWeight = edgeWeight;
+    }
+
+    public void setTaskCount(int taskCount) {
+        //不设置时为机器人数的2倍
+        this.taskCount = taskCount;
+    }
+
+    public void setTaskSize(IntDistribution taskSize) {
+        this.taskSize = taskSize;
+    }
+
+    public void setInitialFraction(double initialFraction) {
+        if (!(initialFraction >= 0 && initialFraction <= 1)) {
+            throw new IllegalArgumentException("initialFraction必须在[0,1]内：" + initialFraction);
+        }
+        this.initialFraction = initialFraction;
+    }
+
+    public void setArrival(String arrival) {
+        arrivalPattern(arrival);
+        this.arrival = arrival;
+    }
+
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+
+    public int getRobotCount() {
+        return robotCount;
+    }
+
+    public int getTaskCount() {
+        return taskCount < 0 ? 2 * robotCount : taskCount;
+    }
+
+    public String describe() {
+        return "synthetic-" + robotCount + "-" + Math.min(groupCount, robotCount) + "-" + intraDegree + "-" + interDegree + "-seed" + seed;
+    }
+
+    public void generateRobots(Sink sink) {
+        SplittableRandom random = stream(ROBOTS);
+        int groups = Math.min(groupCount, robotCount);
+        for (int id = 0; id < robotCount; id++) {
+            sink.robot(id, capacity.sample(random), (int) ((long) id * groups / robotCount));
+        }
+    }
+
+    public void generateEdges(Sink sink) {
+        SplittableRandom random = stream(EDGES);
+        int groups = Math.min(groupCount, robotCount);
+        String[] intra = degreeModel(intraDegree);
+        int intraK = Integer.parseInt(intra[1]);
+        //组内：每个组单独生长，只保存这个组的端点列表
+        for (int g = 0; g < groups; g++) {
+            int first = groupFirst(g, groups);
+            int size = groupFirst(g + 1, groups) - first;
+            grow(size, intraK, intra[0].equals("scalefree"), random, (i, j) -> sink.edge(first + i, first + j, edgeWeight.sample(random)));
+        }
+        //组间：把组看作节点同样生长，端点在两个组内均匀选取，重复的机器人对跳过
+        String[] inter = degreeModel(interDegree);
+        HashSet<Long> interEdges = new HashSet<>();
+        grow(groups, Integer.parseInt(inter[1]), inter[0].equals("scalefree"), random, (i, j) -> {
+            int source = member(i, groups, random);
+            int target = member(j, groups, random);
+            long key = (long) Math.min(source, target) * robotCount + Math.max(source, target);
+            if (interEdges.add(key)) {
+                sink.edge(source, target, edgeWeight.sample(random));
+            }
+        });
+    }
+
+    public void generateTasks(Sink sink) {
+        SplittableRandom random = stream(TASKS);
+        int count = getTaskCount();
+        int initial = (int) Math.round(count * initialFraction);
+        for (int id = 0; id < initial; id++) {
+            sink.task(id, taskSize.sample(random), -1);
+        }
+        String[] pattern = arrivalPattern(arrival);
+        int remaining = count - initial;
+        int[] times = new int[remaining];
+        double time = 0;
+        for (int i = 0; i < remaining; i++) {
+            switch (pattern[0]) {
+                case "uniform":
+                    times[i] = random.nextInt(Integer.parseInt(pattern[1]));
+                    break;
+                case "poisson":
+                    time += -Math.log(1 - random.nextDouble()) / Double.parseDouble(pattern[1]);
+                    times[i] = (int) Math.min(time, Integer.MAX_VALUE);
+                    break;
+                default:
+                    times[i] = (int) Math.min((long) (i / Integer.parseInt(pattern[2])) * Integer.parseInt(pattern[1]), Integer.MAX_VALUE);
+                    break;
+            }
+        }
+        //Initialize只取开头连续的初始任务，之后的任务按到达时间排列
+        Arrays.sort(times);
+        for (int i = 0; i < remaining; i++) {
+            sink.task(initial + i, taskSize.sample(random), times[i]);
+        }
+    }
+
+    public Scenario generate() {
+        //顶点按在边中第一次出现的顺序加入，与读取writeText写出的文件得到的图相同
+        DefaultUndirectedWeightedGraph<Integer, DefaultWeightedEdge> arcGraph = new DefaultUndirectedWeightedGraph<>(DefaultWeightedEdge.class);
+        List<Agent> robots = new ArrayList<>(robotCount);
+        List<Task> tasks = new ArrayList<>(getTaskCount());
+        generateTasks(new SinkAdapter() {
+            @Override
+            public void task(int taskId, int size, int arriveTime) {
+                Task task = new Task();
+                task.setTaskId(taskId);
+                task.setSize(size);
+                task.setArriveTime(arriveTime);
+                tasks.add(task);
+            }
+        });
+        generateEdges(new SinkAdapter() {
+            @Override
+            public void edge(int source, int target, int weight) {
+                arcGraph.addVertex(source);
+                arcGraph.addVertex(target);
+                DefaultWeightedEdge defaultWeightedEdge = arcGraph.addEdge(source, target);
+                arcGraph.setEdgeWeight(defaultWeightedEdge, weight);
+            }
+        });
+        generateRobots(new SinkAdapter() {
+            @Override
+            public void robot(int robotId, int capacity, int groupId) {
+                Agent robot = new Agent();
+                robot.setRobotId(robotId);
+                robot.setCapacity(capacity);
+                robot.setLoad(0);
+                robot.setTasksList(new ArrayList<>());
+                robot.setGroupId(groupId);
+                robots.add(robot);
+            }
+        });
+        Scenario scenario = new Scenario();
+        scenario.setArcGraph(arcGraph);
+        scenario.setRobots(robots);
+        scenario.setTasks(tasks);
+        return scenario;
+    }
+
+    public void writeText(String graphFile, String robotFile, String tasksFile) throws IOException {
+        //格式与Reader读取的三个文本文件相同
+        try (BufferedWriter graph = Files.newBufferedWriter(Paths.get(graphFile), StandardCharsets.UTF_8);
+             BufferedWriter robot = Files.newBufferedWriter(Paths.get(robotFile), StandardCharsets.UTF_8);
+             BufferedWriter task = Files.newBufferedWriter(Paths.get(tasksFile), StandardCharsets.UTF_8)) {
+            try {
+                generateEdges(new SinkAdapter() {
+                    @Override
+                    public void edge(int source, int target, int weight) {
+                        line(graph, source + " " + target + " " + weight);
+                    }
+                });
+                generateRobots(new SinkAdapter() {
+                    @Override
+                    public void robot(int robotId, int capacity, int groupId) {
+                        line(robot, robotId + " " + capacity + " " + groupId);
+                    }
+                });
+                generateTasks(new SinkAdapter() {
+                    @Override
+                    public void task(int taskId, int size, int arriveTime) {
+                        line(task, taskId + " " + size + " " + arriveTime);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        }
+    }
+
+    public void writeSnapshot(String file) throws IOException {
+        //格式见ScenarioSnapshot（未初始化、没有字典）；边生成两遍：第一遍统计边数和顶点出现顺序，第二遍写出
+        int[] vertexOrder = new int[robotCount];
+        boolean[] seen = new boolean[robotCount];
+        int[] counts = new int[2];
+        generateEdges(new SinkAdapter() {
+            @Override
+            public void edge(int source, int target, int weight) {
+                if (!seen[source]) {
+                    seen[source] = true;
+                    vertexOrder[counts[0]++] = source;
+                }
+                if (!seen[target]) {
+                    seen[target] = true;
+                    vertexOrder[counts[0]++] = target;
+                }
+                counts[1]++;
+            }
+        });
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file), 1 << 16))) {
+            try {
+                out.writeInt(ScenarioSnapshot.MAGIC);
+                out.writeInt(ScenarioSnapshot.VERSION);
+                out.writeInt(0);
+                int taskTotal = getTaskCount();
+                out.writeInt(taskTotal);
+                generateTasks(new SinkAdapter() {
+                    @Override
+                    public void task(int taskId, int size, int arriveTime) {
+                        writeInts(out, taskId);
+                        writeDouble(out, size);
+                        writeInts(out, arriveTime);
+                    }
+                });
+                //待分配任务就是整张任务表
+                out.writeInt(taskTotal);
+                for (int i = 0; i < taskTotal; i++) {
+                    out.writeInt(i);
+                }
+                out.writeInt(counts[0]);
+                for (int i = 0; i < counts[0]; i++) {
+                    out.writeInt(vertexOrder[i]);
+                }
+                out.writeInt(counts[1]);
+                generateEdges(new SinkAdapter() {
+                    @Override
+                    public void edge(int source, int target, int weight) {
+                        writeInts(out, source, target);
+                        writeDouble(out, weight);
+                    }
+                });
+                out.writeInt(robotCount);
+                generateRobots(new SinkAdapter() {
+                    @Override
+                    public void robot(int robotId, int capacity, int groupId) {
+                        writeInts(out, robotId, groupId);
+                        writeDouble(out, capacity);
+                        //load faultA faultO，没有任务
+                        writeDouble(out, 0);
+                        writeDouble(out, 0);
+                        writeDouble(out, 0);
+                        writeInts(out, 0);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        }
+    }
+
+    private interface EdgeConsumer {
+        void accept(int i, int j);
+    }
+
+    private static void grow(int size, int k, boolean preferential, SplittableRandom random, EdgeConsumer edges) {
+        //节点i与之前min(k,i)个不同的节点相连；preferential时按度数+1成比例选择
+        int[] endpoints = preferential ? new int[Math.max(1, 2 * size * k + size)] : null;
+        int endpointCount = 0;
+        int[] chosen = new int[k];
+        for (int i = 0; i < size; i++) {
+            int links = Math.min(k, i);
+            int found = 0;
+            while (found < links) {
+                int j;
+                if (preferential) {
+                    j = endpoints[random.nextInt(endpointCount)];
+                } else {
+                    j = random.nextInt(i);
+                }
+                boolean duplicate = false;
+                for (int c = 0; c < found; c++) {
+                    if (chosen[c] == j) {
+                        duplicate = true;
+                        break;
+                    }
+                }
+                if (!duplicate) {
+                    chosen[found++] = j;
+                }
+            }
+            for (int c = 0; c < found; c++) {
+                edges.accept(i, chosen[c]);
+            }
+            if (preferential) {
+                //每个节点先放一次（度数+1），每条边的两个端点各放一次
+                endpoints[endpointCount++] = i;
+                for (int c = 0; c < found; c++) {
+                    endpoints[endpointCount++] = i;
+                    endpoints[endpointCount++] = chosen[c];
+                }
+            }
+        }
+    }
+
+    private int groupFirst(int g, int groups) {
+        //第g个组的第一个机器人编号，与generateRobots中的分组一致
+        return (int) (((long) g * robotCount + groups - 1) / groups);
+    }
+
+    private int member(int g, int groups, SplittableRandom random) {
+        int first = groupFirst(g, groups);
+        return first + random.nextInt(groupFirst(g + 1, groups) - first);
+    }
+
+    private SplittableRandom stream(int phase) {
+        SplittableRandom root = new SplittableRandom(seed);
+        SplittableRandom random = root.split();
+        for (int i = 0; i < phase; i++) {
+            random = root.split();
+        }
+        return random;
+    }
+
+    private static String[] degreeModel(String spec) {
+        String[] parts = spec.trim().split(":");
+        if (parts.length != 2 || !(parts[0].equals("random") || parts[0].equals("scalefree"))) {
+            throw new IllegalArgumentException("未知度分布：" + spec + "，可选：random:k、scalefree:m");
+        }
+        if (Integer.parseInt(parts[1]) < 1) {
+            throw new IllegalArgumentException("度数参数至少为1：" + spec);
+        }
+        return parts;
+    }
+
+    private static String[] arrivalPattern(String spec) {
+        String[] parts = spec.trim().split(":");
+        boolean valid = (parts[0].equals("uniform") && parts.length == 2 && Integer.parseInt(parts[1]) > 0)
+                || (parts[0].equals("poisson") && parts.length == 2 && Double.parseDouble(parts[1]) > 0)
+                || (parts[0].equals("burst") && parts.length == 3 && Integer.parseInt(parts[1]) > 0 && Integer.parseInt(parts[2]) > 0);
+        if (!valid) {
+            throw new IllegalArgumentException("未知到达模式：" + spec + "，可选：uniform:T、poisson:rate、burst:period:count");
+        }
+        return parts;
+    }
+
+    private static void line(BufferedWriter writer, String line) {
+        try {
+            writer.write(line);
+            writer.newLine();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void writeInts(DataOutputStream out, int... values) {
+        try {
+            for (int value : values) {
+                out.writeInt(value);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void writeDouble(DataOutputStream out, double value) {
+        try {
+            out.writeDouble(value);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static class SinkAdapter implements Sink {
+        @Override
+        public void robot(int robotId, int capacity, int groupId) {
+        }
+
+        @Override
+        public void edge(int source, int target, int weight) {
+        }
+
+        @Override
+        public void task(int taskId, int size, int arriveTime) {
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package input;
+
+import java.io.IOException;
+import java.util.ArrayList;
+
+/***
+ * 按文件类型加载场景：.snap为二进制快照，其余为图/机器人/任务三个文本文件
+ */
+public class ScenarioLoader {
+    public static final String SNAPSHOT_SUFFIX = ".snap";
+
+    public Scenario load(String graphFile, String robotFile, String tasksFile) throws IOException {
+        Scenario scenario = new Scenario();
+        if (StringIdReader.hasStringIds(robotFile)) {
+            //字符串编号的数据集先读机器人，使机器人编号为0..n-1
+            StringIdReader stringIdReader = new StringIdReader();
+            scenario.setRobots(stringIdReader.readFileToRobots(robotFile));
+            scenario.setArcGraph(stringIdReader.readFileToGraph(graphFile));
+            scenario.setTasks(stringIdReader.readFileToTasks(tasksFile));
+            scenario.setIdDictionary(stringIdReader.getIdDictionary());
+        } else {
+            Reader reader = new Reader();
+            scenario.setTasks(reader.readFileToTasks(tasksFile));
+            scenario.setArcGraph(new MappedGraphReader().readFileToGraph(graphFile));
+            scenario.setRobots(reader.readFileToRobots(robotFile));
+        }
+        return scenario;
+    }
+
+    public Scenario load(String graphFile, String robotFile) throws IOException {
+        //只读图和机器人，任务列表为空；在线模式的任务由TaskSpliterator按流读取
+        Scenario scenario = new Scenario();
+        if (StringIdReader.hasStringIds(robotFile)) {
+            StringIdReader stringIdReader = new StringIdReader();
+            scenario.setRobots(stringIdReader.readFileToRobots(robotFile));
+            scenario.setArcGraph(stringIdReader.readFileToGraph(graphFile));
+            scenario.setIdDictionary(stringIdReader.getIdDictionary());
+        } else {
+            scenario.setArcGraph(new MappedGraphReader().readFileToGraph(graphFile));
+            scenario.setRobots(new Reader().readFileToRobots(robotFile));
+        }
+        scenario.setTasks(new ArrayList<>());
+        return scenario;
+    }
+
+    public Scenario load(String snapshotFile) throws IOException {
+        return ScenarioSnapshot.read(snapshotFile);
+    }
+
+    public static boolean isSnapshot(String file) {
+        return file.endsWith(SNAPSHOT_SUFFIX);
+    }
+}
@@ -0,0 +1,334 @@
+package input;
+
+import org.jgrapht.graph.DefaultUndirectedWeightedGraph;
+import org.jgrapht.graph.DefaultWeightedEdge;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+/***
+ * 场景的二进制快照，启动时直接映射读取，不再解析文本
+ * 格式（大端序）：
+ *   头部    magic(int) version(int) flags(int)
+ *   任务表  n, 每个任务 taskId(int) size(double) arriveTime(int)
+ *   待分配  n, 每个任务在任务表中的下标(int)
+ *   图      顶点数, 顶点编号(int)..., 边数, 每条边 source(int) target(int) weight(double)，均按插入顺序
+ *   机器人  n, 每个机器人 robotId groupId(int) capacity load faultA faultO(double) 任务数 任务下标(int)...
+ *   组      (FLAG_INITIALIZED) n, 每个组 键(int) groupId(int) groupLoad groupCapacity interactionLevel(double)
+ *           leaderId(int，-1表示没有) 成员数 成员编号... 后备节点数 后备节点编号... 已分配任务数(-1表示null) 任务下标...
+ *   字典    (FLAG_DICTIONARY) n, 每个名字 长度(int) UTF-8字节
+ */
+public class ScenarioSnapshot {
+    public static final int MAGIC = 0x54435353;
+    public static final int VERSION = 1;
+    public static final int FLAG_INITIALIZED = 1;
+    public static final int FLAG_DICTIONARY = 1 << 1;
+
+    public static void write(Scenario scenario, String file) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file), 1 << 16))) {
+            int flags = 0;
+            if (scenario.isInitialized()) {
+                flags |= FLAG_INITIALIZED;
+            }
+            if (scenario.getIdDictionary() != null) {
+                flags |= FLAG_DICTIONARY;
+            }
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(flags);
+
+            //任务表：待分配的任务在前，机器人身上的任务在后，同一个任务对象只写一次
+            IdentityHashMap<Task, Integer> taskIndex = new IdentityHashMap<>();
+            List<Task> taskTable = new ArrayList<>();
+            for (Task task : scenario.getTasks()) {
+                indexTask(task, taskIndex, taskTable);
+            }
+            for (Agent robot : scenario.getRobots()) {
+                if (robot.getTasksList() != null) {
+                    for (Task task : robot.getTasksList()) {
+                        indexTask(task, taskIndex, taskTable);
+                    }
+                }
+            }
+            if (scenario.isInitialized()) {
+                for (Group group : scenario.getIdToGroups().values()) {
+                    if (group.getAssignedTasks() != null) {
+                        for (Task task : group.getAssignedTasks()) {
+                            indexTask(task, taskIndex, taskTable);
+                        }
+                    }
+                }
+            }
+            out.writeInt(taskTable.size());
+            for (Task task : taskTable) {
+                out.writeInt(task.getTaskId());
+                out.writeDouble(task.getSize());
+                out.writeInt(task.getArriveTime());
+            }
+            writeTaskIndices(out, scenario.getTasks(), taskIndex);
+
+            DefaultUndirectedWeightedGraph<Integer, DefaultWeightedEdge> arcGraph = scenario.getArcGraph();
+            out.writeInt(arcGraph.vertexSet().size());
+            for (Integer vertex : arcGraph.vertexSet()) {
+                out.writeInt(vertex);
+            }
+            out.writeInt(arcGraph.edgeSet().size());
+            for (DefaultWeightedEdge defaultWeightedEdge : arcGraph.edgeSet()) {
+                out.writeInt(arcGraph.getEdgeSource(defaultWeightedEdge));
+                out.writeInt(arcGraph.getEdgeTarget(defaultWeightedEdge));
+                out.writeDouble(arcGraph.getEdgeWeight(defaultWeightedEdge));
+            }
+
+            out.writeInt(scenario.getRobots().size());
+            for (Agent robot : scenario.getRobots()) {
+                out.writeInt(robot.getRobotId());
+                out.writeInt(robot.getGroupId());
+                out.writeDouble(robot.getCapacity());
+                out.writeDouble(robot.getLoad());
+                out.writeDouble(robot.getFaultA());
+                out.writeDouble(robot.getFaultO());
+                writeTaskIndices(out, robot.getTasksList(), taskIndex);
+            }
+
+            if (scenario.isInitialized()) {
+                out.writeInt(scenario.getIdToGroups().size());
+                for (Integer groupId : scenario.getIdToGroups().keySet()) {
+                    //没有分到初始任务的组，Group中的groupId没有被设置，所以键和字段分开保存
+                    Group group = scenario.getIdToGroups().get(groupId);
+                    out.writeInt(groupId);
+                    out.writeInt(group.getGroupId());
+                    out.writeDouble(group.getGroupLoad());
+                    out.writeDouble(group.getGroupCapacity());
+                    out.writeDouble(group.getInteractionLevel());
+                    out.writeInt(group.getLeader() == null ? -1 : group.getLeader().getRobotId());
+                    Set<Integer> robotIdInGroup = group.getRobotIdInGroup();
+                    out.writeInt(robotIdInGroup == null ? 0 : robotIdInGroup.size());
+                    if (robotIdInGroup != null) {
+                        for (Integer robotId : robotIdInGroup) {
+                            out.writeInt(robotId);
+                        }
+                    }
+                    List<Agent> adLeaders = group.getAdLeaders();
+                    out.writeInt(adLeaders == null ? -1 : adLeaders.size());
+                    if (adLeaders != null) {
+                        for (Agent adLeader : adLeaders) {
+                            out.writeInt(adLeader.getRobotId());
+                        }
+                    }
+                    writeTaskIndices(out, group.getAssignedTasks(), taskIndex);
+                }
+            }
+
+            if (scenario.getIdDictionary() != null) {
+                IdDictionary idDictionary = scenario.getIdDictionary();
+                out.writeInt(idDictionary.size());
+                for (int i = 0; i < idDictionary.size(); i++) {
+                    byte[] bytes = idDictionary.nameOf(i).getBytes(StandardCharsets.UTF_8);
+                    out.writeInt(bytes.length);
+                    out.write(bytes);
+                }
+            }
+        }
+    }
+
+    public static Scenario read(String file) throws IOException {
+        try (MappedInput in = new MappedInput(file)) {
+            if (in.getInt() != MAGIC) {
+                throw new IOException(file + " is not a scenario snapshot");
+            }
+            int version = in.getInt();
+            if (version != VERSION) {
+                throw new IOException(file + ": unsupported snapshot version " + version);
+            }
+            int flags = in.getInt();
+            Scenario scenario = new Scenario();
+
+            Task[] taskTable = new Task[in.getInt()];
+            for (int i = 0; i < taskTable.length; i++) {
+                Task task = new Task();
+                task.setTaskId(in.getInt());
+                task.setSize(in.getDouble());
+                task.setArriveTime(in.getInt());
+                taskTable[i] = task;
+            }
+            scenario.setTasks(readTaskIndices(in, taskTable));
+
+            DefaultUndirectedWeightedGraph<Integer, DefaultWeightedEdge> arcGraph =
+                    new DefaultUndirectedWeightedGraph<>(DefaultWeightedEdge.class);
+            int vertexCount = in.getInt();
+            for (int i = 0; i < vertexCount; i++) {
+                arcGraph.addVertex(in.getInt());
+            }
+            int edgeCount = in.getInt();
+            for (int i = 0; i < edgeCount; i++) {
+                int source = in.getInt();
+                int target = in.getInt();
+                DefaultWeightedEdge defaultWeightedEdge = arcGraph.addEdge(source, target);
+                arcGraph.setEdgeWeight(defaultWeightedEdge, in.getDouble());
+            }
+            scenario.setArcGraph(arcGraph);
+
+            int robotCount = in.getInt();
+            List<Agent> robots = new ArrayList<>(robotCount);
+            HashMap<Integer, Agent> idToRobots = new HashMap<>();
+            for (int i = 0; i < robotCount; i++) {
+                Agent robot = new Agent();
+                robot.setRobotId(in.getInt());
+                robot.setGroupId(in.getInt());
+                robot.setCapacity(in.getDouble());
+                robot.setLoad(in.getDouble());
+                robot.setFaultA(in.getDouble());
+                robot.setFaultO(in.getDouble());
+                List<Task> tasksList = readTaskIndices(in, taskTable);
+                robot.setTasksList(tasksList == null ? new ArrayList<>() : tasksList);
+                robots.add(robot);
+                idToRobots.put(robot.getRobotId(), robot);
+            }
+            scenario.setRobots(robots);
+
+            if ((flags & FLAG_INITIALIZED) != 0) {
+                int groupCount = in.getInt();
+                HashMap<Integer, Group> idToGroups = new HashMap<>();
+                for (int i = 0; i < groupCount; i++) {
+                    int groupId = in.getInt();
+                    Group group = new Group();
+                    group.setGroupId(in.getInt());
+                    group.setGroupLoad(in.getDouble());
+                    group.setGroupCapacity(in.getDouble());
+                    group.setInteractionLevel(in.getDouble());
+                    int leaderId = in.getInt();
+                    if (leaderId != -1) {
+                        group.setLeader(idToRobots.get(leaderId));
+                    }
+                    int memberCount = in.getInt();
+                    Set<Integer> robotIdInGroup = new HashSet<>();
+                    for (int j = 0; j < memberCount; j++) {
+                        robotIdInGroup.add(in.getInt());
+                    }
+                    group.setRobotIdInGroup(robotIdInGroup);
+                    int adLeaderCount = in.getInt();
+                    if (adLeaderCount >= 0) {
+                        List<Agent> adLeaders = new ArrayList<>(adLeaderCount);
+                        for (int j = 0; j < adLeaderCount; j++) {
+                            adLeaders.add(idToRobots.get(in.getInt()));
+                        }
+                        group.setAdLeaders(adLeaders);
+                    }
+                    group.setAssignedTasks(readTaskIndices(in, taskTable));
+                    idToGroups.put(groupId, group);
+                }
+                scenario.setIdToGroups(idToGroups);
+            }
+
+            if ((flags & FLAG_DICTIONARY) != 0) {
+                IdDictionary idDictionary = new IdDictionary();
+                int size = in.getInt();
+                for (int i = 0; i < size; i++) {
+                    idDictionary.intern(in.getString());
+                }
+                scenario.setIdDictionary(idDictionary);
+            }
+            return scenario;
+        }
+    }
+
+    private static void indexTask(Task task, IdentityHashMap<Task, Integer> taskIndex, List<Task> taskTable) {
+        if (!taskIndex.containsKey(task)) {
+            taskIndex.put(task, taskTable.size());
+            taskTable.add(task);
+        }
+    }
+
+    private static void writeTaskIndices(DataOutputStream out, List<Task> tasks, IdentityHashMap<Task, Integer> taskIndex) throws IOException {
+        if (tasks == null) {
+            out.writeInt(-1);
+            return;
+        }
+        out.writeInt(tasks.size());
+        for (Task task : tasks) {
+            out.writeInt(taskIndex.get(task));
+        }
+    }
+
+    private static List<Task> readTaskIndices(MappedInput in, Task[] taskTable) throws IOException {
+        int size = in.getInt();
+        if (size < 0) {
+            return null;
+        }
+        List<Task> tasks = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            tasks.add(taskTable[in.getInt()]);
+        }
+        return tasks;
+    }
+
+    /***
+     * 按区域映射快照文件，读到区域末尾时从当前位置重新映射，文件可以超过2GB
+     */
+    private static class MappedInput implements Closeable {
+        private static final long REGION_SIZE = 1L << 28;
+        private final FileChannel channel;
+        private final long fileSize;
+        private MappedByteBuffer buffer;
+        private long regionStart;
+
+        MappedInput(String file) throws IOException {
+            channel = FileChannel.open(Paths.get(file), StandardOpenOption.READ);
+            fileSize = channel.size();
+            map(0);
+        }
+
+        int getInt() throws IOException {
+            ensure(4);
+            return buffer.getInt();
+        }
+
+        double getDouble() throws IOException {
+            ensure(8);
+            return buffer.getDouble();
+        }
+
+        String getString() throws IOException {
+            int length = getInt();
+            ensure(length);
+            byte[] bytes = new byte[length];
+            buffer.get(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        private void ensure(int bytes) throws IOException {
+            if (buffer.remaining() >= bytes) {
+                return;
+            }
+            long position = regionStart + buffer.position();
+            if (position + bytes > fileSize) {
+                throw new IOException("unexpected end of snapshot at offset " + position);
+            }
+            map(position);
+        }
+
+        private void map(long position) throws IOException {
+            regionStart = position;
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(REGION_SIZE, fileSize - position));
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package input;
+
+import lombok.Data;
+
+/***
+ * 在线模式中一个时刻的统计：到达和分配的任务数、分配耗时、晚到任务的延迟，以及分配之后系统的负载情况
+ */
+@Data
+public class StepMetrics {
+    private int time;
+    private int arrivals;
+    private int assigned;
+    //到达时间早于当前时刻的任务（文件中乱序）在当前时刻分配，延迟为两者之差
+    private int lateTasks;
+    private long totalDelay;
+    private long elapsedNanos;
+    private long maxLatencyNanos;
+    private double totalLoad;
+    private int overloadedRobots;
+
+    public double getMeanLatencyNanos() {
+        return arrivals == 0 ? 0.0 : (double) elapsedNanos / arrivals;
+    }
+
+    public double getMeanDelay() {
+        return arrivals == 0 ? 0.0 : (double) totalDelay / arrivals;
+    }
+
+    public double getThroughput() {
+        //每秒分配的任务数
+        if (elapsedNanos <= 0) {
+            return 0.0;
+        }
+        return assigned * 1e9 / elapsedNanos;
+    }
+}
@@ -0,0 +1,124 @@
+package input;
+
+import org.jgrapht.graph.DefaultUndirectedWeightedGraph;
+import org.jgrapht.graph.DefaultWeightedEdge;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+/***
+ * 读取使用字符串节点编号、小数权重和小数能力的数据集（如semiconductor数据集）
+ * 节点编号在同一个reader内统一映射为稠密的整数编号，可以通过getIdDictionary反查原始编号
+ * 先读机器人文件，机器人的编号就是0..n-1，与Initialize中按编号遍历机器人的方式一致
+ */
+public class StringIdReader {
+    private final IdDictionary idDictionary = new IdDictionary();
+    private int duplicateRobots;
+    private int duplicateEdges;
+
+    public DefaultUndirectedWeightedGraph<Integer, DefaultWeightedEdge> readFileToGraph(String graphFile) throws IOException {
+        DefaultUndirectedWeightedGraph<Integer, DefaultWeightedEdge> arcGraph =
+                new DefaultUndirectedWeightedGraph<>(DefaultWeightedEdge.class);
+        duplicateEdges = 0;
+        try (MappedTokenizer tokenizer = new MappedTokenizer(graphFile)) {
+            while (tokenizer.nextLine()) {
+                requireToken(tokenizer, graphFile, "source target weight");
+                int a = idDictionary.intern(tokenizer.stringToken());
+                requireToken(tokenizer, graphFile, "source target weight");
+                int b = idDictionary.intern(tokenizer.stringToken());
+                requireToken(tokenizer, graphFile, "source target weight");
+                double c = tokenizer.doubleToken();
+                arcGraph.addVertex(a);
+                arcGraph.addVertex(b);
+                DefaultWeightedEdge defaultWeightedEdge = arcGraph.addEdge(a, b);
+                if (defaultWeightedEdge == null) {
+                    //重复的边只保留第一次出现的权重
+                    duplicateEdges++;
+                    continue;
+                }
+                arcGraph.setEdgeWeight(defaultWeightedEdge, c);
+            }
+        }
+        return arcGraph;
+    }
+
+    public List<Task> readFileToTasks(String tasksFile) throws IOException {
+        List<Task> tasks = new ArrayList<>();
+        try (MappedTokenizer tokenizer = new MappedTokenizer(tasksFile)) {
+            while (tokenizer.nextLine()) {
+                Task task = new Task();
+                requireToken(tokenizer, tasksFile, "taskId size arriveTime");
+                task.setTaskId(tokenizer.intToken());
+                requireToken(tokenizer, tasksFile, "taskId size arriveTime");
+                task.setSize(tokenizer.doubleToken());
+                requireToken(tokenizer, tasksFile, "taskId size arriveTime");
+                task.setArriveTime(tokenizer.intToken());
+                tasks.add(task);
+            }
+        }
+        return tasks;
+    }
+
+    public List<Agent> readFileToRobots(String robotsFile) throws IOException {
+        List<Agent> robots = new ArrayList<>();
+        BitSet loaded = new BitSet();
+        duplicateRobots = 0;
+        try (MappedTokenizer tokenizer = new MappedTokenizer(robotsFile)) {
+            while (tokenizer.nextLine()) {
+                requireToken(tokenizer, robotsFile, "robotId capacity groupId");
+                int robotId = idDictionary.intern(tokenizer.stringToken());
+                if (loaded.get(robotId)) {
+                    //同一个机器人重复出现时只保留第一次的信息
+                    duplicateRobots++;
+                    continue;
+                }
+                loaded.set(robotId);
+                Agent robot = new Agent();
+                robot.setRobotId(robotId);
+                requireToken(tokenizer, robotsFile, "robotId capacity groupId");
+                robot.setCapacity(tokenizer.doubleToken());
+                requireToken(tokenizer, robotsFile, "robotId capacity groupId");
+                robot.setGroupId(tokenizer.intToken());
+                robot.setLoad(0);
+                robot.setTasksList(new ArrayList<>());
+                robots.add(robot);
+            }
+        }
+        return robots;
+    }
+
+    public IdDictionary getIdDictionary() {
+        return idDictionary;
+    }
+
+    public int getDuplicateRobots() {
+        return duplicateRobots;
+    }
+
+    public int getDuplicateEdges() {
+        return duplicateEdges;
+    }
+
+    public static boolean hasStringIds(String file) throws IOException {
+        //只看第一行的第一个字段，数字编号的数据集仍然用Reader读取，保持原有的编号
+        try (MappedTokenizer tokenizer = new MappedTokenizer(file)) {
+            if (!tokenizer.nextLine() || !tokenizer.nextToken()) {
+                return false;
+            }
+            try {
+                tokenizer.intToken();
+                return false;
+            } catch (NumberFormatException e) {
+                return true;
+            }
+        }
+    }
+
+    private void requireToken(MappedTokenizer tokenizer, String file, String format) throws IOException {
+        if (!tokenizer.nextToken()) {
+            throw new IOException(file + ": line " + tokenizer.lineNumber() + " should be \"" + format + "\"");
+        }
+    }
+}
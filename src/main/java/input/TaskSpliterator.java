@@ -0,0 +1,81 @@
+package input;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/***
+ * 按行读取任务文件（taskId size arriveTime），每次tryAdvance只解析一行，任务不全部读入内存
+ * 在线模式按文件中的顺序消费，用完之后需要close
+ */
+public class TaskSpliterator implements Spliterator<Task>, Closeable {
+    private final String tasksFile;
+    private final MappedTokenizer tokenizer;
+
+    public TaskSpliterator(String tasksFile) throws IOException {
+        this.tasksFile = tasksFile;
+        tokenizer = new MappedTokenizer(tasksFile);
+    }
+
+    public static Stream<Task> stream(String tasksFile) throws IOException {
+        TaskSpliterator spliterator = new TaskSpliterator(tasksFile);
+        return StreamSupport.stream(spliterator, false).onClose(() -> {
+            try {
+                spliterator.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super Task> action) {
+        try {
+            if (!tokenizer.nextLine()) {
+                return false;
+            }
+            Task task = new Task();
+            requireToken();
+            task.setTaskId(tokenizer.intToken());
+            requireToken();
+            task.setSize(tokenizer.doubleToken());
+            requireToken();
+            task.setArriveTime(tokenizer.intToken());
+            action.accept(task);
+            return true;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void requireToken() throws IOException {
+        if (!tokenizer.nextToken()) {
+            throw new IOException(tasksFile + ": line " + tokenizer.lineNumber() + " should be \"taskId size arriveTime\"");
+        }
+    }
+
+    @Override
+    public Spliterator<Task> trySplit() {
+        //按顺序消费，不拆分
+        return null;
+    }
+
+    @Override
+    public long estimateSize() {
+        return Long.MAX_VALUE;
+    }
+
+    @Override
+    public int characteristics() {
+        return ORDERED | NONNULL;
+    }
+
+    @Override
+    public void close() throws IOException {
+        tokenizer.close();
+    }
+}
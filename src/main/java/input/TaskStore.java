@@ -0,0 +1,335 @@
+package input;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+
+/***
+ * 任务与所属组件的对应关系：任务→组件、组件→任务都保存在int数组中
+ * 每个组件的任务放在自己的int[]里，删除时把最后一个任务换到被删除的位置（swap-remove），迁移是O(1)的
+ * attach之后各组件的tasksList换成这里的视图，原来读取tasksList的代码不用修改，但删除后任务顺序会变化
+ * 每个组件另有一个按(任务大小降序, 加入顺序)排列的堆，maxTask是O(1)的，加入和删除是O(log k)的；
+ * 大小相同时返回最早加入的任务，与原来在ArrayList上从头找第一个最大任务的结果相同
+ * 与原来的ArrayList一样，同一个任务可以同时出现在多个列表中（对已经迁走的任务再执行一次迁移时就会这样），
+ * 每出现一次占一个槽位，同一个任务的槽位串成链表
+ * 任务按对象区分（Task的equals比较的是字段值，不同任务可能相等），只有来源不持有被迁移的任务时才按equals删除
+ */
+public class TaskStore {
+    private static final int NO_OWNER = -1;
+    private static final int NO_SLOT = -1;
+
+    private final Agent[] agents;
+    private final HashMap<Integer, Integer> idToOwner = new HashMap<>();
+    //任务的第一个槽位
+    private final IdentityHashMap<Task, Integer> taskToSlot = new IdentityHashMap<>();
+    private Task[] tasks = new Task[16];
+    private int slotCount;
+    //槽位所属组件的下标、在该组件任务数组和堆中的位置、加入顺序，以及同一任务的下一个槽位
+    private int[] owner = new int[16];
+    private int[] position = new int[16];
+    private int[] heapPosition = new int[16];
+    private long[] sequence = new long[16];
+    private int[] nextSlot = new int[16];
+    private long nextSequence;
+    //组件持有的槽位
+    private final int[][] ownerTasks;
+    private final int[][] ownerHeap;
+    private final int[] ownerSize;
+
+    private TaskStore(Collection<Agent> agentCollection) {
+        int n = agentCollection.size();
+        agents = new Agent[n];
+        ownerTasks = new int[n][];
+        ownerHeap = new int[n][];
+        ownerSize = new int[n];
+        int index = 0;
+        for (Agent agent : agentCollection) {
+            agents[index] = agent;
+            idToOwner.put(agent.getRobotId(), index);
+            List<Task> tasksList = agent.getTasksList();
+            int size = tasksList == null ? 0 : tasksList.size();
+            ownerTasks[index] = new int[Math.max(4, size)];
+            ownerHeap[index] = new int[Math.max(4, size)];
+            index++;
+        }
+        for (int i = 0; i < n; i++) {
+            List<Task> tasksList = agents[i].getTasksList();
+            if (tasksList != null) {
+                for (Task task : tasksList) {
+                    append(i, freeSlot(task));
+                }
+            }
+        }
+    }
+
+    public static TaskStore attach(HashMap<Integer, Agent> idToRobots) {
+        //按idToRobots的遍历顺序给组件编号，并把每个组件的tasksList换成视图
+        TaskStore store = new TaskStore(idToRobots.values());
+        for (int i = 0; i < store.agents.length; i++) {
+            store.agents[i].setTasksList(store.new OwnerTasks(i));
+        }
+        return store;
+    }
+
+    public int taskCount(Agent agent) {
+        int index = ownerIndex(agent);
+        if (index == NO_OWNER) {
+            List<Task> tasksList = agent.getTasksList();
+            return tasksList == null ? 0 : tasksList.size();
+        }
+        return ownerSize[index];
+    }
+
+    public boolean owns(Agent agent, Task task) {
+        int index = ownerIndex(agent);
+        return index != NO_OWNER && ownedSlot(task, index) != NO_SLOT;
+    }
+
+    public Agent ownerOf(Task task) {
+        //任务同时在多个列表中时返回最早加入的那一个
+        Integer head = taskToSlot.get(task);
+        int first = NO_SLOT;
+        for (int slot = head == null ? NO_SLOT : head; slot != NO_SLOT; slot = nextSlot[slot]) {
+            if (owner[slot] != NO_OWNER && (first == NO_SLOT || sequence[slot] < sequence[first])) {
+                first = slot;
+            }
+        }
+        return first == NO_SLOT ? null : agents[owner[first]];
+    }
+
+    public Task maxTask(Agent agent) {
+        //组件持有的最大任务，组件没有任务时返回null
+        int index = ownerIndex(agent);
+        if (index == NO_OWNER || ownerSize[index] == 0) {
+            return null;
+        }
+        return tasks[ownerHeap[index][0]];
+    }
+
+    public boolean move(Task task, Agent from, Agent to) {
+        //与原来的updateIntra相同：从from的列表中删除task，再加入to的列表，返回from是否持有task
+        //from已经不持有task时（之前迁走过），按equals删除from中相等的任务（通常没有），to仍然得到一份task
+        int fromIndex = ownerIndex(from);
+        int slot = fromIndex == NO_OWNER ? NO_SLOT : ownedSlot(task, fromIndex);
+        if (slot != NO_SLOT) {
+            remove(slot);
+        } else if (fromIndex != NO_OWNER) {
+            int equal = equalSlot(fromIndex, task);
+            if (equal != NO_SLOT) {
+                remove(equal);
+            }
+        } else if (from != null && from.getTasksList() != null) {
+            from.getTasksList().remove(task);
+        }
+        int toIndex = ownerIndex(to);
+        if (toIndex != NO_OWNER) {
+            append(toIndex, slot != NO_SLOT ? slot : freeSlot(task));
+        } else {
+            //目标不是这个store里的组件（例如找不到迁移目标时返回的空Agent），任务交给它自己的列表
+            List<Task> tasksList = to.getTasksList();
+            if (tasksList == null) {
+                tasksList = new ArrayList<>();
+                to.setTasksList(tasksList);
+            }
+            tasksList.add(task);
+        }
+        return slot != NO_SLOT;
+    }
+
+    private int ownerIndex(Agent agent) {
+        if (agent == null) {
+            return NO_OWNER;
+        }
+        Integer index = idToOwner.get(agent.getRobotId());
+        //编号相同但不是同一个对象的组件不属于这个store
+        return index == null || agents[index] != agent ? NO_OWNER : index;
+    }
+
+    private int ownedSlot(Task task, int index) {
+        //task在组件index中最早加入的槽位，与ArrayList.remove删除第一个出现的位置一致
+        Integer head = taskToSlot.get(task);
+        int found = NO_SLOT;
+        for (int slot = head == null ? NO_SLOT : head; slot != NO_SLOT; slot = nextSlot[slot]) {
+            if (owner[slot] == index && (found == NO_SLOT || sequence[slot] < sequence[found])) {
+                found = slot;
+            }
+        }
+        return found;
+    }
+
+    private int equalSlot(int index, Task task) {
+        int found = NO_SLOT;
+        int[] slots = ownerTasks[index];
+        for (int p = 0; p < ownerSize[index]; p++) {
+            int slot = slots[p];
+            if (tasks[slot].equals(task) && (found == NO_SLOT || sequence[slot] < sequence[found])) {
+                found = slot;
+            }
+        }
+        return found;
+    }
+
+    private int freeSlot(Task task) {
+        //task的一个空闲槽位，没有时新建一个接到链表末尾
+        Integer head = taskToSlot.get(task);
+        int last = NO_SLOT;
+        for (int slot = head == null ? NO_SLOT : head; slot != NO_SLOT; slot = nextSlot[slot]) {
+            if (owner[slot] == NO_OWNER) {
+                return slot;
+            }
+            last = slot;
+        }
+        if (slotCount == tasks.length) {
+            int capacity = tasks.length * 2;
+            tasks = Arrays.copyOf(tasks, capacity);
+            owner = Arrays.copyOf(owner, capacity);
+            position = Arrays.copyOf(position, capacity);
+            heapPosition = Arrays.copyOf(heapPosition, capacity);
+            sequence = Arrays.copyOf(sequence, capacity);
+            nextSlot = Arrays.copyOf(nextSlot, capacity);
+        }
+        tasks[slotCount] = task;
+        owner[slotCount] = NO_OWNER;
+        nextSlot[slotCount] = NO_SLOT;
+        if (last == NO_SLOT) {
+            taskToSlot.put(task, slotCount);
+        } else {
+            nextSlot[last] = slotCount;
+        }
+        return slotCount++;
+    }
+
+    private void append(int index, int slot) {
+        int size = ownerSize[index];
+        if (size == ownerTasks[index].length) {
+            ownerTasks[index] = Arrays.copyOf(ownerTasks[index], size * 2);
+            ownerHeap[index] = Arrays.copyOf(ownerHeap[index], size * 2);
+        }
+        ownerTasks[index][size] = slot;
+        owner[slot] = index;
+        position[slot] = size;
+        sequence[slot] = nextSequence++;
+        ownerSize[index] = size + 1;
+        ownerHeap[index][size] = slot;
+        heapPosition[slot] = size;
+        siftUp(ownerHeap[index], size);
+    }
+
+    private void remove(int slot) {
+        int index = owner[slot];
+        int p = position[slot];
+        int last = ownerSize[index] - 1;
+        int[] slots = ownerTasks[index];
+        if (p != last) {
+            slots[p] = slots[last];
+            position[slots[p]] = p;
+        }
+        ownerSize[index] = last;
+        owner[slot] = NO_OWNER;
+
+        int[] heap = ownerHeap[index];
+        int h = heapPosition[slot];
+        if (h != last) {
+            heap[h] = heap[last];
+            heapPosition[heap[h]] = h;
+            siftDown(heap, h, last);
+            siftUp(heap, h);
+        }
+    }
+
+    private boolean before(int slot1, int slot2) {
+        //堆顶是最大的任务，大小相同时是最早加入的
+        double size1 = tasks[slot1].getSize();
+        double size2 = tasks[slot2].getSize();
+        return size1 > size2 || (size1 == size2 && sequence[slot1] < sequence[slot2]);
+    }
+
+    private void siftUp(int[] heap, int h) {
+        int slot = heap[h];
+        while (h > 0) {
+            int parent = (h - 1) >>> 1;
+            if (!before(slot, heap[parent])) {
+                break;
+            }
+            heap[h] = heap[parent];
+            heapPosition[heap[h]] = h;
+            h = parent;
+        }
+        heap[h] = slot;
+        heapPosition[slot] = h;
+    }
+
+    private void siftDown(int[] heap, int h, int size) {
+        int slot = heap[h];
+        while (true) {
+            int child = 2 * h + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && before(heap[child + 1], heap[child])) {
+                child++;
+            }
+            if (!before(heap[child], slot)) {
+                break;
+            }
+            heap[h] = heap[child];
+            heapPosition[heap[h]] = h;
+            h = child;
+        }
+        heap[h] = slot;
+        heapPosition[slot] = h;
+    }
+
+    private class OwnerTasks extends AbstractList<Task> {
+        //组件任务列表的视图，读写都直接作用在store上
+        private final int index;
+
+        private OwnerTasks(int index) {
+            this.index = index;
+        }
+
+        @Override
+        public Task get(int i) {
+            if (i < 0 || i >= ownerSize[index]) {
+                throw new IndexOutOfBoundsException("Index: " + i + ", Size: " + ownerSize[index]);
+            }
+            return tasks[ownerTasks[index][i]];
+        }
+
+        @Override
+        public int size() {
+            return ownerSize[index];
+        }
+
+        @Override
+        public boolean add(Task task) {
+            //与ArrayList相同，任务已经在其他列表中时也不会从那里删除
+            append(index, freeSlot(task));
+            modCount++;
+            return true;
+        }
+
+        @Override
+        public Task remove(int i) {
+            Task task = get(i);
+            TaskStore.this.remove(ownerTasks[index][i]);
+            modCount++;
+            return task;
+        }
+
+        @Override
+        public boolean remove(Object o) {
+            int slot = o instanceof Task ? ownedSlot((Task) o, index) : NO_SLOT;
+            if (slot != NO_SLOT) {
+                TaskStore.this.remove(slot);
+                modCount++;
+                return true;
+            }
+            return super.remove(o);
+        }
+    }
+}
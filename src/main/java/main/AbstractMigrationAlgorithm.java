@@ -0,0 +1,187 @@
+package main;
+
+import evaluation.Evalution;
+import graph.BetweennessSampling;
+import graph.GroupSubgraphCache;
+import input.Agent;
+import input.ExperimentResult;
+import input.Group;
+import input.MigrationRecord;
+import input.Task;
+import org.jgrapht.alg.interfaces.ShortestPathAlgorithm;
+import org.jgrapht.alg.shortestpath.DijkstraShortestPath;
+import org.jgrapht.graph.DefaultUndirectedWeightedGraph;
+import org.jgrapht.graph.DefaultWeightedEdge;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/***
+ * 迁移算法的公共流程：建立编号到组件的索引、初始化任务分配和故障、构造最短路，
+ * 然后执行各算法自己的迁移过程，最后由各算法按自己的方式评价
+ * 迁移统一通过newExecutor得到的MigrationExecutor执行，addListener加入的监听器对所有算法都生效
+ */
+public abstract class AbstractMigrationAlgorithm implements MigrationAlgorithm {
+    protected List<Task> tasks;
+    protected DefaultUndirectedWeightedGraph<Integer, DefaultWeightedEdge> arcGraph;
+    protected List<Agent> robots;
+    protected HashMap<Integer, Group> idToGroups;
+    protected HashMap<Integer, Agent> idToRobots;
+    protected ShortestPathAlgorithm<Integer, DefaultWeightedEdge> shortestPath;
+    protected Evalution evalution;
+    protected Double a;
+    protected Double b;
+    protected Double faultP;
+    protected Long seed;
+    //算法自己使用的随机数，之后的模拟器等需要随机数时从这里split
+    protected SplittableRandom random;
+    private List<MigrationListener> listeners = new ArrayList<>();
+    private PhaseTimer phaseTimer;
+    //leader和后备节点选择使用的近似介数中心性，不设置时为精确值
+    private BetweennessSampling betweennessSampling;
+    private HashMap<Integer, Group> initialGroups;
+    private List<Agent> initialFaults = new ArrayList<>();
+
+    protected AbstractMigrationAlgorithm(List<Task> tasks, DefaultUndirectedWeightedGraph<Integer, DefaultWeightedEdge> arcGraph,
+                                         List<Agent> robots, Double a, Double b) {
+        this.tasks = tasks;
+        this.arcGraph = arcGraph;
+        this.robots = robots;
+        idToGroups = new HashMap<>();
+        idToRobots = new HashMap<>();
+        this.a = a;
+        this.b = b;
+    }
+
+    @Override
+    public void addListener(MigrationListener listener) {
+        listeners.add(listener);
+    }
+
+    @Override
+    public void setFaultP(Double faultP) {
+        this.faultP = faultP;
+    }
+
+    @Override
+    public void setSeed(Long seed) {
+        this.seed = seed;
+    }
+
+    @Override
+    public void setInitialGroups(HashMap<Integer, Group> idToGroups) {
+        this.initialGroups = idToGroups;
+    }
+
+    @Override
+    public void setPhaseTimer(PhaseTimer phaseTimer) {
+        this.phaseTimer = phaseTimer;
+    }
+
+    public void setBetweennessSampling(BetweennessSampling betweennessSampling) {
+        this.betweennessSampling = betweennessSampling;
+    }
+
+    @Override
+    public List<Agent> getInitialFaults() {
+        return initialFaults;
+    }
+
+    @Override
+    public ExperimentResult run() {
+        setUp();
+        //执行任务迁移
+        List<MigrationRecord> migrationRecords = migrate();
+        phase(PhaseTimer.EVALUATION);
+        ExperimentResult experimentResult = evaluate(migrationRecords);
+        endPhase();
+        return experimentResult;
+    }
+
+    @Override
+    public List<MigrationRecord> onFault(List<Agent> failed) {
+        //默认再执行一次各算法自己的迁移过程：之前的故障组件已经迁空，实际迁走的是新故障组件上的任务
+        if (evalution == null) {
+            throw new IllegalStateException("需要先调用run");
+        }
+        List<MigrationRecord> migrationRecords = migrate();
+        endPhase();
+        return migrationRecords;
+    }
+
+    protected void setUp() {
+        //初始化场景：故障、分组、评估器和最短路
+        System.out.println(getName()+"Run");
+        phase(PhaseTimer.INITIALIZE);
+        //初始化和算法各用一个split出来的随机数，互不影响
+        SplittableRandom root = seed == null ? new SplittableRandom() : new SplittableRandom(seed);
+        Initialize ini = newInitialize(faultP, root);
+        random = root.split();
+        evalution = new Evalution(idToRobots, idToGroups);
+        for (Agent robot : robots) {
+            idToRobots.put(robot.getRobotId(), robot);
+        }
+        if (initialGroups != null) {
+            //机器人上已经有初始任务和故障，组的负载、容量和交互水平也已经设置好，再执行Initialize会重复计算
+            idToGroups.putAll(initialGroups);
+        } else {
+            ini.run(tasks, robots, idToGroups, idToRobots);
+        }
+        initialFaults = new ArrayList<>();
+        for (Agent robot : robots) {
+            if (robot.getFaultA() == 1) {
+                initialFaults.add(robot);
+            }
+        }
+        //DijkstraShortestPath在查询时才计算，之后加入leader之间的边也能反映在结果中
+        shortestPath = new DijkstraShortestPath<>(arcGraph);
+    }
+
+    static Initialize newInitialize(Double faultP, SplittableRandom root) {
+        //使用root的第一个split；SnapshotConverter --initialized --seed与之相同，快照与同一种子直接运行的初始状态一致
+        return faultP == null ? new Initialize(root.split()) : new Initialize(faultP, root.split());
+    }
+
+    protected void phase(String phase) {
+        //结束上一个阶段，开始统计phase
+        if (phaseTimer != null) {
+            phaseTimer.begin(phase);
+        }
+    }
+
+    protected void endPhase() {
+        if (phaseTimer != null) {
+            phaseTimer.end();
+        }
+    }
+
+    protected GroupSubgraphCache newGroupSubgraphCache() {
+        //各组的导出子图和介数中心性缓存，按setBetweennessSampling决定是否抽样
+        GroupSubgraphCache groupSubgraphCache = new GroupSubgraphCache(arcGraph, idToRobots);
+        groupSubgraphCache.setSampling(betweennessSampling);
+        return groupSubgraphCache;
+    }
+
+    protected MigrationExecutor newExecutor() {
+        //任务列表在初始化之后交给taskStore维护
+        MigrationExecutor executor = new MigrationExecutor(idToGroups, idToRobots);
+        for (MigrationListener listener : listeners) {
+            executor.addListener(listener);
+        }
+        return executor;
+    }
+
+    protected ExperimentResult result(Double meanMigrationCost, Double meanExecuteCost, Double meansurvivalRate) {
+        ExperimentResult experimentResult = new ExperimentResult();
+        experimentResult.setMeanMigrationCost(meanMigrationCost);
+        experimentResult.setMeanExecuteCost(meanExecuteCost);
+        experimentResult.setMeansurvivalRate(meansurvivalRate);
+        return experimentResult;
+    }
+
+    protected abstract List<MigrationRecord> migrate();
+
+    protected abstract ExperimentResult evaluate(List<MigrationRecord> migrationRecords);
+}
@@ -0,0 +1,387 @@
+package main;
+
+import MPFTM.MPFTM;
+import graph.CsrGraph;
+import input.Agent;
+import input.CascadeResult;
+import input.Group;
+import input.MigrationRecord;
+import input.Scenario;
+import input.ScenarioGenerator;
+import input.ScenarioLoader;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.function.Consumer;
+
+/***
+ * 级联故障的离散事件模拟：过载故障概率faultO原来只参与存活率的评价，这里让过载真正引发新的故障
+ * 事件队列按(时间, 加入顺序)排列，有两种事件：
+ *   故障：组件出现功能故障（faultA=1），reactionDelay之后触发一次迁移波次，同一时刻的故障合并到同一个波次
+ *   迁移波次：调用算法的onFault迁走新故障组件上的任务，然后对这次接收了任务的组件、以及新故障组件在原始拓扑中的邻居
+ *            按当前负载重新计算faultO，以 min(1, overloadScale*faultO) 的概率在propagationDelay之后出现过载故障
+ *   恢复：设置了恢复延迟时，过载故障的组件在它所在的迁移波次之后recoveryDelay恢复（faultA=0），mpftm通过onRecovery增量更新势场，
+ *        其余算法在下一次迁移时读取恢复后的状态；每个组件最多恢复一次，恢复后仍可能再次过载故障
+ * 初始故障由Initialize产生，算法run完成第0个波次；队列为空时级联被控制住
+ * 传播使用算法加入leader之间的边之前的拓扑，不同算法的传播路径相同
+ * 每个波次记录onFault的耗时，按波次中的故障数折算成单次故障的处理延迟
+ * 算法mpftm逐个增量处理新故障，mpftm-rerun每个波次重新执行整个迁移过程，用来对比延迟
+ * 用法：CascadeSimulator 输出文件.csv [--dataset 图文件 机器人文件 任务文件] [--synthetic 机器人数 组数 生成种子]
+ *      [--algorithms hgtm,mpftm,GBMA,MMLMA] [--scale 0.1] [--faultP 0.1] [--a 0.1] [--runs 5] [--seed 1] [--waves 波次文件.csv]
+ *      [--recovery 恢复延迟] [--failover-depth 4]
+ *      算法另外可选mpftm-rerun；--failover-depth设置mpftm的替换链深度
+ */
+public class CascadeSimulator {
+    public static final String HEADER = "algorithm,run,robots,initialFaults,overloadFaults,cascadeDepth,waves,migrations,containmentTime,events,eventsPerSecond,elapsedMillis,survivingRobots,meanFaultLatencyMicros,maxFaultLatencyMicros,recoveries";
+    public static final String WAVE_HEADER = "algorithm,time,depth,failed,migrations,candidates,triggered,failedRobots";
+    private static final int FAULT = 0;
+    private static final int WAVE = 1;
+    private static final int RECOVERY = 2;
+
+    private double overloadScale = 0.1;
+    private double reactionDelay = 1.0;
+    private double propagationDelay = 1.0;
+    //不大于0时故障的组件不恢复
+    private double recoveryDelay = 0;
+    private Consumer<String> waveLog;
+
+    public void setOverloadScale(double overloadScale) {
+        this.overloadScale = overloadScale;
+    }
+
+    public void setReactionDelay(double reactionDelay) {
+        this.reactionDelay = reactionDelay;
+    }
+
+    public void setPropagationDelay(double propagationDelay) {
+        this.propagationDelay = propagationDelay;
+    }
+
+    public void setRecoveryDelay(double recoveryDelay) {
+        this.recoveryDelay = recoveryDelay;
+    }
+
+    public void setWaveLog(Consumer<String> waveLog) {
+        //每个迁移波次输出一行，格式见WAVE_HEADER
+        this.waveLog = waveLog;
+    }
+
+    private static class Event implements Comparable<Event> {
+        private final double time;
+        private final long seq;
+        private final int type;
+        private final Agent robot;
+        private final int depth;
+
+        private Event(double time, long seq, int type, Agent robot, int depth) {
+            this.time = time;
+            this.seq = seq;
+            this.type = type;
+            this.robot = robot;
+            this.depth = depth;
+        }
+
+        @Override
+        public int compareTo(Event o) {
+            int c = Double.compare(time, o.time);
+            return c != 0 ? c : Long.compare(seq, o.seq);
+        }
+    }
+
+    public CascadeResult simulate(MigrationAlgorithm algorithm, Scenario scenario, SplittableRandom random) {
+        //algorithm需要是在scenario上新建、还没有run过的算法
+        List<Agent> robots = scenario.getRobots();
+        HashMap<Integer, Agent> idToRobots = new HashMap<>();
+        for (Agent robot : robots) {
+            idToRobots.put(robot.getRobotId(), robot);
+        }
+        CsrGraph topology = new CsrGraph(scenario.getArcGraph(), idToRobots);
+        Set<Agent> receivers = new LinkedHashSet<>();
+        int[] migrationCount = new int[1];
+        algorithm.addListener((robot, robotMigrated, migrationTask, record) -> {
+            receivers.add(robotMigrated);
+            migrationCount[0]++;
+        });
+
+        CascadeResult result = new CascadeResult();
+        result.setAlgorithm(algorithm.getName());
+        result.setRobots(robots.size());
+        long startTime = System.nanoTime();
+        algorithm.run();
+        int migrations = migrationCount[0];
+
+        //第0个波次：Initialize产生的故障已经在run中处理
+        //故障集合由模拟器自己维护，HGTM等算法在迁移中会把故障组件的faultA改回0
+        List<Agent> failed = new ArrayList<>(algorithm.getInitialFaults());
+        Set<Agent> faulted = new HashSet<>(failed);
+        result.setInitialFaults(failed.size());
+        PriorityQueue<Event> queue = new PriorityQueue<>();
+        Set<Agent> doomed = new HashSet<>();
+        Set<Agent> recovered = new HashSet<>();
+        int recoveries = 0;
+        long[] seq = new long[1];
+        long events = 0;
+        int waves = 1;
+        int depth = 0;
+        int overloadFaults = 0;
+        double time = 0;
+        double containmentTime = 0;
+        long faultNanos = 0;
+        long maxFaultLatency = 0;
+        int waveDepth = 0;
+        propagate(algorithm.getName(), time, 0, failed, migrations, receivers, topology, idToRobots, robots, random, queue, faulted, doomed, seq);
+        receivers.clear();
+        failed = new ArrayList<>();
+        boolean waveScheduled = false;
+        long loopStart = System.nanoTime();
+        while (!queue.isEmpty()) {
+            Event event = queue.poll();
+            events++;
+            time = event.time;
+            if (event.type == FAULT) {
+                Agent robot = event.robot;
+                faulted.add(robot);
+                overloadFaults++;
+                failed.add(robot);
+                waveDepth = Math.max(waveDepth, event.depth);
+                depth = Math.max(depth, event.depth);
+                if (!waveScheduled) {
+                    queue.add(new Event(time + reactionDelay, seq[0]++, WAVE, null, 0));
+                    waveScheduled = true;
+                }
+            } else if (event.type == RECOVERY) {
+                Agent robot = event.robot;
+                if (algorithm instanceof MPFTM) {
+                    ((MPFTM) algorithm).onRecovery(robot.getRobotId());
+                } else {
+                    robot.setFaultA(0);
+                }
+                //恢复之后可以再次被过载抽中
+                faulted.remove(robot);
+                doomed.remove(robot);
+                recoveries++;
+            } else {
+                waveScheduled = false;
+                //故障在交给算法时才标记，两次波次之间的恢复等增量更新看到的仍是算法已经处理过的故障
+                for (Agent robot : failed) {
+                    robot.setFaultA(1);
+                }
+                long faultStart = System.nanoTime();
+                List<MigrationRecord> migrationRecords = algorithm.onFault(failed);
+                long waveNanos = System.nanoTime() - faultStart;
+                faultNanos += waveNanos;
+                maxFaultLatency = Math.max(maxFaultLatency, waveNanos / failed.size());
+                migrations += migrationRecords.size();
+                waves++;
+                containmentTime = time;
+                propagate(algorithm.getName(), time, waveDepth, failed, migrationRecords.size(), receivers, topology, idToRobots, robots, random, queue, faulted, doomed, seq);
+                if (recoveryDelay > 0) {
+                    for (Agent robot : failed) {
+                        if (recovered.add(robot)) {
+                            queue.add(new Event(time + recoveryDelay, seq[0]++, RECOVERY, robot, 0));
+                        }
+                    }
+                }
+                receivers.clear();
+                failed = new ArrayList<>();
+                waveDepth = 0;
+            }
+        }
+        result.setEventNanos(System.nanoTime() - loopStart);
+        result.setElapsedNanos(System.nanoTime() - startTime);
+        result.setOverloadFaults(overloadFaults);
+        result.setCascadeDepth(depth);
+        result.setWaves(waves);
+        result.setMigrations(migrations);
+        result.setContainmentTime(containmentTime);
+        result.setEvents(events);
+        result.setFaultNanos(faultNanos);
+        result.setMaxFaultLatencyNanos(maxFaultLatency);
+        result.setRecoveries(recoveries);
+        result.setSurvivingRobots(robots.size() - faulted.size());
+        return result;
+    }
+
+    private void propagate(String name, double time, int depth, List<Agent> failed, int migrations, Set<Agent> receivers, CsrGraph topology,
+                           HashMap<Integer, Agent> idToRobots, List<Agent> robots, SplittableRandom random,
+                           PriorityQueue<Event> queue, Set<Agent> faulted, Set<Agent> doomed, long[] seq) {
+        //候选：这次接收了任务的组件，以及新故障组件的邻居
+        Set<Agent> candidates = new LinkedHashSet<>(receivers);
+        for (Agent robot : failed) {
+            int index = topology.indexOf(robot.getRobotId());
+            for (int k = topology.begin(index); k < topology.end(index); k++) {
+                candidates.add(topology.agent(topology.neighbor(k)));
+            }
+        }
+        //按当前负载汇总组负载，与迁移中维护的组负载相同
+        HashMap<Integer, Group> idToGroups = new HashMap<>();
+        for (Agent robot : robots) {
+            Group group = idToGroups.get(robot.getGroupId());
+            if (group == null) {
+                group = new Group();
+                group.setGroupId(robot.getGroupId());
+                group.setRobotIdInGroup(new HashSet<>());
+                idToGroups.put(robot.getGroupId(), group);
+            }
+            group.setGroupLoad(group.getGroupLoad() + robot.getLoad());
+            group.getRobotIdInGroup().add(robot.getRobotId());
+        }
+        Function function = new Function(idToRobots, idToGroups);
+        int triggered = 0;
+        int evaluated = 0;
+        for (Agent robot : candidates) {
+            if (faulted.contains(robot) || doomed.contains(robot)) {
+                continue;
+            }
+            evaluated++;
+            double faultO = 1 - function.calculateOverLoadIS(robot);
+            robot.setFaultO(faultO);
+            if (random.nextDouble() < Math.min(1.0, overloadScale * faultO)) {
+                doomed.add(robot);
+                queue.add(new Event(time + propagationDelay, seq[0]++, FAULT, robot, depth + 1));
+                triggered++;
+            }
+        }
+        if (waveLog != null) {
+            waveLog.accept(name + ',' + time + ',' + depth + ',' + failed.size() + ',' + migrations + ',' + evaluated + ',' + triggered + ',' + faulted.size());
+        }
+    }
+
+    private static String row(CascadeResult result, int run) {
+        return result.getAlgorithm() + ',' + run + ',' + result.getRobots() + ',' + result.getInitialFaults() + ',' + result.getOverloadFaults() + ','
+                + result.getCascadeDepth() + ',' + result.getWaves() + ',' + result.getMigrations() + ',' + result.getContainmentTime() + ','
+                + result.getEvents() + ',' + String.format(Locale.ROOT, "%.1f", result.getEventsPerSecond()) + ','
+                + result.getElapsedNanos() / 1000000 + ',' + result.getSurvivingRobots() + ','
+                + String.format(Locale.ROOT, "%.1f,%.1f", result.getMeanFaultLatencyNanos() / 1000, result.getMaxFaultLatencyNanos() / 1000.0) + ','
+                + result.getRecoveries();
+    }
+
+    private static void write(BufferedWriter writer, String row) {
+        try {
+            writer.write(row);
+            writer.newLine();
+            writer.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.out.println("用法：CascadeSimulator 输出文件.csv [--dataset 图文件 机器人文件 任务文件] [--synthetic 机器人数 组数 生成种子]");
+            System.out.println("     [--algorithms hgtm,mpftm,GBMA,MMLMA] [--scale 0.1] [--faultP 0.1] [--a 0.1] [--runs 5] [--seed 1] [--waves 波次文件.csv]");
+            System.out.println("     [--recovery 恢复延迟] [--failover-depth 4]");
+            return;
+        }
+        String graphFile = "Graph4.txt";
+        String robotFile = "RobotsInformation4.txt";
+        String tasksFile = "Task24.txt";
+        ScenarioGenerator generator = null;
+        LinkedHashMap<String, MigrationAlgorithmFactory> known = ParameterSweep.defaultAlgorithms();
+        List<String> names = new ArrayList<>(known.keySet());
+        known.put("mpftm-rerun", (tasks, arcGraph, robots, a0, b0) -> {
+            MPFTM mpftm = new MPFTM(tasks, arcGraph, robots, a0, b0);
+            mpftm.setIncrementalFaults(false);
+            return mpftm;
+        });
+        CascadeSimulator simulator = new CascadeSimulator();
+        Double a = 0.1;
+        Double faultP = 0.1;
+        int runs = 5;
+        long seed = 1;
+        String wavesFile = null;
+        int failoverDepth = 4;
+        for (int i = 1; i < args.length; i++) {
+            switch (args[i]) {
+                case "--dataset":
+                    graphFile = args[i + 1];
+                    robotFile = args[i + 2];
+                    tasksFile = args[i + 3];
+                    i += 3;
+                    break;
+                case "--synthetic":
+                    generator = new ScenarioGenerator();
+                    generator.setRobotCount(Integer.parseInt(args[i + 1]));
+                    generator.setGroupCount(Integer.parseInt(args[i + 2]));
+                    generator.setSeed(Long.parseLong(args[i + 3]));
+                    i += 3;
+                    break;
+                case "--algorithms":
+                    names = Arrays.asList(args[++i].split(","));
+                    break;
+                case "--scale":
+                    simulator.setOverloadScale(Double.parseDouble(args[++i]));
+                    break;
+                case "--faultP":
+                    faultP = Double.valueOf(args[++i]);
+                    break;
+                case "--a":
+                    a = Double.valueOf(args[++i]);
+                    break;
+                case "--runs":
+                    runs = Integer.parseInt(args[++i]);
+                    break;
+                case "--seed":
+                    seed = Long.parseLong(args[++i]);
+                    break;
+                case "--waves":
+                    wavesFile = args[++i];
+                    break;
+                case "--recovery":
+                    simulator.setRecoveryDelay(Double.parseDouble(args[++i]));
+                    break;
+                case "--failover-depth":
+                    failoverDepth = Integer.parseInt(args[++i]);
+                    break;
+                default:
+                    throw new IllegalArgumentException("未知参数：" + args[i]);
+            }
+        }
+        for (String name : names) {
+            if (!known.containsKey(name)) {
+                throw new IllegalArgumentException("未知算法：" + name + "，可选：" + known.keySet());
+            }
+        }
+        Scenario scenario = generator != null ? generator.generate() : new ScenarioLoader().load(graphFile, robotFile, tasksFile);
+        long startTime = System.currentTimeMillis();
+        try (BufferedWriter writer = Files.newBufferedWriter(Paths.get(args[0]), StandardCharsets.UTF_8);
+             BufferedWriter waveWriter = wavesFile == null ? null : Files.newBufferedWriter(Paths.get(wavesFile), StandardCharsets.UTF_8)) {
+            write(writer, HEADER);
+            if (waveWriter != null) {
+                write(waveWriter, WAVE_HEADER);
+                simulator.setWaveLog(row -> write(waveWriter, row));
+            }
+            for (int run = 0; run < runs; run++) {
+                //同一次运行中各算法的初始化和过载抽样使用相同的种子
+                for (String name : names) {
+                    Scenario copy = scenario.copy();
+                    MigrationAlgorithm algorithm = known.get(name).create(copy.getTasks(), copy.getArcGraph(), copy.getRobots(), a, 1 - a);
+                    algorithm.setFaultP(faultP);
+                    algorithm.setSeed(seed + run);
+                    if (algorithm instanceof MPFTM) {
+                        ((MPFTM) algorithm).setFailoverDepth(failoverDepth);
+                    }
+                    CascadeResult result = simulator.simulate(algorithm, copy, new SplittableRandom(seed + run));
+                    result.setAlgorithm(name);
+                    write(writer, row(result, run));
+                }
+            }
+        }
+        System.out.println("写入" + args[0] + "，运行时间：" + (System.currentTimeMillis() - startTime) + "ms");
+    }
+}
@@ -0,0 +1,317 @@
+package main;
+
+import MPFTM.FinderLeader;
+import graph.BetweennessSampling;
+import graph.GroupSubgraphCache;
+import graph.SampledBetweenness;
+import input.Agent;
+import input.Group;
+import input.Scenario;
+import input.ScenarioGenerator;
+import org.jgrapht.alg.interfaces.VertexScoringAlgorithm;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+/***
+ * 近似介数中心性与精确算法的对比：在组规模逐渐增大的合成场景上，分别用精确的BetweennessCentrality
+ * 和各种抽样设置计算每个组的介数中心性，记录耗时（各次运行的中位数），以及与精确结果相比
+ * leader选择（FinderLeader）相同的组的比例、介数中心性最大的topK个节点的平均重合比例
+ * 每个规模只初始化一次，所有设置使用相同的负载和故障；每个设置先预热一次，抽样的第r次运行使用种子seed+r
+ * 用法：CentralityBenchmark 输出文件.csv [--group-sizes 250,500,1000] [--groups 4] [--scalefree]
+ *      [--samples 16,64,256] [--error 0.1,0.05] [--topk 3] [--runs 3] [--a 0.1] [--faultP 0.3] [--seed 1]
+ * --topk同时作为比较重合的节点数，并为每个抽样设置再加一个提前停止的版本
+ */
+public class CentralityBenchmark {
+    public static final String HEADER = "groupSize,groups,edges,mode,meanSamples,millis,speedup,leaderAgreement,topKOverlap";
+
+    private List<Integer> groupSizes = Arrays.asList(250, 500, 1000);
+    private int groups = 4;
+    private boolean scaleFree;
+    private List<BetweennessSampling> samplings = new ArrayList<>();
+    private int topK = 3;
+    private int runs = 3;
+    private Double a = 0.1;
+    private Double faultP = 0.3;
+    private long seed = 1L;
+
+    private static class Selection {
+        private long nanos;
+        private long samples;
+        private HashMap<Integer, Integer> leaders = new HashMap<>();
+        private HashMap<Integer, Set<Integer>> tops = new HashMap<>();
+    }
+
+    public void setGroupSizes(List<Integer> groupSizes) {
+        this.groupSizes = groupSizes;
+    }
+
+    public void setGroups(int groups) {
+        this.groups = Math.max(1, groups);
+    }
+
+    public void setScaleFree(boolean scaleFree) {
+        this.scaleFree = scaleFree;
+    }
+
+    public void addSampling(BetweennessSampling sampling) {
+        samplings.add(sampling);
+    }
+
+    public void setTopK(int topK) {
+        this.topK = Math.max(1, topK);
+    }
+
+    public void setRuns(int runs) {
+        this.runs = Math.max(1, runs);
+    }
+
+    public void setA(Double a) {
+        this.a = a;
+    }
+
+    public void setFaultP(Double faultP) {
+        this.faultP = faultP;
+    }
+
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+
+    public void run(String outputFile) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(Paths.get(outputFile), StandardCharsets.UTF_8)) {
+            writer.write(HEADER);
+            writer.newLine();
+            for (int groupSize : groupSizes) {
+                ScenarioGenerator generator = new ScenarioGenerator();
+                generator.setRobotCount(groupSize * groups);
+                generator.setGroupCount(groups);
+                if (scaleFree) {
+                    generator.setIntraDegree("scalefree:2");
+                    generator.setInterDegree("scalefree:2");
+                }
+                generator.setSeed(seed);
+                Scenario scenario = generator.generate();
+                HashMap<Integer, Agent> idToRobots = new HashMap<>();
+                for (Agent robot : scenario.getRobots()) {
+                    idToRobots.put(robot.getRobotId(), robot);
+                }
+                HashMap<Integer, Group> idToGroups = new HashMap<>();
+                new Initialize(faultP, new SplittableRandom(seed)).run(scenario.getTasks(), scenario.getRobots(), idToGroups, idToRobots);
+                int edges = scenario.getArcGraph().edgeSet().size();
+
+                List<Selection> exactSelections = new ArrayList<>();
+                double exactMillis = median(scenario, idToGroups, idToRobots, null, exactSelections);
+                Selection exact = exactSelections.get(0);
+                writer.write(row(groupSize, edges, "exact", exact.samples / (double) idToGroups.size(), exactMillis, 1.0, 1.0, 1.0));
+                writer.newLine();
+                writer.flush();
+                for (BetweennessSampling sampling : samplings) {
+                    List<Selection> selections = new ArrayList<>();
+                    double millis = median(scenario, idToGroups, idToRobots, sampling, selections);
+                    double samples = 0;
+                    double leaderAgreement = 0;
+                    double overlap = 0;
+                    for (Selection selection : selections) {
+                        samples += selection.samples / (double) idToGroups.size();
+                        leaderAgreement += agreement(exact, selection);
+                        overlap += overlap(exact, selection);
+                    }
+                    writer.write(row(groupSize, edges, sampling.describe(), samples / runs, millis, exactMillis / millis,
+                            leaderAgreement / runs, overlap / runs));
+                    writer.newLine();
+                    writer.flush();
+                }
+            }
+        }
+    }
+
+    private double median(Scenario scenario, HashMap<Integer, Group> idToGroups, HashMap<Integer, Agent> idToRobots,
+                          BetweennessSampling sampling, List<Selection> selections) {
+        //第一次运行用于预热，不计入结果
+        double[] millis = new double[runs];
+        for (int r = -1; r < runs; r++) {
+            if (sampling != null) {
+                sampling.setSeed(seed + Math.max(r, 0));
+            }
+            Selection selection = select(scenario, idToGroups, idToRobots, sampling);
+            if (r >= 0) {
+                millis[r] = selection.nanos / 1e6;
+                selections.add(selection);
+            }
+        }
+        Arrays.sort(millis);
+        return millis[runs / 2];
+    }
+
+    private Selection select(Scenario scenario, HashMap<Integer, Group> idToGroups, HashMap<Integer, Agent> idToRobots,
+                             BetweennessSampling sampling) {
+        Selection selection = new Selection();
+        GroupSubgraphCache cache = new GroupSubgraphCache(scenario.getArcGraph(), idToRobots);
+        cache.setSampling(sampling);
+        //先构建子图，计时只包括介数中心性
+        for (Group group : idToGroups.values()) {
+            cache.getSubGraph(group);
+        }
+        long startTime = System.nanoTime();
+        for (Group group : idToGroups.values()) {
+            VertexScoringAlgorithm<Integer, Double> betweennessCentrality = cache.getBetweenness(group);
+            betweennessCentrality.getScores();
+            if (betweennessCentrality instanceof SampledBetweenness) {
+                selection.samples += ((SampledBetweenness) betweennessCentrality).getSamples();
+            } else {
+                selection.samples += group.getRobotIdInGroup().size();
+            }
+        }
+        selection.nanos = System.nanoTime() - startTime;
+        FinderLeader finderLeader = new FinderLeader(cache);
+        for (Map.Entry<Integer, Group> entry : idToGroups.entrySet()) {
+            Group group = entry.getValue();
+            Agent leader = finderLeader.findLeader(group, idToRobots, idToGroups, scenario.getArcGraph(), a, 1 - a);
+            selection.leaders.put(entry.getKey(), leader.getRobotId());
+            selection.tops.put(entry.getKey(), top(cache.getBetweenness(group).getScores(), topK));
+        }
+        return selection;
+    }
+
+    private static Set<Integer> top(Map<Integer, Double> scores, int k) {
+        List<Map.Entry<Integer, Double>> entries = new ArrayList<>(scores.entrySet());
+        entries.sort(Collections.reverseOrder(Map.Entry.comparingByValue()));
+        Set<Integer> top = new HashSet<>();
+        for (int i = 0; i < Math.min(k, entries.size()); i++) {
+            top.add(entries.get(i).getKey());
+        }
+        return top;
+    }
+
+    private static double agreement(Selection exact, Selection selection) {
+        int same = 0;
+        for (Map.Entry<Integer, Integer> entry : exact.leaders.entrySet()) {
+            if (entry.getValue().equals(selection.leaders.get(entry.getKey()))) {
+                same++;
+            }
+        }
+        return (double) same / exact.leaders.size();
+    }
+
+    private static double overlap(Selection exact, Selection selection) {
+        double sum = 0;
+        for (Map.Entry<Integer, Set<Integer>> entry : exact.tops.entrySet()) {
+            Set<Integer> common = new HashSet<>(entry.getValue());
+            common.retainAll(selection.tops.get(entry.getKey()));
+            sum += entry.getValue().isEmpty() ? 1.0 : (double) common.size() / entry.getValue().size();
+        }
+        return sum / exact.tops.size();
+    }
+
+    private String row(int groupSize, int edges, String mode, double samples, double millis, double speedup,
+                       double leaderAgreement, double overlap) {
+        return String.format(Locale.ROOT, "%d,%d,%d,%s,%.1f,%.3f,%.2f,%.3f,%.3f", groupSize, groups, edges, mode, samples, millis, speedup,
+                leaderAgreement, overlap);
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.out.println("用法：CentralityBenchmark 输出文件.csv [--group-sizes 250,500,1000] [--groups 4] [--scalefree]");
+            System.out.println("     [--samples 16,64,256] [--error 0.1,0.05] [--topk 3] [--runs 3] [--a 0.1] [--faultP 0.3] [--seed 1]");
+            return;
+        }
+        CentralityBenchmark benchmark = new CentralityBenchmark();
+        List<Integer> samples = Arrays.asList(16, 64, 256);
+        List<Double> errorBounds = new ArrayList<>();
+        boolean earlyStop = false;
+        for (int i = 1; i < args.length; i++) {
+            switch (args[i]) {
+                case "--group-sizes":
+                    benchmark.setGroupSizes(parseInts(args[++i]));
+                    break;
+                case "--groups":
+                    benchmark.setGroups(Integer.parseInt(args[++i]));
+                    break;
+                case "--scalefree":
+                    benchmark.setScaleFree(true);
+                    break;
+                case "--samples":
+                    samples = parseInts(args[++i]);
+                    break;
+                case "--error":
+                    errorBounds = new ArrayList<>();
+                    for (String value : args[++i].split(",")) {
+                        errorBounds.add(Double.valueOf(value));
+                    }
+                    break;
+                case "--topk":
+                    benchmark.setTopK(Integer.parseInt(args[++i]));
+                    earlyStop = true;
+                    break;
+                case "--runs":
+                    benchmark.setRuns(Integer.parseInt(args[++i]));
+                    break;
+                case "--a":
+                    benchmark.setA(Double.valueOf(args[++i]));
+                    break;
+                case "--faultP":
+                    benchmark.setFaultP(Double.valueOf(args[++i]));
+                    break;
+                case "--seed":
+                    benchmark.setSeed(Long.parseLong(args[++i]));
+                    break;
+                default:
+                    throw new IllegalArgumentException("未知参数：" + args[i]);
+            }
+        }
+        List<BetweennessSampling> samplings = new ArrayList<>();
+        for (Integer sampleCount : samples) {
+            BetweennessSampling sampling = new BetweennessSampling();
+            sampling.setSamples(sampleCount);
+            samplings.add(sampling);
+        }
+        for (Double errorBound : errorBounds) {
+            BetweennessSampling sampling = new BetweennessSampling();
+            sampling.setErrorBound(errorBound);
+            samplings.add(sampling);
+        }
+        if (earlyStop) {
+            //每个设置再加一个提前停止的版本，另外加一个不限源点数、只靠提前停止的版本
+            List<BetweennessSampling> stopped = new ArrayList<>();
+            for (BetweennessSampling sampling : samplings) {
+                BetweennessSampling copy = new BetweennessSampling();
+                copy.setSamples(sampling.getSamples());
+                copy.setErrorBound(sampling.getErrorBound());
+                copy.setTopK(benchmark.topK);
+                stopped.add(copy);
+            }
+            BetweennessSampling unbounded = new BetweennessSampling();
+            unbounded.setTopK(benchmark.topK);
+            stopped.add(unbounded);
+            samplings.addAll(stopped);
+        }
+        for (BetweennessSampling sampling : samplings) {
+            benchmark.addSampling(sampling);
+        }
+        long startTime = System.currentTimeMillis();
+        benchmark.run(args[0]);
+        System.out.println("写入" + args[0] + "，运行时间：" + (System.currentTimeMillis() - startTime) + "ms");
+    }
+
+    private static List<Integer> parseInts(String value) {
+        List<Integer> values = new ArrayList<>();
+        for (String part : value.split(",")) {
+            values.add(Integer.valueOf(part));
+        }
+        return values;
+    }
+}
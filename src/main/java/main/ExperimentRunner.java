@@ -0,0 +1,94 @@
+package main;
+
+import input.AlgorithmResult;
+import input.Scenario;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/***
+ * 多个迁移算法在同一个场景上的对比实验
+ * 每个算法在自己的场景副本上运行，互不影响：结果与依次在新读入的场景上运行相同
+ * 复制只读取原场景，各线程各自复制再运行，总耗时接近最慢的那个算法
+ */
+public class ExperimentRunner {
+    private int threads;
+    private Long seed;
+
+    public ExperimentRunner() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    public ExperimentRunner(int threads) {
+        this.threads = Math.max(1, threads);
+    }
+
+    public void setSeed(Long seed) {
+        //所有算法使用同一个种子，初始化得到的场景相同
+        this.seed = seed;
+    }
+
+    public List<AlgorithmResult> run(Scenario scenario, List<MigrationAlgorithmFactory> factories, Double a, Double b) {
+        //结果按factories的顺序返回
+        int poolSize = Math.min(threads, factories.size());
+        if (poolSize <= 1) {
+            return runSequential(scenario, factories, a, b);
+        }
+        ExecutorService pool = Executors.newFixedThreadPool(poolSize);
+        try {
+            List<Future<AlgorithmResult>> futures = new ArrayList<>();
+            for (int i = 0; i < factories.size(); i++) {
+                MigrationAlgorithmFactory factory = factories.get(i);
+                futures.add(pool.submit(() -> runOne(factory, scenario.copy(), a, b, seed)));
+            }
+            List<AlgorithmResult> results = new ArrayList<>();
+            for (Future<AlgorithmResult> future : futures) {
+                results.add(get(future));
+            }
+            return results;
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    public List<AlgorithmResult> runSequential(Scenario scenario, List<MigrationAlgorithmFactory> factories, Double a, Double b) {
+        List<AlgorithmResult> results = new ArrayList<>();
+        for (MigrationAlgorithmFactory factory : factories) {
+            results.add(runOne(factory, scenario.copy(), a, b, seed));
+        }
+        return results;
+    }
+
+    private static AlgorithmResult runOne(MigrationAlgorithmFactory factory, Scenario scenario, Double a, Double b, Long seed) {
+        MigrationAlgorithm algorithm = factory.create(scenario, a, b);
+        algorithm.setSeed(seed);
+        long startTime = System.currentTimeMillis();
+        AlgorithmResult result = new AlgorithmResult();
+        result.setExperimentResult(algorithm.run());
+        result.setElapsedMillis(System.currentTimeMillis() - startTime);
+        result.setAlgorithm(algorithm.getName());
+        return result;
+    }
+
+    private static AlgorithmResult get(Future<AlgorithmResult> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("experiment interrupted", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+}
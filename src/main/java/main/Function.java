@@ -18,7 +18,7 @@ public class Function {
         this.idToGroups = idToGroups;
     }
 
-    public Double calculateOverLoadIS(Agent robot){
+    public double calculateOverLoadIS(Agent robot){
         //计算Individual Survivability
         double load = robot.getLoad();
         //获取组的生存评分
@@ -28,7 +28,7 @@ public class Function {
 
     }
 
-    private Double calculateGS(Group group) {
+    private double calculateGS(Group group) {
         //计算Group Survivability
         double groupLoad = group.getGroupLoad();
         //用类似sigmod函数的变体做0-1之间的单调非增函数
@@ -38,7 +38,7 @@ public class Function {
     }
 
 
-    public Double sig(double x) {
+    public double sig(double x) {
         return (Math.exp(Math.log(x+1))-Math.exp(-Math.log(x+1)))/
                 (Math.exp(Math.log(x+1))+Math.exp(-Math.log(x+1)));
     }
@@ -0,0 +1,78 @@
+package main;
+
+import input.IntDistribution;
+import input.ScenarioGenerator;
+
+import java.io.IOException;
+
+/***
+ * 生成合成场景，写成Graph名字.txt/RobotsInformation名字.txt/Task名字.txt三个文本文件，或者名字.snap快照
+ * 用法：GenerateScenario 名字 [--robots 1000] [--groups 100] [--intra random:2|scalefree:m] [--inter random:1|scalefree:m]
+ *      [--capacity uniform:5:20] [--weight uniform:1:5] [--tasks 任务数] [--task-size uniform:1:10]
+ *      [--initial 1.0] [--arrival uniform:T|poisson:rate|burst:period:count] [--seed 1] [--snapshot]
+ * 分布的写法见IntDistribution
+ */
+public class GenerateScenario {
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.out.println("用法：GenerateScenario 名字 [--robots 1000] [--groups 100] [--intra random:2|scalefree:m] [--inter random:1|scalefree:m]");
+            System.out.println("     [--capacity uniform:5:20] [--weight uniform:1:5] [--tasks 任务数] [--task-size uniform:1:10]");
+            System.out.println("     [--initial 1.0] [--arrival uniform:T|poisson:rate|burst:period:count] [--seed 1] [--snapshot]");
+            return;
+        }
+        ScenarioGenerator generator = new ScenarioGenerator();
+        boolean snapshot = false;
+        for (int i = 1; i < args.length; i++) {
+            switch (args[i]) {
+                case "--robots":
+                    generator.setRobotCount(Integer.parseInt(args[++i]));
+                    break;
+                case "--groups":
+                    generator.setGroupCount(Integer.parseInt(args[++i]));
+                    break;
+                case "--intra":
+                    generator.setIntraDegree(args[++i]);
+                    break;
+                case "--inter":
+                    generator.setInterDegree(args[++i]);
+                    break;
+                case "--capacity":
+                    generator.setCapacity(IntDistribution.parse(args[++i]));
+                    break;
+                case "--weight":
+                    generator.setEdgeWeight(IntDistribution.parse(args[++i]));
+                    break;
+                case "--tasks":
+                    generator.setTaskCount(Integer.parseInt(args[++i]));
+                    break;
+                case "--task-size":
+                    generator.setTaskSize(IntDistribution.parse(args[++i]));
+                    break;
+                case "--initial":
+                    generator.setInitialFraction(Double.parseDouble(args[++i]));
+                    break;
+                case "--arrival":
+                    generator.setArrival(args[++i]);
+                    break;
+                case "--seed":
+                    generator.setSeed(Long.parseLong(args[++i]));
+                    break;
+                case "--snapshot":
+                    snapshot = true;
+                    break;
+                default:
+                    throw new IllegalArgumentException("未知参数：" + args[i]);
+            }
+        }
+        long startTime = System.currentTimeMillis();
+        String name = args[0];
+        if (snapshot) {
+            generator.writeSnapshot(name + ".snap");
+            System.out.println("写入" + name + ".snap");
+        } else {
+            generator.writeText("Graph" + name + ".txt", "RobotsInformation" + name + ".txt", "Task" + name + ".txt");
+            System.out.println("写入Graph" + name + ".txt、RobotsInformation" + name + ".txt、Task" + name + ".txt");
+        }
+        System.out.println(generator.describe() + "，生成时间：" + (System.currentTimeMillis() - startTime) + "ms");
+    }
+}
@@ -12,6 +12,26 @@ import java.util.*;
  */
 public class Initialize {
     Double faultP = 0.3;
+    private SplittableRandom random;
+
+    public Initialize() {
+        this(new SplittableRandom());
+    }
+
+    public Initialize(SplittableRandom random) {
+        this.random = random;
+    }
+
+    public Initialize(Double faultP) {
+        this(faultP, new SplittableRandom());
+    }
+
+    public Initialize(Double faultP, SplittableRandom random) {
+        //faultP表示出现功能故障的节点占据整个系统中节点的比例
+        this.faultP = faultP;
+        this.random = random;
+    }
+
     public void run(List<Task> tasks, List<Agent> robots, HashMap<Integer, Group> idToGroups, HashMap<Integer, Agent> idToRobots) {
         iniTask(tasks, robots, idToGroups, idToRobots);
         iniFault(idToRobots,idToGroups);
@@ -93,8 +113,8 @@ public class Initialize {
                 capacitySum+=idToRobots.get(robotId).getCapacity();
             }
             group.setGroupCapacity(capacitySum);
-            int random = new Random().nextInt(2);
-            Double interactionLevel = random*0.1+0.1;
+            int level = random.nextInt(2);
+            Double interactionLevel = level*0.1+0.1;
             group.setInteractionLevel(interactionLevel);
         }
     }
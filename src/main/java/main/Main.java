@@ -4,15 +4,16 @@ import GBMA.GBMA;
 import HGTM.Hgtm;
 import MMLMA.MMLMA;
 import MPFTM.MPFTM;
+import input.AlgorithmResult;
 import input.ExperimentResult;
-import input.Reader;
+import input.Scenario;
+import input.ScenarioLoader;
 import input.Agent;
 import input.Task;
-import org.jgrapht.graph.DefaultUndirectedWeightedGraph;
-import org.jgrapht.graph.DefaultWeightedEdge;
 import evaluation.EvaluationEtraTarget;
 
 import java.io.IOException;
+import java.util.Arrays;
 import java.util.List;
 
 public class Main {
@@ -21,15 +22,23 @@ public class Main {
         tasksFile = "Task24.txt";
         robotFile = "RobotsInformation4.txt";
         graphFile = "Graph4.txt";
-        Reader reader = new Reader();
 
         //测试运行时间
         Double a = 0.1;
         Double b= 1-a;
 
-        List<Task> tasks = reader.readFileToTasks(tasksFile);
-        DefaultUndirectedWeightedGraph<Integer, DefaultWeightedEdge> arcGraph = reader.readFileToGraph(graphFile);
-        List<Agent> robots = reader.readFileToRobots(robotFile);
+        //参数可以是 图文件 机器人文件 任务文件，也可以是一个.snap快照文件
+        ScenarioLoader scenarioLoader = new ScenarioLoader();
+        Scenario scenario;
+        if (args.length == 1 && ScenarioLoader.isSnapshot(args[0])) {
+            scenario = scenarioLoader.load(args[0]);
+        } else if (args.length >= 3) {
+            scenario = scenarioLoader.load(args[0], args[1], args[2]);
+        } else {
+            scenario = scenarioLoader.load(graphFile, robotFile, tasksFile);
+        }
+        List<Task> tasks = scenario.getTasks();
+        List<Agent> robots = scenario.getRobots();
         EvaluationEtraTarget evaluationEtraTarget = new EvaluationEtraTarget();
 
         Double robotCapacityStd = evaluationEtraTarget.calculateRobotCapacityStd(robots);
@@ -37,57 +46,25 @@ public class Main {
 
         Double meanRobotCapacity = evaluationEtraTarget.calculateMeanRobotCapacity(robots);
         Double meanTaskSize = evaluationEtraTarget.calculateMeanTaskSize(tasks);
+        //四个算法各自在一份场景副本上并行运行，互不影响
+        List<MigrationAlgorithmFactory> factories = Arrays.asList(Hgtm::new, MPFTM::new, GBMA::new, MMLMA::new);
         long startTime = System.currentTimeMillis();
-
-        Hgtm hgtm = new Hgtm(tasks, arcGraph, robots, a, b);
-        ExperimentResult experimentResulthgtm = hgtm.hgtmRun();
-
+        ExperimentRunner experimentRunner = new ExperimentRunner();
+        //-Dseed=种子 固定随机数，便于对比两次运行
+        experimentRunner.setSeed(Long.getLong("seed"));
+        List<AlgorithmResult> results = experimentRunner.run(scenario, factories, a, b);
         long endTime = System.currentTimeMillis();
-
-        System.out.println("程序运行时间：" + (endTime - startTime) + "ms");
-        printExperimentResult(a, b, robotCapacityStd, taskSizeStd, meanRobotCapacity, meanTaskSize, experimentResulthgtm);
-
-        System.out.println("*******************************");
-        System.out.println("                               ");
-
-        startTime = System.currentTimeMillis();
-        MPFTM mpftm = new MPFTM(tasks, arcGraph, robots, a, b);
-        ExperimentResult experimentResult = mpftm.mpftmRun();
-
-
-
-        endTime = System.currentTimeMillis();
-
-        System.out.println("程序运行时间：" + (endTime - startTime) + "ms");
-        printExperimentResult(a, b, robotCapacityStd, taskSizeStd, meanRobotCapacity, meanTaskSize, experimentResult);
-
-        System.out.println("*******************************");
-        System.out.println("                               ");
-
-        startTime = System.currentTimeMillis();
-        GBMA GBMA = new GBMA(tasks, arcGraph, robots, a, b);
-        ExperimentResult experimentResultgbma = GBMA.GBMARun();
-
-
-
-        endTime = System.currentTimeMillis();
-
-        System.out.println("程序运行时间：" + (endTime - startTime) + "ms");
-        printExperimentResult(a, b, robotCapacityStd, taskSizeStd, meanRobotCapacity, meanTaskSize, experimentResultgbma);
-
-        System.out.println("*******************************");
-        System.out.println("                               ");
-
-        startTime = System.currentTimeMillis();
-        MMLMA MMLMA = new MMLMA(tasks, arcGraph, robots, a, b);
-        ExperimentResult experimentResultmmlma = MMLMA.MMLMARun();
-
-
-
-        endTime = System.currentTimeMillis();
-
-        System.out.println("程序运行时间：" + (endTime - startTime) + "ms");
-        printExperimentResult(a, b, robotCapacityStd, taskSizeStd, meanRobotCapacity, meanTaskSize, experimentResultmmlma);
+        for (int i = 0; i < results.size(); i++) {
+            if (i > 0) {
+                System.out.println("*******************************");
+                System.out.println("                               ");
+            }
+            AlgorithmResult result = results.get(i);
+            System.out.println(result.getAlgorithm());
+            System.out.println("程序运行时间：" + result.getElapsedMillis() + "ms");
+            printExperimentResult(a, b, robotCapacityStd, taskSizeStd, meanRobotCapacity, meanTaskSize, result.getExperimentResult());
+        }
+        System.out.println("总运行时间：" + (endTime - startTime) + "ms");
 
     }
 
@@ -0,0 +1,38 @@
+package main;
+
+import input.Agent;
+import input.ExperimentResult;
+import input.Group;
+import input.MigrationRecord;
+
+import java.util.HashMap;
+import java.util.List;
+
+/***
+ * 任务迁移算法的统一接口，HGTM、MPFTM、GBMA、MMLMA都实现这个接口
+ */
+public interface MigrationAlgorithm {
+    String getName();
+
+    void addListener(MigrationListener listener);
+
+    //出现功能故障的节点比例，不设置时使用Initialize的默认值
+    void setFaultP(Double faultP);
+
+    //随机数种子，种子相同时初始化和迁移过程完全相同；不设置时每次运行使用不同的随机数
+    void setSeed(Long seed);
+
+    //已经执行过Initialize的组（--initialized快照），run时直接使用，不再分配初始任务和故障，faultP不起作用
+    void setInitialGroups(HashMap<Integer, Group> idToGroups);
+
+    //按阶段统计耗时和内存，不设置时不统计
+    void setPhaseTimer(PhaseTimer phaseTimer);
+
+    ExperimentResult run();
+
+    //Initialize（或快照）中出现功能故障的组件，run之后有效；迁移过程会改写faultA，这里是迁移之前的故障
+    List<Agent> getInitialFaults();
+
+    //run之后新出现的功能故障：failed中的组件已经标记faultA=1，迁走它们的任务，返回这次的迁移记录
+    List<MigrationRecord> onFault(List<Agent> failed);
+}
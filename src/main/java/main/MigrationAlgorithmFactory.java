@@ -0,0 +1,26 @@
+package main;
+
+import input.Agent;
+import input.Scenario;
+import input.Task;
+import org.jgrapht.graph.DefaultUndirectedWeightedGraph;
+import org.jgrapht.graph.DefaultWeightedEdge;
+
+import java.util.List;
+
+/***
+ * 在给定的场景上构造迁移算法，四个算法的构造函数都可以直接作为工厂，例如MPFTM::new
+ */
+public interface MigrationAlgorithmFactory {
+    MigrationAlgorithm create(List<Task> tasks, DefaultUndirectedWeightedGraph<Integer, DefaultWeightedEdge> arcGraph,
+                              List<Agent> robots, Double a, Double b);
+
+    default MigrationAlgorithm create(Scenario scenario, Double a, Double b) {
+        //已经初始化的场景把保存的组交给算法
+        MigrationAlgorithm algorithm = create(scenario.getTasks(), scenario.getArcGraph(), scenario.getRobots(), a, b);
+        if (scenario.isInitialized()) {
+            algorithm.setInitialGroups(scenario.getIdToGroups());
+        }
+        return algorithm;
+    }
+}
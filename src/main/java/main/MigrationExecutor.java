@@ -0,0 +1,104 @@
+package main;
+
+import input.Agent;
+import input.Group;
+import input.MigrationRecord;
+import input.Task;
+import input.TaskStore;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+/***
+ * 执行一次任务迁移：更新组件和组的负载、任务列表，加入迁移记录，再依次通知监听器
+ * 四个迁移算法共用这一份实现，原来各算法里的excuteMigration、updateInter、updateIntra都合并到这里
+ */
+public class MigrationExecutor {
+    private HashMap<Integer, Group> idToGroups;
+    private TaskStore taskStore;
+    private List<MigrationRecord> records;
+    private List<MigrationListener> listeners = new ArrayList<>();
+
+    public MigrationExecutor(HashMap<Integer, Group> idToGroups, HashMap<Integer, Agent> idToRobots) {
+        this(idToGroups, TaskStore.attach(idToRobots), new ArrayList<>());
+    }
+
+    public MigrationExecutor(HashMap<Integer, Group> idToGroups, TaskStore taskStore, List<MigrationRecord> records) {
+        this.idToGroups = idToGroups;
+        this.taskStore = taskStore;
+        this.records = records;
+    }
+
+    public void addListener(MigrationListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(MigrationListener listener) {
+        listeners.remove(listener);
+    }
+
+    public TaskStore getTaskStore() {
+        return taskStore;
+    }
+
+    public List<MigrationRecord> getRecords() {
+        return records;
+    }
+
+    public boolean execute(Agent robot, Agent robotMigrated, Task migrationTask) {
+        //返回是否真正执行了迁移
+        if (robot == null) {
+            return false;
+        }
+
+        if (robotMigrated == null) {
+            return false;
+        }
+        if (migrationTask == null) {
+            return false;
+        }
+
+        //改变网络层间负载和任务列表
+        if (robot.getGroupId()!=robotMigrated.getGroupId()) {
+            //不在同一组才会更新网络层间的势场情况
+            updateInter(robot, robotMigrated, migrationTask);
+        }
+        //改变网络层内负载和任务列表
+        updateIntra(robot, robotMigrated, migrationTask);
+        MigrationRecord record = new MigrationRecord();
+        record.setFrom(robot.getRobotId());
+        record.setTo(robotMigrated.getRobotId());
+        records.add(record);
+        for (MigrationListener listener : listeners) {
+            listener.afterMigration(robot, robotMigrated, migrationTask, record);
+        }
+        return true;
+    }
+
+    public void arrive(Agent robot, Task task) {
+        //在线模式中新到达的任务直接分配给robot，更新负载、组负载和任务列表；不是迁移，不产生迁移记录，也不通知监听器
+        Group group = idToGroups.get(robot.getGroupId());
+        group.setGroupLoad(group.getGroupLoad()+task.getSize());
+        robot.getTasksList().add(task);
+        robot.setLoad(robot.getLoad()+task.getSize());
+    }
+
+    private void updateInter(Agent robot, Agent robotMigrated, Task migrationTask) {
+        int groupId = robot.getGroupId();
+        Group group = idToGroups.get(groupId);
+        int robotMigratedGroupId = robotMigrated.getGroupId();
+        Group migratedGroup = idToGroups.get(robotMigratedGroupId);
+
+        group.setGroupLoad(group.getGroupLoad()-migrationTask.getSize());
+        migratedGroup.setGroupLoad(migratedGroup.getGroupLoad()+migrationTask.getSize());
+    }
+
+    private void updateIntra(Agent robot, Agent robotMigrated, Task migrationTask) {
+        //更新迁移后的任务负载，任务列表由taskStore维护
+        //任务已经不在robot上（之前迁走过）时与原来的excuteMigration相同：仍扣减robot的负载，目标上再加入一份任务
+        taskStore.move(migrationTask, robot, robotMigrated);
+        robot.setLoad(robot.getLoad()-migrationTask.getSize());
+        robotMigrated.setLoad(robotMigrated.getLoad()+migrationTask.getSize());
+    }
+}
@@ -0,0 +1,13 @@
+package main;
+
+import input.Agent;
+import input.MigrationRecord;
+import input.Task;
+
+/***
+ * MigrationExecutor每完成一次迁移调用一次，用于统计、记录迁移过程以及增量维护势场等索引
+ */
+public interface MigrationListener {
+    //任务已经从robot迁移到robotMigrated，负载、组负载和任务列表都已更新，record已经加入迁移记录
+    void afterMigration(Agent robot, Agent robotMigrated, Task migrationTask, MigrationRecord record);
+}
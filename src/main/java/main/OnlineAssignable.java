@@ -0,0 +1,12 @@
+package main;
+
+import input.Agent;
+import input.Task;
+
+/***
+ * 支持在线模式的算法：run完成初始分配和故障迁移之后，逐个分配新到达的任务，不重新执行整个流程
+ */
+public interface OnlineAssignable extends MigrationAlgorithm {
+    //返回接收任务的组件，没有可用组件时返回null；必须在run之后调用
+    Agent assign(Task task);
+}
@@ -0,0 +1,231 @@
+package main;
+
+import MPFTM.MPFTM;
+import input.Agent;
+import input.ExperimentResult;
+import input.Scenario;
+import input.ScenarioGenerator;
+import input.ScenarioLoader;
+import input.StepMetrics;
+import input.Task;
+import input.TaskSpliterator;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Locale;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/***
+ * 在线模式：算法run完成初始分配和故障迁移之后，按到达时间依次消费任务流，
+ * 每个新到达的任务由算法在当前势场上直接分配（OnlineAssignable.assign），势场增量更新，不重新执行整个流程
+ * 任务流按顺序读取，同一时刻到达的任务作为一步，每一步输出一行统计；没有任务到达的时刻不输出
+ * 到达时间早于当前时刻的任务（乱序）在当前时刻分配，记为晚到任务
+ * 用法：OnlineSimulation 输出文件.csv [--dataset 图文件 机器人文件 任务文件] [--synthetic 机器人数 组数 生成种子]
+ *      [--arrival poisson:5] [--initial 0.5] [--a 0.1] [--faultP 0.3] [--seed 种子] [--failover-depth 4]
+ * 默认使用半导体数据集；--dataset的任务文件按流读取，开头到达时间为-1的任务作为初始任务
+ * --failover-depth为MPFTM替换链的深度
+ */
+public class OnlineSimulation {
+    public static final String HEADER = "time,arrivals,assigned,lateTasks,meanDelay,meanLatencyMicros,maxLatencyMicros,throughput,totalLoad,overloadedRobots";
+
+    private final OnlineAssignable algorithm;
+    private final List<Agent> robots;
+    private int tasks;
+    private int assigned;
+    private long elapsedNanos;
+
+    public OnlineSimulation(OnlineAssignable algorithm, List<Agent> robots) {
+        //algorithm需要已经run过
+        this.algorithm = algorithm;
+        this.robots = robots;
+    }
+
+    public static Spliterator<Task> takeInitial(Spliterator<Task> source, List<Task> initial) {
+        //把开头到达时间为-1的任务放入initial（与Initialize的规则一致），返回之后的任务流
+        Task[] next = new Task[1];
+        while (source.tryAdvance(task -> next[0] = task)) {
+            if (next[0].getArriveTime() != -1) {
+                return Stream.concat(Stream.of(next[0]), StreamSupport.stream(source, false)).spliterator();
+            }
+            initial.add(next[0]);
+        }
+        return source;
+    }
+
+    public int run(Spliterator<Task> arrivals, Consumer<StepMetrics> steps) {
+        //返回输出的步数
+        Task[] pending = new Task[1];
+        boolean hasNext = arrivals.tryAdvance(task -> pending[0] = task);
+        int stepCount = 0;
+        while (hasNext) {
+            StepMetrics metrics = new StepMetrics();
+            int time = pending[0].getArriveTime();
+            metrics.setTime(time);
+            while (hasNext && pending[0].getArriveTime() <= time) {
+                Task task = pending[0];
+                long startTime = System.nanoTime();
+                Agent agent = algorithm.assign(task);
+                long latency = System.nanoTime() - startTime;
+                metrics.setArrivals(metrics.getArrivals() + 1);
+                if (agent != null) {
+                    metrics.setAssigned(metrics.getAssigned() + 1);
+                }
+                if (task.getArriveTime() < time) {
+                    metrics.setLateTasks(metrics.getLateTasks() + 1);
+                    metrics.setTotalDelay(metrics.getTotalDelay() + time - task.getArriveTime());
+                }
+                metrics.setElapsedNanos(metrics.getElapsedNanos() + latency);
+                metrics.setMaxLatencyNanos(Math.max(metrics.getMaxLatencyNanos(), latency));
+                hasNext = arrivals.tryAdvance(next -> pending[0] = next);
+            }
+            double totalLoad = 0;
+            int overloaded = 0;
+            for (Agent robot : robots) {
+                totalLoad += robot.getLoad();
+                if (robot.getLoad() > robot.getCapacity()) {
+                    overloaded++;
+                }
+            }
+            metrics.setTotalLoad(totalLoad);
+            metrics.setOverloadedRobots(overloaded);
+            tasks += metrics.getArrivals();
+            assigned += metrics.getAssigned();
+            elapsedNanos += metrics.getElapsedNanos();
+            steps.accept(metrics);
+            stepCount++;
+        }
+        return stepCount;
+    }
+
+    public int getTasks() {
+        return tasks;
+    }
+
+    public int getAssigned() {
+        return assigned;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    private static String row(StepMetrics metrics) {
+        return String.format(Locale.ROOT, "%d,%d,%d,%d,%.3f,%.3f,%.3f,%.1f,%.3f,%d", metrics.getTime(), metrics.getArrivals(), metrics.getAssigned(),
+                metrics.getLateTasks(), metrics.getMeanDelay(), metrics.getMeanLatencyNanos() / 1000, metrics.getMaxLatencyNanos() / 1000.0,
+                metrics.getThroughput(), metrics.getTotalLoad(), metrics.getOverloadedRobots());
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.out.println("用法：OnlineSimulation 输出文件.csv [--dataset 图文件 机器人文件 任务文件] [--synthetic 机器人数 组数 生成种子]");
+            System.out.println("     [--arrival poisson:5] [--initial 0.5] [--a 0.1] [--faultP 0.3] [--seed 种子] [--failover-depth 4]");
+            return;
+        }
+        String graphFile = "Graph_semiconductor.txt";
+        String robotFile = "RobotsInformation_semiconductor.txt";
+        String tasksFile = "Task_semiconductor.txt";
+        ScenarioGenerator generator = null;
+        Double a = 0.1;
+        Double faultP = 0.3;
+        Long seed = null;
+        int failoverDepth = 4;
+        for (int i = 1; i < args.length; i++) {
+            switch (args[i]) {
+                case "--dataset":
+                    graphFile = args[i + 1];
+                    robotFile = args[i + 2];
+                    tasksFile = args[i + 3];
+                    i += 3;
+                    break;
+                case "--synthetic":
+                    generator = new ScenarioGenerator();
+                    generator.setRobotCount(Integer.parseInt(args[i + 1]));
+                    generator.setGroupCount(Integer.parseInt(args[i + 2]));
+                    generator.setSeed(Long.parseLong(args[i + 3]));
+                    generator.setInitialFraction(0.5);
+                    i += 3;
+                    break;
+                case "--arrival":
+                    requireGenerator(generator, args[i]).setArrival(args[++i]);
+                    break;
+                case "--initial":
+                    requireGenerator(generator, args[i]).setInitialFraction(Double.parseDouble(args[++i]));
+                    break;
+                case "--a":
+                    a = Double.valueOf(args[++i]);
+                    break;
+                case "--faultP":
+                    faultP = Double.valueOf(args[++i]);
+                    break;
+                case "--seed":
+                    seed = Long.valueOf(args[++i]);
+                    break;
+                case "--failover-depth":
+                    failoverDepth = Integer.parseInt(args[++i]);
+                    break;
+                default:
+                    throw new IllegalArgumentException("未知参数：" + args[i]);
+            }
+        }
+
+        Scenario scenario;
+        Spliterator<Task> arrivals;
+        TaskSpliterator taskSpliterator = null;
+        if (generator != null) {
+            //生成的任务已经按到达时间排列，run之后场景的任务列表中剩下的就是之后到达的任务
+            scenario = generator.generate();
+            arrivals = null;
+        } else {
+            scenario = new ScenarioLoader().load(graphFile, robotFile);
+            taskSpliterator = new TaskSpliterator(tasksFile);
+            arrivals = takeInitial(taskSpliterator, scenario.getTasks());
+        }
+        try (BufferedWriter writer = Files.newBufferedWriter(Paths.get(args[0]), StandardCharsets.UTF_8)) {
+            MPFTM mpftm = new MPFTM(scenario.getTasks(), scenario.getArcGraph(), scenario.getRobots(), a, 1 - a);
+            mpftm.setFaultP(faultP);
+            mpftm.setSeed(seed);
+            mpftm.setFailoverDepth(failoverDepth);
+            long startTime = System.currentTimeMillis();
+            ExperimentResult experimentResult = mpftm.run();
+            System.out.println("初始分配和故障迁移：" + (System.currentTimeMillis() - startTime) + "ms，meanSurvivalRate：" + experimentResult.getMeansurvivalRate());
+            if (arrivals == null) {
+                arrivals = scenario.getTasks().spliterator();
+            }
+            writer.write(HEADER);
+            writer.newLine();
+            OnlineSimulation simulation = new OnlineSimulation(mpftm, scenario.getRobots());
+            startTime = System.currentTimeMillis();
+            int steps = simulation.run(arrivals, metrics -> {
+                try {
+                    writer.write(row(metrics));
+                    writer.newLine();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            System.out.println("在线分配：" + steps + "个时刻，" + simulation.getTasks() + "个任务，分配" + simulation.getAssigned() + "个，运行时间："
+                    + (System.currentTimeMillis() - startTime) + "ms，平均分配耗时："
+                    + String.format(Locale.ROOT, "%.1f", simulation.getTasks() == 0 ? 0.0 : simulation.getElapsedNanos() / 1000.0 / simulation.getTasks()) + "us");
+            System.out.println("写入" + args[0]);
+        } finally {
+            if (taskSpliterator != null) {
+                taskSpliterator.close();
+            }
+        }
+    }
+
+    private static ScenarioGenerator requireGenerator(ScenarioGenerator generator, String option) {
+        if (generator == null) {
+            throw new IllegalArgumentException(option + "需要放在--synthetic之后");
+        }
+        return generator;
+    }
+}
@@ -0,0 +1,299 @@
+package main;
+
+import GBMA.GBMA;
+import HGTM.Hgtm;
+import MMLMA.MMLMA;
+import MPFTM.MPFTM;
+import input.Dataset;
+import input.ExperimentResult;
+import input.RunConfig;
+import input.ScenarioGenerator;
+import input.Scenario;
+import input.ScenarioLoader;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/***
+ * 参数扫描：数据集 × 算法 × a × faultP 的每个组合运行一次，结果逐行写入CSV
+ * 每个数据集只读取一次，各组合在读入场景的副本上运行；所有组合提交到ForkJoinPool，空闲线程会窃取其他线程的任务
+ * 每个组合完成后立即写出一行并flush，中途停止时已完成的结果仍然保留；单个组合抛出的RuntimeException或StackOverflowError写在error列，不影响其他组合，
+ * OutOfMemoryError等其他Error之后JVM的状态不可靠，直接结束整个扫描
+ * a全部在(0,1)内时，实现了WeightSweepable的算法（mpftm）同一数据集、同一faultP的所有a共用一次初始化和leader选择，
+ * 这些行的elapsedMillis是一起运行的总时间按a的个数平均，sharedTiming列为true；单独运行的组合为false
+ * --initialized写出的快照已经包含初始任务和故障，不再执行Initialize，faultP只能有一个值
+ * 用法：ParameterSweep 输出文件.csv [--a 0.1,0.5,0.9] [--faultP 0.1,0.3] [--algorithms hgtm,mpftm,GBMA,MMLMA]
+ *      [--dataset 图文件 机器人文件 任务文件]... [--snapshot 快照文件.snap]... [--synthetic 机器人数 组数 生成种子]... [--threads 线程数] [--seed 种子]
+ */
+public class ParameterSweep {
+    public static final String HEADER = "dataset,algorithm,a,b,faultP,seed,meanMigrationCost,meanExecuteCost,meanSurvivalRate,elapsedMillis,sharedTiming,error";
+
+    private List<Dataset> datasets = new ArrayList<>();
+    private List<Double> aValues = new ArrayList<>();
+    private List<Double> faultPs = new ArrayList<>();
+    private LinkedHashMap<String, MigrationAlgorithmFactory> algorithms = new LinkedHashMap<>();
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+    private Long seed;
+
+    public static LinkedHashMap<String, MigrationAlgorithmFactory> defaultAlgorithms() {
+        LinkedHashMap<String, MigrationAlgorithmFactory> algorithms = new LinkedHashMap<>();
+        algorithms.put("hgtm", Hgtm::new);
+        algorithms.put("mpftm", MPFTM::new);
+        algorithms.put("GBMA", GBMA::new);
+        algorithms.put("MMLMA", MMLMA::new);
+        return algorithms;
+    }
+
+    public void addDataset(Dataset dataset) {
+        datasets.add(dataset);
+    }
+
+    public void addAlgorithm(String name, MigrationAlgorithmFactory factory) {
+        algorithms.put(name, factory);
+    }
+
+    public void setAValues(List<Double> aValues) {
+        this.aValues = new ArrayList<>(aValues);
+    }
+
+    public void setFaultPs(List<Double> faultPs) {
+        this.faultPs = new ArrayList<>(faultPs);
+    }
+
+    public void setSeed(Long seed) {
+        //所有组合使用同一个种子，不同算法、不同a之间的初始化相同
+        this.seed = seed;
+    }
+
+    public void setParallelism(int parallelism) {
+        this.parallelism = Math.max(1, parallelism);
+    }
+
+    public int run(String outputFile) throws IOException {
+        //返回写出的行数（不含表头）
+        Map<Dataset, Scenario> scenarios = new HashMap<>();
+        ScenarioLoader scenarioLoader = new ScenarioLoader();
+        for (Dataset dataset : datasets) {
+            Scenario scenario = dataset.load(scenarioLoader);
+            if (scenario.isInitialized() && faultPs.size() > 1) {
+                throw new IllegalArgumentException(dataset.getName() + "是已经初始化的快照，故障已经确定，faultP只能有一个值");
+            }
+            scenarios.put(dataset, scenario);
+        }
+        AtomicInteger written = new AtomicInteger();
+        try (BufferedWriter writer = Files.newBufferedWriter(Paths.get(outputFile), StandardCharsets.UTF_8)) {
+            writer.write(HEADER);
+            writer.newLine();
+            writer.flush();
+            ForkJoinPool pool = new ForkJoinPool(parallelism);
+            try {
+                List<ForkJoinTask<?>> cells = new ArrayList<>();
+                for (Dataset dataset : datasets) {
+                    for (Map.Entry<String, MigrationAlgorithmFactory> algorithm : algorithms.entrySet()) {
+                        if (weightSweepable(scenarios.get(dataset), algorithm.getValue())) {
+                            //初始化和leader选择与a无关，同一数据集、同一faultP的所有a在一次准备上依次运行
+                            for (Double faultP : faultPs) {
+                                cells.add(pool.submit(() -> {
+                                    for (String row : runWeights(dataset, scenarios.get(dataset), algorithm.getKey(), algorithm.getValue(), faultP)) {
+                                        write(writer, row, written);
+                                    }
+                                }));
+                            }
+                            continue;
+                        }
+                        for (Double a : aValues) {
+                            for (Double faultP : faultPs) {
+                                RunConfig runConfig = new RunConfig(a, faultP, seed);
+                                cells.add(pool.submit(() -> write(writer, runCell(dataset, scenarios.get(dataset), algorithm.getKey(), algorithm.getValue(), runConfig), written)));
+                            }
+                        }
+                    }
+                }
+                for (ForkJoinTask<?> cell : cells) {
+                    cell.join();
+                }
+                return written.get();
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            } finally {
+                pool.shutdownNow();
+            }
+        }
+    }
+
+    private static String runCell(Dataset dataset, Scenario scenario, String name, MigrationAlgorithmFactory factory, RunConfig runConfig) {
+        StringBuilder row = new StringBuilder(prefix(dataset, name, runConfig));
+        long startTime = System.currentTimeMillis();
+        try {
+            Scenario copy = scenario.copy();
+            MigrationAlgorithm algorithm = factory.create(copy, runConfig.getA(), runConfig.getB());
+            algorithm.setFaultP(runConfig.getFaultP());
+            algorithm.setSeed(runConfig.getSeed());
+            ExperimentResult experimentResult = algorithm.run();
+            row.append(experimentResult.getMeanMigrationCost()).append(',')
+                    .append(experimentResult.getMeanExecuteCost()).append(',')
+                    .append(experimentResult.getMeansurvivalRate()).append(',')
+                    .append(System.currentTimeMillis() - startTime).append(",false,");
+        } catch (RuntimeException | StackOverflowError e) {
+            //单个组合失败不影响其他组合，错误写在最后一列；栈溢出只影响这个组合的调用栈，也按失败记录
+            row.append(",,,").append(System.currentTimeMillis() - startTime).append(",false,").append(csv(e.toString()));
+        }
+        return row.toString();
+    }
+
+    private boolean weightSweepable(Scenario scenario, MigrationAlgorithmFactory factory) {
+        if (aValues.size() < 2) {
+            return false;
+        }
+        for (Double a : aValues) {
+            if (!(a > 0 && a < 1)) {
+                return false;
+            }
+        }
+        //构造算法不会修改场景，只用来判断类型；构造失败时按单独的组合运行，错误由各组合记录
+        try {
+            return factory.create(scenario.getTasks(), scenario.getArcGraph(), scenario.getRobots(), aValues.get(0), 1 - aValues.get(0)) instanceof WeightSweepable;
+        } catch (RuntimeException | StackOverflowError e) {
+            return false;
+        }
+    }
+
+    private List<String> runWeights(Dataset dataset, Scenario scenario, String name, MigrationAlgorithmFactory factory, Double faultP) {
+        //一起运行的各行elapsedMillis记为总时间的平均值，sharedTiming为true
+        List<String> rows = new ArrayList<>();
+        long startTime = System.currentTimeMillis();
+        List<ExperimentResult> experimentResults;
+        try {
+            Scenario copy = scenario.copy();
+            RunConfig first = new RunConfig(aValues.get(0), faultP, seed);
+            WeightSweepable algorithm = (WeightSweepable) factory.create(copy, first.getA(), first.getB());
+            algorithm.setFaultP(faultP);
+            algorithm.setSeed(seed);
+            experimentResults = algorithm.runWeights(aValues);
+        } catch (RuntimeException | StackOverflowError e) {
+            long elapsed = (System.currentTimeMillis() - startTime) / aValues.size();
+            for (Double a : aValues) {
+                rows.add(prefix(dataset, name, new RunConfig(a, faultP, seed)) + ",,," + elapsed + ",true," + csv(e.toString()));
+            }
+            return rows;
+        }
+        long elapsed = (System.currentTimeMillis() - startTime) / aValues.size();
+        for (int i = 0; i < aValues.size(); i++) {
+            ExperimentResult experimentResult = experimentResults.get(i);
+            rows.add(prefix(dataset, name, new RunConfig(aValues.get(i), faultP, seed))
+                    + experimentResult.getMeanMigrationCost() + ','
+                    + experimentResult.getMeanExecuteCost() + ','
+                    + experimentResult.getMeansurvivalRate() + ','
+                    + elapsed + ",true,");
+        }
+        return rows;
+    }
+
+    private static String prefix(Dataset dataset, String name, RunConfig runConfig) {
+        return csv(dataset.getName()) + ',' + csv(name) + ',' + runConfig.getA() + ',' + runConfig.getB() + ',' + runConfig.getFaultP() + ','
+                + (runConfig.getSeed() == null ? "" : runConfig.getSeed()) + ',';
+    }
+
+    private static void write(BufferedWriter writer, String row, AtomicInteger written) {
+        synchronized (writer) {
+            try {
+                writer.write(row);
+                writer.newLine();
+                writer.flush();
+                written.incrementAndGet();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    private static String csv(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    private static List<Double> parseDoubles(String value) {
+        List<Double> values = new ArrayList<>();
+        for (String item : value.split(",")) {
+            values.add(Double.valueOf(item.trim()));
+        }
+        return values;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.out.println("用法：ParameterSweep 输出文件.csv [--a 0.1,0.5,0.9] [--faultP 0.1,0.3] [--algorithms hgtm,mpftm,GBMA,MMLMA]");
+            System.out.println("     [--dataset 图文件 机器人文件 任务文件]... [--snapshot 快照文件.snap]... [--synthetic 机器人数 组数 生成种子]... [--threads 线程数] [--seed 种子]");
+            return;
+        }
+        ParameterSweep sweep = new ParameterSweep();
+        LinkedHashMap<String, MigrationAlgorithmFactory> known = defaultAlgorithms();
+        List<String> names = new ArrayList<>(known.keySet());
+        sweep.setAValues(Arrays.asList(0.1));
+        sweep.setFaultPs(Arrays.asList(0.3));
+        for (int i = 1; i < args.length; i++) {
+            switch (args[i]) {
+                case "--a":
+                    sweep.setAValues(parseDoubles(args[++i]));
+                    break;
+                case "--faultP":
+                    sweep.setFaultPs(parseDoubles(args[++i]));
+                    break;
+                case "--algorithms":
+                    names = Arrays.asList(args[++i].split(","));
+                    break;
+                case "--dataset":
+                    sweep.addDataset(new Dataset(args[i + 1], args[i + 2], args[i + 3]));
+                    i += 3;
+                    break;
+                case "--snapshot":
+                    sweep.addDataset(new Dataset(args[++i]));
+                    break;
+                case "--synthetic":
+                    ScenarioGenerator generator = new ScenarioGenerator();
+                    generator.setRobotCount(Integer.parseInt(args[i + 1]));
+                    generator.setGroupCount(Integer.parseInt(args[i + 2]));
+                    generator.setSeed(Long.parseLong(args[i + 3]));
+                    sweep.addDataset(new Dataset(generator));
+                    i += 3;
+                    break;
+                case "--seed":
+                    sweep.setSeed(Long.valueOf(args[++i]));
+                    break;
+                case "--threads":
+                    sweep.setParallelism(Integer.parseInt(args[++i]));
+                    break;
+                default:
+                    throw new IllegalArgumentException("未知参数：" + args[i]);
+            }
+        }
+        for (String name : names) {
+            MigrationAlgorithmFactory factory = known.get(name);
+            if (factory == null) {
+                throw new IllegalArgumentException("未知算法：" + name + "，可选：" + known.keySet());
+            }
+            sweep.addAlgorithm(name, factory);
+        }
+        if (sweep.datasets.isEmpty()) {
+            sweep.addDataset(new Dataset("Graph4.txt", "RobotsInformation4.txt", "Task24.txt"));
+        }
+        long startTime = System.currentTimeMillis();
+        int rows = sweep.run(args[0]);
+        System.out.println("写出" + rows + "行，写入" + args[0] + "，运行时间：" + (System.currentTimeMillis() - startTime) + "ms");
+    }
+}
@@ -0,0 +1,97 @@
+package main;
+
+import input.PhaseStats;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+/***
+ * 按阶段统计一次运行的耗时、分配的内存和峰值堆内存，begin开始新的阶段时自动结束上一个阶段，同名阶段多次出现时累加
+ * 分配量是调用线程分配的字节数（需要HotSpot的com.sun.management.ThreadMXBean，不支持时为0）；
+ * 峰值堆内存是阶段内各堆内存池峰值之和，是同一时刻堆占用的上界，包括还没有回收的垃圾
+ */
+public class PhaseTimer {
+    public static final String LOAD = "load";
+    public static final String INITIALIZE = "initialize";
+    public static final String LEADER = "leader";
+    public static final String BACKUP = "backup";
+    public static final String CONTEXT_LOAD = "contextLoad";
+    public static final String FIELD = "field";
+    public static final String MIGRATION = "migration";
+    public static final String EVALUATION = "evaluation";
+
+    private final LinkedHashMap<String, PhaseStats> phases = new LinkedHashMap<>();
+    private final com.sun.management.ThreadMXBean threadBean;
+    private String current;
+    private long startNanos;
+    private long startAllocated;
+
+    public PhaseTimer() {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean && ((com.sun.management.ThreadMXBean) bean).isThreadAllocatedMemorySupported()) {
+            threadBean = (com.sun.management.ThreadMXBean) bean;
+            threadBean.setThreadAllocatedMemoryEnabled(true);
+        } else {
+            threadBean = null;
+        }
+    }
+
+    public void begin(String phase) {
+        end();
+        current = phase;
+        resetPeakHeap();
+        startAllocated = allocatedBytes();
+        startNanos = System.nanoTime();
+    }
+
+    public void end() {
+        if (current == null) {
+            return;
+        }
+        long elapsed = System.nanoTime() - startNanos;
+        long allocated = allocatedBytes() - startAllocated;
+        PhaseStats stats = phases.get(current);
+        if (stats == null) {
+            stats = new PhaseStats();
+            stats.setPhase(current);
+            phases.put(current, stats);
+        }
+        stats.setElapsedNanos(stats.getElapsedNanos() + elapsed);
+        stats.setAllocatedBytes(stats.getAllocatedBytes() + allocated);
+        stats.setPeakHeapBytes(Math.max(stats.getPeakHeapBytes(), peakHeap()));
+        current = null;
+    }
+
+    public List<PhaseStats> getPhases() {
+        //按各阶段第一次出现的顺序
+        end();
+        return new ArrayList<>(phases.values());
+    }
+
+    private long allocatedBytes() {
+        return threadBean == null ? 0 : threadBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    private static void resetPeakHeap() {
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                pool.resetPeakUsage();
+            }
+        }
+    }
+
+    private static long peakHeap() {
+        long peak = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                peak += pool.getPeakUsage().getUsed();
+            }
+        }
+        return peak;
+    }
+}
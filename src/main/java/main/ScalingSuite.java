@@ -0,0 +1,341 @@
+package main;
+
+import input.PhaseStats;
+import input.Scenario;
+import input.ScenarioGenerator;
+import input.ScenarioLoader;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/***
+ * 规模扩展测试：每个算法在逐渐增大的合成场景上端到端运行，按阶段记录耗时、分配量、分配速率和峰值堆内存，
+ * 最后对每个阶段按 耗时 ∝ 机器人数^k 做双对数最小二乘拟合，给出增长指数k，用来找出最先失去扩展性的阶段
+ * 阶段：load（读入ScenarioGenerator写出的文本文件）、initialize、leader、backup、contextLoad、field、migration、evaluation，
+ * 算法没有的阶段不输出；每个规模先运行warmup次预热，再取repeats次的中位数
+ * 设置--max-exponent后，任何阶段的增长指数超过阈值时以状态1退出，可以在持续集成中发现复杂度退化
+ * 用法：ScalingSuite 输出文件.csv [--sizes 250,500,1000,2000] [--algorithms hgtm,mpftm,GBMA,MMLMA] [--scalefree]
+ *      [--repeats 3] [--warmup 1] [--a 0.1] [--faultP 0.3] [--seed 1] [--gen-seed 1] [--max-exponent 2.0]
+ */
+public class ScalingSuite {
+    public static final String HEADER = "algorithm,robots,edges,tasks,phase,millis,allocatedMB,allocationMBPerSecond,peakHeapMB";
+    public static final String TOTAL = "total";
+    //耗时低于1ms的点主要是计时噪声，不参与拟合
+    private static final double MIN_FIT_MILLIS = 1.0;
+    private static final double MB = 1024.0 * 1024.0;
+
+    private List<Integer> sizes = Arrays.asList(250, 500, 1000, 2000);
+    private LinkedHashMap<String, MigrationAlgorithmFactory> algorithms = new LinkedHashMap<>();
+    private boolean scaleFree;
+    private int repeats = 3;
+    private int warmup = 1;
+    private Double a = 0.1;
+    private Double faultP = 0.3;
+    private Long seed = 1L;
+    private long generatorSeed = 1L;
+    //算法 -> 阶段 -> 各规模的中位耗时（ms），没有该阶段时为NaN
+    private LinkedHashMap<String, LinkedHashMap<String, double[]>> millis = new LinkedHashMap<>();
+
+    public void addAlgorithm(String name, MigrationAlgorithmFactory factory) {
+        algorithms.put(name, factory);
+    }
+
+    public void setSizes(List<Integer> sizes) {
+        List<Integer> sorted = new ArrayList<>(sizes);
+        Collections.sort(sorted);
+        this.sizes = sorted;
+    }
+
+    public void setScaleFree(boolean scaleFree) {
+        this.scaleFree = scaleFree;
+    }
+
+    public void setRepeats(int repeats) {
+        this.repeats = Math.max(1, repeats);
+    }
+
+    public void setWarmup(int warmup) {
+        this.warmup = Math.max(0, warmup);
+    }
+
+    public void setA(Double a) {
+        this.a = a;
+    }
+
+    public void setFaultP(Double faultP) {
+        this.faultP = faultP;
+    }
+
+    public void setSeed(Long seed) {
+        this.seed = seed;
+    }
+
+    public void setGeneratorSeed(long generatorSeed) {
+        this.generatorSeed = generatorSeed;
+    }
+
+    public void run(String outputFile) throws IOException {
+        millis.clear();
+        try (BufferedWriter writer = Files.newBufferedWriter(Paths.get(outputFile), StandardCharsets.UTF_8)) {
+            writer.write(HEADER);
+            writer.newLine();
+            writer.flush();
+            for (int s = 0; s < sizes.size(); s++) {
+                int robotCount = sizes.get(s);
+                Path dir = Files.createTempDirectory("scaling");
+                String graphFile = dir.resolve("Graph.txt").toString();
+                String robotFile = dir.resolve("RobotsInformation.txt").toString();
+                String tasksFile = dir.resolve("Task.txt").toString();
+                try {
+                    //每组平均10个机器人，与基准测试的合成场景相同
+                    ScenarioGenerator generator = new ScenarioGenerator();
+                    generator.setRobotCount(robotCount);
+                    generator.setGroupCount(Math.max(1, robotCount / 10));
+                    if (scaleFree) {
+                        generator.setIntraDegree("scalefree:2");
+                        generator.setInterDegree("scalefree:2");
+                    }
+                    generator.setSeed(generatorSeed);
+                    generator.writeText(graphFile, robotFile, tasksFile);
+                    for (Map.Entry<String, MigrationAlgorithmFactory> algorithm : algorithms.entrySet()) {
+                        runSize(writer, algorithm.getKey(), algorithm.getValue(), s, graphFile, robotFile, tasksFile);
+                    }
+                } finally {
+                    Files.deleteIfExists(Paths.get(graphFile));
+                    Files.deleteIfExists(Paths.get(robotFile));
+                    Files.deleteIfExists(Paths.get(tasksFile));
+                    Files.deleteIfExists(dir);
+                }
+            }
+        }
+    }
+
+    private void runSize(BufferedWriter writer, String name, MigrationAlgorithmFactory factory, int sizeIndex,
+                         String graphFile, String robotFile, String tasksFile) throws IOException {
+        ScenarioLoader scenarioLoader = new ScenarioLoader();
+        LinkedHashMap<String, List<PhaseStats>> runs = new LinkedHashMap<>();
+        int edges = 0;
+        int taskCount = 0;
+        for (int r = 0; r < warmup + repeats; r++) {
+            //上一次运行的垃圾不计入这一次的峰值堆内存
+            System.gc();
+            PhaseTimer phaseTimer = new PhaseTimer();
+            phaseTimer.begin(PhaseTimer.LOAD);
+            Scenario scenario = scenarioLoader.load(graphFile, robotFile, tasksFile);
+            phaseTimer.end();
+            edges = scenario.getArcGraph().edgeSet().size();
+            taskCount = scenario.getTasks().size();
+            MigrationAlgorithm migrationAlgorithm = factory.create(scenario.getTasks(), scenario.getArcGraph(), scenario.getRobots(), a, 1 - a);
+            migrationAlgorithm.setFaultP(faultP);
+            migrationAlgorithm.setSeed(seed);
+            migrationAlgorithm.setPhaseTimer(phaseTimer);
+            migrationAlgorithm.run();
+            if (r < warmup) {
+                continue;
+            }
+            PhaseStats total = new PhaseStats();
+            total.setPhase(TOTAL);
+            for (PhaseStats stats : phaseTimer.getPhases()) {
+                runs.computeIfAbsent(stats.getPhase(), k -> new ArrayList<>()).add(stats);
+                total.setElapsedNanos(total.getElapsedNanos() + stats.getElapsedNanos());
+                total.setAllocatedBytes(total.getAllocatedBytes() + stats.getAllocatedBytes());
+                total.setPeakHeapBytes(Math.max(total.getPeakHeapBytes(), stats.getPeakHeapBytes()));
+            }
+            runs.computeIfAbsent(TOTAL, k -> new ArrayList<>()).add(total);
+        }
+        int robotCount = sizes.get(sizeIndex);
+        LinkedHashMap<String, double[]> phaseMillis = millis.computeIfAbsent(name, k -> new LinkedHashMap<>());
+        for (Map.Entry<String, List<PhaseStats>> phase : runs.entrySet()) {
+            PhaseStats stats = median(phase.getValue());
+            double phaseTime = stats.getElapsedNanos() / 1e6;
+            phaseMillis.computeIfAbsent(phase.getKey(), k -> {
+                double[] values = new double[sizes.size()];
+                Arrays.fill(values, Double.NaN);
+                return values;
+            })[sizeIndex] = phaseTime;
+            writer.write(name + ',' + robotCount + ',' + edges + ',' + taskCount + ',' + phase.getKey() + ','
+                    + String.format(Locale.ROOT, "%.3f,%.3f,%.1f,%.1f", phaseTime, stats.getAllocatedBytes() / MB,
+                    stats.getAllocationBytesPerSecond() / MB, stats.getPeakHeapBytes() / MB));
+            writer.newLine();
+        }
+        writer.flush();
+        System.out.println(name + " " + robotCount + "个机器人：" + String.format("%.1f", phaseMillis.get(TOTAL)[sizeIndex]) + "ms");
+    }
+
+    private static PhaseStats median(List<PhaseStats> runs) {
+        //各项分别取中位数
+        int n = runs.size();
+        long[] nanos = new long[n];
+        long[] allocated = new long[n];
+        long[] peak = new long[n];
+        for (int i = 0; i < n; i++) {
+            nanos[i] = runs.get(i).getElapsedNanos();
+            allocated[i] = runs.get(i).getAllocatedBytes();
+            peak[i] = runs.get(i).getPeakHeapBytes();
+        }
+        PhaseStats stats = new PhaseStats();
+        stats.setPhase(runs.get(0).getPhase());
+        stats.setElapsedNanos(median(nanos));
+        stats.setAllocatedBytes(median(allocated));
+        stats.setPeakHeapBytes(median(peak));
+        return stats;
+    }
+
+    private static long median(long[] values) {
+        Arrays.sort(values);
+        int n = values.length;
+        return n % 2 == 1 ? values[n / 2] : (values[n / 2 - 1] + values[n / 2]) / 2;
+    }
+
+    public LinkedHashMap<String, LinkedHashMap<String, Double>> growthExponents() {
+        //算法 -> 阶段 -> 增长指数，有效的点少于2个时为NaN
+        LinkedHashMap<String, LinkedHashMap<String, Double>> exponents = new LinkedHashMap<>();
+        for (Map.Entry<String, LinkedHashMap<String, double[]>> algorithm : millis.entrySet()) {
+            LinkedHashMap<String, Double> phases = new LinkedHashMap<>();
+            for (Map.Entry<String, double[]> phase : algorithm.getValue().entrySet()) {
+                phases.put(phase.getKey(), fitExponent(phase.getValue()));
+            }
+            exponents.put(algorithm.getKey(), phases);
+        }
+        return exponents;
+    }
+
+    private double fitExponent(double[] phaseMillis) {
+        //log(耗时) = k*log(n) + c 的最小二乘斜率
+        int count = 0;
+        double sumX = 0;
+        double sumY = 0;
+        double sumXX = 0;
+        double sumXY = 0;
+        for (int i = 0; i < phaseMillis.length; i++) {
+            if (!(phaseMillis[i] >= MIN_FIT_MILLIS)) {
+                continue;
+            }
+            double x = Math.log(sizes.get(i));
+            double y = Math.log(phaseMillis[i]);
+            count++;
+            sumX += x;
+            sumY += y;
+            sumXX += x * x;
+            sumXY += x * y;
+        }
+        double denominator = count * sumXX - sumX * sumX;
+        if (count < 2 || denominator <= 0) {
+            return Double.NaN;
+        }
+        return (count * sumXY - sumX * sumY) / denominator;
+    }
+
+    public List<String> report(Double maxExponent) {
+        //打印各阶段的增长指数，返回超过maxExponent的阶段
+        List<String> violations = new ArrayList<>();
+        int largest = sizes.size() - 1;
+        for (Map.Entry<String, LinkedHashMap<String, Double>> algorithm : growthExponents().entrySet()) {
+            System.out.println(algorithm.getKey() + "（" + sizes.get(largest) + "个机器人时的耗时，增长指数）：");
+            String fastest = null;
+            double fastestExponent = Double.NEGATIVE_INFINITY;
+            for (Map.Entry<String, Double> phase : algorithm.getValue().entrySet()) {
+                double exponent = phase.getValue();
+                double phaseTime = millis.get(algorithm.getKey()).get(phase.getKey())[largest];
+                System.out.println(String.format("  %-12s %10.1fms  k=%s", phase.getKey(), phaseTime,
+                        Double.isNaN(exponent) ? "-" : String.format("%.2f", exponent)));
+                if (phase.getKey().equals(TOTAL) || Double.isNaN(exponent)) {
+                    continue;
+                }
+                if (exponent > fastestExponent) {
+                    fastest = phase.getKey();
+                    fastestExponent = exponent;
+                }
+                if (maxExponent != null && exponent > maxExponent) {
+                    violations.add(algorithm.getKey() + "." + phase.getKey() + " k=" + String.format("%.2f", exponent));
+                }
+            }
+            if (fastest != null) {
+                System.out.println("  增长最快的阶段：" + fastest);
+            }
+        }
+        return violations;
+    }
+
+    private static List<Integer> parseInts(String value) {
+        List<Integer> values = new ArrayList<>();
+        for (String item : value.split(",")) {
+            values.add(Integer.valueOf(item.trim()));
+        }
+        return values;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.out.println("用法：ScalingSuite 输出文件.csv [--sizes 250,500,1000,2000] [--algorithms hgtm,mpftm,GBMA,MMLMA] [--scalefree]");
+            System.out.println("     [--repeats 3] [--warmup 1] [--a 0.1] [--faultP 0.3] [--seed 1] [--gen-seed 1] [--max-exponent 2.0]");
+            return;
+        }
+        ScalingSuite suite = new ScalingSuite();
+        LinkedHashMap<String, MigrationAlgorithmFactory> known = ParameterSweep.defaultAlgorithms();
+        List<String> names = new ArrayList<>(known.keySet());
+        Double maxExponent = null;
+        for (int i = 1; i < args.length; i++) {
+            switch (args[i]) {
+                case "--sizes":
+                    suite.setSizes(parseInts(args[++i]));
+                    break;
+                case "--algorithms":
+                    names = Arrays.asList(args[++i].split(","));
+                    break;
+                case "--scalefree":
+                    suite.setScaleFree(true);
+                    break;
+                case "--repeats":
+                    suite.setRepeats(Integer.parseInt(args[++i]));
+                    break;
+                case "--warmup":
+                    suite.setWarmup(Integer.parseInt(args[++i]));
+                    break;
+                case "--a":
+                    suite.setA(Double.valueOf(args[++i]));
+                    break;
+                case "--faultP":
+                    suite.setFaultP(Double.valueOf(args[++i]));
+                    break;
+                case "--seed":
+                    suite.setSeed(Long.valueOf(args[++i]));
+                    break;
+                case "--gen-seed":
+                    suite.setGeneratorSeed(Long.parseLong(args[++i]));
+                    break;
+                case "--max-exponent":
+                    maxExponent = Double.valueOf(args[++i]);
+                    break;
+                default:
+                    throw new IllegalArgumentException("未知参数：" + args[i]);
+            }
+        }
+        for (String name : names) {
+            MigrationAlgorithmFactory factory = known.get(name);
+            if (factory == null) {
+                throw new IllegalArgumentException("未知算法：" + name + "，可选：" + known.keySet());
+            }
+            suite.addAlgorithm(name, factory);
+        }
+        long startTime = System.currentTimeMillis();
+        suite.run(args[0]);
+        System.out.println("写入" + args[0] + "，运行时间：" + (System.currentTimeMillis() - startTime) + "ms");
+        List<String> violations = suite.report(maxExponent);
+        if (!violations.isEmpty()) {
+            System.out.println("增长指数超过" + maxExponent + "：" + violations);
+            System.exit(1);
+        }
+    }
+}
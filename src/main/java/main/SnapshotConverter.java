@@ -0,0 +1,81 @@
+package main;
+
+import input.Agent;
+import input.Group;
+import input.Scenario;
+import input.ScenarioLoader;
+import input.ScenarioSnapshot;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.SplittableRandom;
+
+/***
+ * 把图/机器人/任务三个文本文件转换为二进制快照
+ * 用法：SnapshotConverter 图文件 机器人文件 任务文件 输出文件.snap [--initialized [--faultP 0.3] [--seed 种子]]
+ *      SnapshotConverter --info 快照文件.snap
+ * --initialized 表示先执行Initialize，把初始任务分配和故障情况一起写入快照；算法读入这样的快照时不再执行Initialize
+ * --faultP、--seed与算法的setFaultP、setSeed相同：同一种子写出的快照与直接读文本文件运行的结果一致
+ */
+public class SnapshotConverter {
+    public static void main(String[] args) throws IOException {
+        if (args.length == 2 && "--info".equals(args[0])) {
+            printInfo(args[1]);
+            return;
+        }
+        if (args.length < 4) {
+            System.out.println("用法：SnapshotConverter 图文件 机器人文件 任务文件 输出文件.snap [--initialized [--faultP 0.3] [--seed 种子]]");
+            System.out.println("     SnapshotConverter --info 快照文件.snap");
+            return;
+        }
+        boolean initialized = false;
+        Double faultP = null;
+        Long seed = null;
+        for (int i = 4; i < args.length; i++) {
+            switch (args[i]) {
+                case "--initialized":
+                    initialized = true;
+                    break;
+                case "--faultP":
+                    faultP = Double.valueOf(args[++i]);
+                    break;
+                case "--seed":
+                    seed = Long.valueOf(args[++i]);
+                    break;
+                default:
+                    throw new IllegalArgumentException("未知参数：" + args[i]);
+            }
+        }
+        if (!initialized && (faultP != null || seed != null)) {
+            throw new IllegalArgumentException("--faultP和--seed只能和--initialized一起使用");
+        }
+        long startTime = System.currentTimeMillis();
+        Scenario scenario = new ScenarioLoader().load(args[0], args[1], args[2]);
+        if (initialized) {
+            HashMap<Integer, Group> idToGroups = new HashMap<>();
+            HashMap<Integer, Agent> idToRobots = new HashMap<>();
+            for (Agent robot : scenario.getRobots()) {
+                idToRobots.put(robot.getRobotId(), robot);
+            }
+            SplittableRandom root = seed == null ? new SplittableRandom() : new SplittableRandom(seed);
+            AbstractMigrationAlgorithm.newInitialize(faultP, root).run(scenario.getTasks(), scenario.getRobots(), idToGroups, idToRobots);
+            scenario.setIdToGroups(idToGroups);
+        }
+        ScenarioSnapshot.write(scenario, args[3]);
+        System.out.println("转换时间：" + (System.currentTimeMillis() - startTime) + "ms");
+        printInfo(args[3]);
+    }
+
+    private static void printInfo(String snapshotFile) throws IOException {
+        long startTime = System.currentTimeMillis();
+        Scenario scenario = ScenarioSnapshot.read(snapshotFile);
+        long endTime = System.currentTimeMillis();
+        System.out.println(snapshotFile + "：读取时间" + (endTime - startTime) + "ms");
+        System.out.println("顶点数：" + scenario.getArcGraph().vertexSet().size()
+                + " 边数：" + scenario.getArcGraph().edgeSet().size()
+                + " 机器人数：" + scenario.getRobots().size()
+                + " 待分配任务数：" + scenario.getTasks().size()
+                + " 已初始化：" + scenario.isInitialized()
+                + " 字符串编号：" + (scenario.getIdDictionary() != null));
+    }
+}
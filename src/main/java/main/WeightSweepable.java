@@ -0,0 +1,13 @@
+package main;
+
+import input.ExperimentResult;
+
+import java.util.List;
+
+/***
+ * 可以在一次准备之后依次运行多个权重a的算法（b=1-a），与a无关的初始化和选择只做一次
+ */
+public interface WeightSweepable extends MigrationAlgorithm {
+    //结果顺序与aValues一致，a必须在(0,1)内
+    List<ExperimentResult> runWeights(List<Double> aValues);
+}
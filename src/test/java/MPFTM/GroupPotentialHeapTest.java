@@ -0,0 +1,84 @@
+package MPFTM;
+
+import input.PotentialFieldStore;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import static org.junit.Assert.assertEquals;
+
+public class GroupPotentialHeapTest {
+    private static int scanMin(PotentialFieldStore store) {
+        //原来的做法：按下标顺序找第一个严格最小值
+        int min = -1;
+        double minValue = Double.MAX_VALUE;
+        for (int i = 0; i < store.size(); i++) {
+            double value = store.totalAt(i);
+            if (value < minValue) {
+                min = store.idOf(i);
+                minValue = value;
+            }
+        }
+        return min;
+    }
+
+    @Test
+    public void tiesPreferTheLowerIndex() {
+        PotentialFieldStore store = new PotentialFieldStore(Arrays.asList(3, 1, 2));
+        store.setPegra(3, 1.0);
+        store.setPegra(1, 1.0);
+        store.setPegra(2, 2.0);
+        GroupPotentialHeap heap = new GroupPotentialHeap(store);
+        assertEquals(3, heap.findMin());
+        assertEquals(4.0 / 3, heap.getAverage(), 1e-12);
+        store.setPerep(3, 0.5);
+        heap.update(3);
+        assertEquals(1, heap.findMin());
+    }
+
+    @Test
+    public void nanAndMaxValueAreNeverChosen() {
+        PotentialFieldStore store = new PotentialFieldStore(Arrays.asList(0, 1));
+        store.setPegra(0, Double.NaN);
+        store.setPegra(1, Double.MAX_VALUE);
+        GroupPotentialHeap heap = new GroupPotentialHeap(store);
+        assertEquals(-1, heap.findMin());
+        store.setPegra(1, 5.0);
+        heap.update(1);
+        assertEquals(1, heap.findMin());
+        store.setPegra(0, 2.0);
+        heap.update(0);
+        assertEquals(0, heap.findMin());
+        assertEquals(3.5, heap.getAverage(), 1e-12);
+    }
+
+    @Test
+    public void updatesMatchALinearScan() {
+        SplittableRandom random = new SplittableRandom(11);
+        int n = 37;
+        Integer[] ids = new Integer[n];
+        for (int i = 0; i < n; i++) {
+            ids[i] = i * 3;
+        }
+        PotentialFieldStore store = new PotentialFieldStore(Arrays.asList(ids));
+        for (int i = 0; i < n; i++) {
+            store.setPegraAt(i, random.nextInt(20));
+            store.setPerepAt(i, random.nextInt(5));
+        }
+        GroupPotentialHeap heap = new GroupPotentialHeap(store);
+        for (int step = 0; step < 3000; step++) {
+            int id = ids[random.nextInt(n)];
+            //取整数值，相同势场经常出现
+            store.setPegra(id, random.nextInt(20));
+            store.setPerep(id, random.nextInt(5));
+            heap.update(id);
+            assertEquals(scanMin(store), heap.findMin());
+            double sum = 0;
+            for (int i = 0; i < n; i++) {
+                sum += store.totalAt(i);
+            }
+            assertEquals(sum / n, heap.getAverage(), 1e-9);
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package graph;
+
+import input.Agent;
+import org.jgrapht.Graphs;
+import org.jgrapht.graph.DefaultUndirectedWeightedGraph;
+import org.jgrapht.graph.DefaultWeightedEdge;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+public class CsrGraphTest {
+    private static DefaultUndirectedWeightedGraph<Integer, DefaultWeightedEdge> graph(int[][] edges) {
+        DefaultUndirectedWeightedGraph<Integer, DefaultWeightedEdge> graph = new DefaultUndirectedWeightedGraph<>(DefaultWeightedEdge.class);
+        for (int[] edge : edges) {
+            graph.addVertex(edge[0]);
+            graph.addVertex(edge[1]);
+            graph.setEdgeWeight(graph.addEdge(edge[0], edge[1]), edge[2]);
+        }
+        return graph;
+    }
+
+    private static HashMap<Integer, Agent> robots(int... ids) {
+        HashMap<Integer, Agent> idToRobots = new HashMap<>();
+        for (int id : ids) {
+            Agent agent = new Agent();
+            agent.setRobotId(id);
+            idToRobots.put(id, agent);
+        }
+        return idToRobots;
+    }
+
+    private static void assertMatches(DefaultUndirectedWeightedGraph<Integer, DefaultWeightedEdge> graph, HashMap<Integer, Agent> idToRobots) {
+        CsrGraph csr = new CsrGraph(graph, idToRobots);
+        assertEquals(2 * graph.edgeSet().size(), csr.edgeSlots());
+        for (int index = 0; index < csr.size(); index++) {
+            int id = csr.idOf(index);
+            assertEquals(index, csr.indexOf(id));
+            assertSame(idToRobots.get(id), csr.agent(index));
+            List<DefaultWeightedEdge> edges = graph.containsVertex(id) ? new ArrayList<>(graph.edgesOf(id)) : new ArrayList<>();
+            assertEquals(edges.size(), csr.degree(index));
+            assertEquals(csr.end(index) - csr.begin(index), csr.degree(index));
+            //邻接顺序与edgesOf一致
+            for (int k = csr.begin(index), e = 0; k < csr.end(index); k++, e++) {
+                DefaultWeightedEdge edge = edges.get(e);
+                assertEquals(Graphs.getOppositeVertex(graph, edge, id).intValue(), csr.idOf(csr.neighbor(k)));
+                assertEquals(graph.getEdgeWeight(edge), csr.weight(k), 0.0);
+                assertEquals(graph.getEdgeSource(edge) == id, csr.isOutgoing(k));
+            }
+        }
+    }
+
+    @Test
+    public void adjacencyFollowsEdgesOf() {
+        DefaultUndirectedWeightedGraph<Integer, DefaultWeightedEdge> graph = graph(new int[][]{{1, 2, 3}, {2, 3, 1}, {3, 1, 4}, {3, 4, 2}});
+        assertMatches(graph, robots(1, 2, 3, 4));
+    }
+
+    @Test
+    public void robotsOutsideTheGraphBecomeIsolatedVertices() {
+        DefaultUndirectedWeightedGraph<Integer, DefaultWeightedEdge> graph = graph(new int[][]{{1, 2, 1}});
+        HashMap<Integer, Agent> idToRobots = robots(1, 2, 7);
+        CsrGraph csr = new CsrGraph(graph, idToRobots);
+        assertEquals(3, csr.size());
+        int isolated = csr.indexOf(7);
+        assertEquals(2, isolated);
+        assertEquals(0, csr.degree(isolated));
+        assertEquals(-1, csr.indexOf(5));
+        assertEquals(-1, csr.indexOf(-3));
+        assertMatches(graph, idToRobots);
+    }
+
+    @Test
+    public void sparseIdsUseTheHashIndex() {
+        DefaultUndirectedWeightedGraph<Integer, DefaultWeightedEdge> graph = graph(new int[][]{{-5, 1000000, 2}, {1000000, 42, 1}});
+        HashMap<Integer, Agent> idToRobots = robots(-5, 1000000, 42);
+        CsrGraph csr = new CsrGraph(graph, idToRobots);
+        assertEquals(-1, csr.indexOf(43));
+        assertMatches(graph, idToRobots);
+    }
+}
@@ -0,0 +1,88 @@
+package graph;
+
+import org.jgrapht.alg.scoring.BetweennessCentrality;
+import org.jgrapht.graph.DefaultUndirectedWeightedGraph;
+import org.jgrapht.graph.DefaultWeightedEdge;
+import org.junit.Test;
+
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class SampledBetweennessTest {
+    private static DefaultUndirectedWeightedGraph<Integer, DefaultWeightedEdge> randomGraph(int n, int extraEdges, long seed) {
+        //随机生成树再加边，边权取小整数，最短路经常不唯一
+        SplittableRandom random = new SplittableRandom(seed);
+        DefaultUndirectedWeightedGraph<Integer, DefaultWeightedEdge> graph = new DefaultUndirectedWeightedGraph<>(DefaultWeightedEdge.class);
+        for (int v = 0; v < n; v++) {
+            graph.addVertex(v * 2 + 1);
+        }
+        for (int v = 1; v < n; v++) {
+            graph.setEdgeWeight(graph.addEdge(v * 2 + 1, random.nextInt(v) * 2 + 1), 1 + random.nextInt(3));
+        }
+        for (int i = 0; i < extraEdges; i++) {
+            int u = random.nextInt(n) * 2 + 1;
+            int v = random.nextInt(n) * 2 + 1;
+            if (u != v && !graph.containsEdge(u, v)) {
+                graph.setEdgeWeight(graph.addEdge(u, v), 1 + random.nextInt(3));
+            }
+        }
+        return graph;
+    }
+
+    @Test
+    public void allSourcesGiveTheExactScores() {
+        DefaultUndirectedWeightedGraph<Integer, DefaultWeightedEdge> graph = randomGraph(60, 80, 5);
+        Map<Integer, Double> exact = new BetweennessCentrality<>(graph).getScores();
+        SampledBetweenness sampled = new SampledBetweenness(graph, graph.vertexSet().size(), 0, new SplittableRandom(1));
+        assertEquals(graph.vertexSet().size(), sampled.getSamples());
+        for (Integer v : graph.vertexSet()) {
+            assertEquals(exact.get(v), sampled.getVertexScore(v), 1e-9);
+        }
+    }
+
+    @Test
+    public void samplingApproximatesTheExactScores() {
+        DefaultUndirectedWeightedGraph<Integer, DefaultWeightedEdge> graph = randomGraph(300, 400, 9);
+        int n = graph.vertexSet().size();
+        Map<Integer, Double> exact = new BetweennessCentrality<>(graph).getScores();
+        SampledBetweenness sampled = new SampledBetweenness(graph, 150, 0, new SplittableRandom(3));
+        assertEquals(150, sampled.getSamples());
+        //归一化到[0,1]后比较，误差界取得宽一些，避免偶然失败
+        double norm = (n - 1) * (n - 2) / 2.0;
+        for (Integer v : graph.vertexSet()) {
+            assertEquals(exact.get(v) / norm, sampled.getVertexScore(v) / norm, 0.05);
+        }
+    }
+
+    @Test
+    public void topKStopsEarlyWithoutExceedingMaxSamples() {
+        DefaultUndirectedWeightedGraph<Integer, DefaultWeightedEdge> graph = randomGraph(200, 100, 13);
+        SampledBetweenness sampled = new SampledBetweenness(graph, 200, 3, new SplittableRandom(2));
+        sampled.getScores();
+        assertTrue(sampled.getSamples() > 0 && sampled.getSamples() <= 200);
+    }
+
+    @Test
+    public void sameSeedGivesTheSameScores() {
+        DefaultUndirectedWeightedGraph<Integer, DefaultWeightedEdge> graph = randomGraph(80, 60, 17);
+        Map<Integer, Double> first = new SampledBetweenness(graph, 20, 0, new SplittableRandom(4)).getScores();
+        Map<Integer, Double> second = new SampledBetweenness(graph, 20, 0, new SplittableRandom(4)).getScores();
+        assertEquals(first, second);
+    }
+
+    @Test
+    public void samplesForIsBoundedByN() {
+        assertEquals(0, SampledBetweenness.samplesFor(0, 0.05, 0.1));
+        assertEquals(10, SampledBetweenness.samplesFor(10, 0.05, 0.1));
+        int k = SampledBetweenness.samplesFor(100000, 0.05, 0.1);
+        assertEquals((int) Math.ceil(Math.log(2.0 * 100000 / 0.1) / (2 * 0.05 * 0.05)), k);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void unknownVertexIsRejected() {
+        new SampledBetweenness(randomGraph(5, 0, 1), 5, 0, new SplittableRandom(1)).getVertexScore(2);
+    }
+}
@@ -0,0 +1,66 @@
+package input;
+
+import org.jgrapht.graph.DefaultUndirectedWeightedGraph;
+import org.jgrapht.graph.DefaultWeightedEdge;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class MappedGraphReaderTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private String file(String content) throws IOException {
+        File file = folder.newFile();
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+        return file.getPath();
+    }
+
+    private static List<String> edges(DefaultUndirectedWeightedGraph<Integer, DefaultWeightedEdge> graph, Integer vertex) {
+        List<String> edges = new ArrayList<>();
+        for (DefaultWeightedEdge edge : vertex == null ? graph.edgeSet() : graph.edgesOf(vertex)) {
+            edges.add(graph.getEdgeSource(edge) + "-" + graph.getEdgeTarget(edge) + ":" + graph.getEdgeWeight(edge));
+        }
+        return edges;
+    }
+
+    @Test
+    public void matchesReaderIncludingIterationOrder() throws IOException {
+        String graphFile = file("3 1 2\n1 -4 5\n9000000 3 1\n-4 -4 7\n1 9000000 3\n");
+        DefaultUndirectedWeightedGraph<Integer, DefaultWeightedEdge> expected = new Reader().readFileToGraph(graphFile);
+        DefaultUndirectedWeightedGraph<Integer, DefaultWeightedEdge> actual = new MappedGraphReader().readFileToGraph(graphFile);
+        assertEquals(new ArrayList<>(expected.vertexSet()), new ArrayList<>(actual.vertexSet()));
+        assertEquals(edges(expected, null), edges(actual, null));
+        for (Integer vertex : expected.vertexSet()) {
+            assertEquals(edges(expected, vertex), edges(actual, vertex));
+        }
+    }
+
+    @Test
+    public void rejectsDuplicateEdges() throws IOException {
+        //反向出现的同一条边也算重复，Reader在这种情况下同样失败
+        String graphFile = file("1 2 3\n5 6 1\n\n2 1 4\n");
+        try {
+            new MappedGraphReader().readFileToGraph(graphFile);
+            fail();
+        } catch (IOException e) {
+            assertTrue(e.getMessage(), e.getMessage().endsWith("line 4 repeats the edge of line 1"));
+        }
+    }
+
+    @Test(expected = NumberFormatException.class)
+    public void rejectsNonIntegerWeights() throws IOException {
+        new MappedGraphReader().readFileToGraph(file("1 2 3\n2 3 1.5\n"));
+    }
+}
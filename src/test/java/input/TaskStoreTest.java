@@ -0,0 +1,193 @@
+package input;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class TaskStoreTest {
+    private Agent a;
+    private Agent b;
+    private Agent c;
+    private HashMap<Integer, Agent> idToRobots;
+
+    private static Task task(int id, double size) {
+        Task task = new Task();
+        task.setTaskId(id);
+        task.setSize(size);
+        return task;
+    }
+
+    private static Agent agent(int id, Task... tasks) {
+        Agent agent = new Agent();
+        agent.setRobotId(id);
+        agent.setTasksList(new ArrayList<>(Arrays.asList(tasks)));
+        return agent;
+    }
+
+    @Before
+    public void setUp() {
+        a = agent(1, task(1, 3), task(2, 5), task(3, 1), task(4, 5));
+        b = agent(2, task(5, 2));
+        c = agent(3);
+        idToRobots = new HashMap<>();
+        idToRobots.put(1, a);
+        idToRobots.put(2, b);
+        idToRobots.put(3, c);
+    }
+
+    @Test
+    public void attachReplacesListsWithOwnerViews() {
+        List<Task> before = new ArrayList<>(a.getTasksList());
+        TaskStore store = TaskStore.attach(idToRobots);
+        assertEquals(before, a.getTasksList());
+        assertEquals(4, store.taskCount(a));
+        assertEquals(0, store.taskCount(c));
+        assertTrue(c.getTasksList().isEmpty());
+        for (Task task : before) {
+            assertTrue(store.owns(a, task));
+            assertFalse(store.owns(b, task));
+            assertSame(a, store.ownerOf(task));
+        }
+    }
+
+    @Test
+    public void swapRemoveMovesLastTaskIntoTheGap() {
+        TaskStore.attach(idToRobots);
+        List<Task> tasks = a.getTasksList();
+        Task first = tasks.get(0);
+        Task last = tasks.get(3);
+        assertSame(first, tasks.remove(0));
+        assertEquals(3, tasks.size());
+        assertSame(last, tasks.get(0));
+        assertFalse(tasks.contains(first));
+    }
+
+    @Test
+    public void moveTransfersOwnership() {
+        TaskStore store = TaskStore.attach(idToRobots);
+        Task task = a.getTasksList().get(1);
+        assertTrue(store.move(task, a, c));
+        assertFalse(store.owns(a, task));
+        assertTrue(store.owns(c, task));
+        assertSame(c, store.ownerOf(task));
+        assertEquals(3, a.getTasksList().size());
+        assertEquals(Arrays.asList(task), c.getTasksList());
+    }
+
+    @Test
+    public void movingATaskTheSourceNoLongerOwnsAddsAnotherCopy() {
+        //与原来的ArrayList一样：来源已经不持有任务时目标仍然得到一份，任务同时出现在两个列表中
+        TaskStore store = TaskStore.attach(idToRobots);
+        Task task = a.getTasksList().get(0);
+        assertTrue(store.move(task, a, b));
+        assertFalse(store.move(task, a, c));
+        assertEquals(3, a.getTasksList().size());
+        assertTrue(store.owns(b, task));
+        assertTrue(store.owns(c, task));
+        assertSame(b, store.ownerOf(task));
+        assertTrue(store.move(task, c, b));
+        assertEquals(3, b.getTasksList().size());
+        assertEquals(3, store.taskCount(b));
+        assertTrue(c.getTasksList().isEmpty());
+        assertTrue(b.getTasksList().remove(task));
+        assertTrue(store.owns(b, task));
+        assertTrue(b.getTasksList().remove(task));
+        assertFalse(store.owns(b, task));
+        assertNull(store.ownerOf(task));
+    }
+
+    @Test
+    public void moveToAnAgentOutsideTheStoreUsesItsOwnList() {
+        TaskStore store = TaskStore.attach(idToRobots);
+        Agent outside = new Agent();
+        Task task = b.getTasksList().get(0);
+        assertTrue(store.move(task, b, outside));
+        assertEquals(Arrays.asList(task), outside.getTasksList());
+        assertNull(store.ownerOf(task));
+        assertEquals(0, store.taskCount(b));
+    }
+
+    @Test
+    public void maxTaskPrefersTheEarliestOfEqualSizes() {
+        TaskStore store = TaskStore.attach(idToRobots);
+        List<Task> tasks = a.getTasksList();
+        Task second = tasks.get(1);
+        Task fourth = tasks.get(3);
+        assertSame(second, store.maxTask(a));
+        store.move(second, a, c);
+        assertSame(fourth, store.maxTask(a));
+        //移回来之后是后加入的，大小相同时排在fourth后面
+        store.move(second, c, a);
+        assertSame(fourth, store.maxTask(a));
+        store.move(fourth, a, c);
+        assertSame(second, store.maxTask(a));
+        assertSame(fourth, store.maxTask(c));
+        assertNull(store.maxTask(new Agent()));
+        tasks.clear();
+        assertNull(store.maxTask(a));
+    }
+
+    @Test
+    public void maxTaskMatchesAFullScanUnderRandomMoves() {
+        SplittableRandom random = new SplittableRandom(7);
+        Agent[] agents = new Agent[6];
+        idToRobots.clear();
+        int taskId = 0;
+        for (int i = 0; i < agents.length; i++) {
+            agents[i] = agent(i);
+            for (int k = 0; k < 10; k++) {
+                agents[i].getTasksList().add(task(taskId++, random.nextInt(8)));
+            }
+            idToRobots.put(i, agents[i]);
+        }
+        //参照：每个组件一个按加入顺序排列的ArrayList，与原来的任务列表相同
+        HashMap<Agent, List<Task>> reference = new HashMap<>();
+        for (Agent agent : agents) {
+            reference.put(agent, new ArrayList<>(agent.getTasksList()));
+        }
+        TaskStore store = TaskStore.attach(idToRobots);
+        for (int step = 0; step < 2000; step++) {
+            Agent from = agents[random.nextInt(agents.length)];
+            Agent to = agents[random.nextInt(agents.length)];
+            List<Task> fromTasks = reference.get(from);
+            if (fromTasks.isEmpty()) {
+                continue;
+            }
+            Task task = fromTasks.get(random.nextInt(fromTasks.size()));
+            store.move(task, from, to);
+            fromTasks.remove(task);
+            reference.get(to).add(task);
+            for (Agent agent : agents) {
+                List<Task> expected = reference.get(agent);
+                assertEquals(expected.size(), store.taskCount(agent));
+                assertEquals(new HashSet<>(expected), new HashSet<>(agent.getTasksList()));
+                assertSame(scanMax(expected), store.maxTask(agent));
+            }
+        }
+    }
+
+    private static Task scanMax(List<Task> tasks) {
+        if (tasks.isEmpty()) {
+            return null;
+        }
+        Task max = tasks.get(0);
+        for (Task task : tasks) {
+            if (task.getSize() > max.getSize()) {
+                max = task;
+            }
+        }
+        return max;
+    }
+}